@@ -0,0 +1,55 @@
+package de.khamrakulov.schema.registry;
+
+import org.apache.avro.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generated record schemas of a given size, with a compatible evolution history
+ */
+public final class BenchmarkSchemas {
+  private static final String[] FIELD_TYPES = {
+    "\"long\"",
+    "\"string\"",
+    "[\"null\", \"string\"]",
+    "{\"type\": \"array\", \"items\": \"int\"}",
+    "{\"type\": \"map\", \"values\": \"double\"}"
+  };
+
+  private BenchmarkSchemas() {
+  }
+
+  /**
+   * @param fields number of fields of the first version
+   * @param version number of optional fields added to the first version
+   */
+  public static String schemaText(int fields, int version) {
+    final StringBuilder text = new StringBuilder("{\"type\": \"record\", \"name\": \"Benchmark\", "
+      + "\"namespace\": \"de.khamrakulov.schema.registry.benchmark\", \"fields\": [");
+    for (int i = 0; i < fields; i++) {
+      text.append(i == 0 ? "" : ", ")
+        .append("{\"name\": \"field").append(i).append("\", \"type\": ").append(FIELD_TYPES[i % FIELD_TYPES.length])
+        .append('}');
+    }
+    for (int i = 0; i < version; i++) {
+      text.append(", {\"name\": \"added").append(i).append("\", \"type\": [\"null\", \"long\"], \"default\": null}");
+    }
+    return text.append("]}").toString();
+  }
+
+  public static Schema schema(int fields, int version) {
+    return new Schema.Parser().parse(schemaText(fields, version));
+  }
+
+  /**
+   * @return versions 0 until {@code depth} - 1 in chronological order
+   */
+  public static List<Schema> history(int fields, int depth) {
+    final List<Schema> history = new ArrayList<>(depth);
+    for (int version = 0; version < depth; version++) {
+      history.add(schema(fields, version));
+    }
+    return history;
+  }
+}
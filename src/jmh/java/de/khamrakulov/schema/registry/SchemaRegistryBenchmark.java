@@ -0,0 +1,84 @@
+package de.khamrakulov.schema.registry;
+
+import de.khamrakulov.schema.registry.avro.AvroSchemaContractVerifier;
+import de.khamrakulov.schema.registry.avro.AvroSchemaParser;
+import de.khamrakulov.schema.registry.cache.CachingSchemaParser;
+import de.khamrakulov.schema.registry.memory.InMemorySchemaRegistryBackend;
+import org.apache.avro.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+
+@State(Scope.Benchmark)
+public class SchemaRegistryBenchmark {
+  private static final String SUBJECT = "benchmark";
+  // registrations per iteration of the register benchmark, each one adds a version to the history
+  private static final int REGISTRATIONS = 1000;
+
+  @Param({"10", "100"})
+  private int fields;
+
+  @Param({"1", "10"})
+  private int depth;
+
+  @Param({"true", "false"})
+  private boolean cachingParser;
+
+  private SchemaRegistry<Schema> registry;
+  private Schema[] evolution;
+  private int next;
+
+  // reset per iteration, so the history of the register benchmark starts from the same versions every time
+  @Setup(Level.Iteration)
+  public void setUp() throws IOException {
+    final SchemaParser<Schema> parser = cachingParser
+      ? new CachingSchemaParser<>(new AvroSchemaParser())
+      : new AvroSchemaParser();
+    final SchemaRegistryBackend backend = new InMemorySchemaRegistryBackend();
+    registry = new SchemaRegistry<>(backend, AvroSchemaContractVerifier.FULL_CHECKER, parser);
+    for (Schema schema : BenchmarkSchemas.history(fields, depth)) {
+      backend.register(SUBJECT, schema.toString());
+    }
+    // alternate between two compatible schemas, so every registration writes a new version
+    evolution = new Schema[]{BenchmarkSchemas.schema(fields, depth), BenchmarkSchemas.schema(fields, depth - 1)};
+    next = 0;
+  }
+
+  @Benchmark
+  public Schema getSchema() throws IOException {
+    return registry.getSchema(SUBJECT);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Schema getSchemaConcurrently() throws IOException {
+    return registry.getSchema(SUBJECT);
+  }
+
+  /**
+   * Measured in batches of a fixed number of registrations per iteration, so the history grows by the same number
+   * of versions in every iteration instead of with the duration of the run
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @Warmup(iterations = 5, batchSize = REGISTRATIONS)
+  @Measurement(iterations = 10, batchSize = REGISTRATIONS)
+  public SchemaMetadata register() throws IOException, SchemaCompatibilityException {
+    return registry.register(SUBJECT, evolution[next++ & 1]);
+  }
+
+  @Benchmark
+  public SchemaMetadata registerUnchanged() throws IOException, SchemaCompatibilityException {
+    return registry.register(SUBJECT, evolution[1]);
+  }
+}
@@ -0,0 +1,60 @@
+package de.khamrakulov.schema.registry.avro;
+
+import de.khamrakulov.schema.registry.BenchmarkSchemas;
+import org.apache.avro.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class AvroSchemaContractVerifierBenchmark {
+
+  @Param({"BACKWARD", "FORWARD", "FULL", "BACKWARD_TRANSITIVE", "FORWARD_TRANSITIVE", "FULL_TRANSITIVE"})
+  private String strategy;
+
+  @Param({"10", "100", "1000"})
+  private int fields;
+
+  @Param({"1", "10", "100"})
+  private int depth;
+
+  private AvroSchemaContractVerifier verifier;
+  private Schema newSchema;
+  private List<Schema> history;
+
+  @Setup
+  public void setUp() throws ReflectiveOperationException {
+    verifier = (AvroSchemaContractVerifier) AvroSchemaContractVerifier.class.getField(strategy + "_CHECKER").get(null);
+    history = BenchmarkSchemas.history(fields, depth);
+    newSchema = BenchmarkSchemas.schema(fields, depth);
+  }
+
+  /**
+   * State for the benchmarks, which measure verification without the verdict cache. The verifier doesn't cache any
+   * verdict, so it is created once per iteration instead of per invocation, which would distort the measurement.
+   */
+  @State(Scope.Thread)
+  public static class Uncached {
+    private AvroSchemaContractVerifier verifier;
+
+    @Setup(Level.Iteration)
+    public void setUp(AvroSchemaContractVerifierBenchmark benchmark) {
+      verifier = new AvroSchemaContractVerifier(benchmark.verifier, 0);
+    }
+  }
+
+  @Benchmark
+  public boolean verify(Uncached uncached) {
+    return uncached.verifier.isCompatible(newSchema, history);
+  }
+
+  @Benchmark
+  public boolean verifyCached() {
+    return verifier.isCompatible(newSchema, history);
+  }
+}
@@ -0,0 +1,38 @@
+package de.khamrakulov.schema.registry.avro;
+
+import de.khamrakulov.schema.registry.BenchmarkSchemas;
+import de.khamrakulov.schema.registry.cache.CachingSchemaParser;
+import org.apache.avro.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class AvroSchemaParserBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int fields;
+
+  private String schemaText;
+  private AvroSchemaParser parser;
+  private CachingSchemaParser<Schema> cachingParser;
+
+  @Setup
+  public void setUp() {
+    schemaText = BenchmarkSchemas.schemaText(fields, 0);
+    parser = new AvroSchemaParser();
+    cachingParser = new CachingSchemaParser<>(parser);
+  }
+
+  @Benchmark
+  public Schema parse() {
+    return parser.parse(schemaText);
+  }
+
+  @Benchmark
+  public Schema parseCached() {
+    return cachingParser.parse(schemaText);
+  }
+}
@@ -0,0 +1,47 @@
+package de.khamrakulov.schema.registry.s3;
+
+import com.amazonaws.util.IOUtils;
+import de.khamrakulov.schema.registry.BenchmarkSchemas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+@State(Scope.Benchmark)
+public class S3SchemaCodecBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int fields;
+
+  private byte[] body;
+  private byte[] compressedBody;
+
+  @Setup
+  public void setUp() throws IOException {
+    body = BenchmarkSchemas.schemaText(fields, 0).getBytes(StandardCharsets.UTF_8);
+    compressedBody = S3SchemaCodec.compress(body).toByteArray();
+  }
+
+  @Benchmark
+  public String read() throws IOException {
+    return S3SchemaCodec.read(new ByteArrayInputStream(body), body.length);
+  }
+
+  @Benchmark
+  public String readCompressed() throws IOException {
+    return S3SchemaCodec.read(new ByteArrayInputStream(compressedBody), compressedBody.length);
+  }
+
+  /**
+   * Baseline: copy the body into a growing buffer and decode a copy of it
+   */
+  @Benchmark
+  public String readCopying() throws IOException {
+    return IOUtils.toString(new ByteArrayInputStream(body));
+  }
+}
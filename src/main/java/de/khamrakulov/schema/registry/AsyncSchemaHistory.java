@@ -0,0 +1,70 @@
+package de.khamrakulov.schema.registry;
+
+import de.khamrakulov.schema.registry.cache.LruCache;
+import de.khamrakulov.schema.registry.cache.SubjectVersion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Version history of subjects as parsed schemas, like {@link SchemaHistory} for an
+ * {@link AsyncSchemaRegistryBackend}.
+ * <p>
+ * Versions are immutable, so every version is fetched and parsed once and then served from a bounded cache. A lookup
+ * of the history lists the versions and fetches only those missing from the cache.
+ */
+public class AsyncSchemaHistory<T> {
+  private final AsyncSchemaRegistryBackend backend;
+  private final SchemaParser<T> parser;
+  private final LruCache<SubjectVersion, T> versions;
+
+  public AsyncSchemaHistory(AsyncSchemaRegistryBackend backend, SchemaParser<T> parser) {
+    this(backend, parser, SchemaHistory.DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * @param maximumSize maximum number of cached versions
+   */
+  public AsyncSchemaHistory(AsyncSchemaRegistryBackend backend, SchemaParser<T> parser, int maximumSize) {
+    this.backend = backend;
+    this.parser = parser;
+    this.versions = new LruCache<>(maximumSize);
+  }
+
+  /**
+   * @return all schemas of the subject in chronological order
+   */
+  public CompletableFuture<List<T>> getSchemas(String subject) {
+    return backend.getAllVersions(subject).thenCompose(versionIds -> {
+      final List<CompletableFuture<T>> schemas = new ArrayList<>(versionIds.size());
+      for (String version : versionIds) {
+        final T cached = versions.get(new SubjectVersion(subject, version));
+        schemas.add(cached != null ? CompletableFuture.completedFuture(cached) : load(subject, version));
+      }
+      return CompletableFuture.allOf(schemas.toArray(new CompletableFuture<?>[0])).thenApply(loaded -> {
+        final List<T> history = new ArrayList<>(schemas.size());
+        for (CompletableFuture<T> schema : schemas) {
+          history.add(schema.join());
+        }
+        return history;
+      });
+    });
+  }
+
+  /**
+   * @return the schema of the given version of the subject
+   */
+  public CompletableFuture<T> getSchema(String subject, String version) {
+    final T cached = versions.get(new SubjectVersion(subject, version));
+    return cached != null ? CompletableFuture.completedFuture(cached) : load(subject, version);
+  }
+
+  private CompletableFuture<T> load(String subject, String version) {
+    return backend.getBySubjectAndVersion(subject, version).thenApply(md -> {
+      final T schema = parser.parse(md.getSchema());
+      versions.put(new SubjectVersion(subject, version), schema);
+      return schema;
+    });
+  }
+}
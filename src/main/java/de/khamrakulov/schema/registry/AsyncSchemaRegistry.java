@@ -0,0 +1,90 @@
+package de.khamrakulov.schema.registry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncSchemaRegistry<T> {
+  // only delays retries, the retried calls run on the backend
+  private static final ScheduledExecutorService RETRY_SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+    runnable -> {
+      final Thread thread = new Thread(runnable, "schema-registry-async-retry");
+      thread.setDaemon(true);
+      return thread;
+    });
+
+  private final AsyncSchemaRegistryBackend backend;
+  private final SchemaContractVerifier<T> contractVerifier;
+  private final SchemaParser<T> parser;
+  private final AsyncSchemaHistory<T> history;
+
+  public AsyncSchemaRegistry(AsyncSchemaRegistryBackend backend, SchemaContractVerifier<T> contractVerifier,
+                             SchemaParser<T> parser) {
+    this(backend, contractVerifier, parser, new AsyncSchemaHistory<>(backend, parser));
+  }
+
+  public AsyncSchemaRegistry(AsyncSchemaRegistryBackend backend, SchemaContractVerifier<T> contractVerifier,
+                             SchemaParser<T> parser, AsyncSchemaHistory<T> history) {
+    this.backend = backend;
+    this.contractVerifier = contractVerifier;
+    this.parser = parser;
+    this.history = history;
+  }
+
+  /**
+   * Register the schema like {@link SchemaRegistry#register}: transitive verifiers check the full history, the
+   * schema is written on condition that the latest version didn't move, and conflicting registrations are retried.
+   * The future fails with {@link SchemaCompatibilityException} if the new schema isn't compatible.
+   */
+  public CompletableFuture<SchemaMetadata> register(String subject, T schema) {
+    final CompletableFuture<SchemaMetadata> result = new CompletableFuture<>();
+    register(subject, schema, schema.toString(), 1, result);
+    return result;
+  }
+
+  public CompletableFuture<T> getSchema(String subject) {
+    return backend.getLatestSchemaMetadata(subject).thenApply(md -> parser.parse(md.getSchema()));
+  }
+
+  private void register(String subject, T schema, String schemaText, int attempt,
+                        CompletableFuture<SchemaMetadata> result) {
+    backend.findLatestSchemaMetadata(subject).thenCompose(latestMd -> {
+      if (latestMd == null) {
+        return backend.registerIfLatest(subject, schemaText, null);
+      }
+      if (schemaText.equals(latestMd.getSchema())) {
+        // already the latest schema, don't create a new version
+        return CompletableFuture.completedFuture(latestMd);
+      }
+      return isCompatible(subject, schema, latestMd).thenCompose(compatible -> {
+        if (!compatible) {
+          final CompletableFuture<SchemaMetadata> failed = new CompletableFuture<>();
+          failed.completeExceptionally(
+            new SchemaCompatibilityException("New schema is not compatible with latest registered schema."));
+          return failed;
+        }
+        return backend.registerIfLatest(subject, schemaText, latestMd);
+      });
+    }).whenComplete((md, failure) -> {
+      final Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+        ? failure.getCause() : failure;
+      if (cause == null) {
+        result.complete(md);
+      } else if (cause instanceof ConcurrentRegistrationException && attempt < SchemaRegistry.MAX_REGISTER_ATTEMPTS) {
+        RETRY_SCHEDULER.schedule(() -> register(subject, schema, schemaText, attempt + 1, result),
+          SchemaRegistry.backoffMillis(attempt), TimeUnit.MILLISECONDS);
+      } else {
+        result.completeExceptionally(cause);
+      }
+    });
+  }
+
+  private CompletableFuture<Boolean> isCompatible(String subject, T schema, SchemaMetadata latestMd) {
+    if (!contractVerifier.isTransitive()) {
+      return CompletableFuture.completedFuture(contractVerifier.isCompatible(schema, parser.parse(latestMd.getSchema())));
+    }
+    return history.getSchemas(subject).thenApply(schemas -> contractVerifier.isCompatible(schema, schemas));
+  }
+}
@@ -0,0 +1,45 @@
+package de.khamrakulov.schema.registry;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking variant of {@link SchemaRegistryBackend}, failures complete the futures with an {@link java.io.IOException}
+ */
+public interface AsyncSchemaRegistryBackend {
+  public CompletableFuture<Boolean> isSubjectRegistered(String subject);
+
+  public CompletableFuture<SchemaMetadata> register(String subject, String schema);
+
+  /**
+   * Register the schema, only if the latest version of the subject is still the expected one.
+   * Backends without conditional writes register unconditionally.
+   *
+   * @param expectedLatest latest schema as read before, or null if the subject is expected to be new
+   * @see SchemaRegistryBackend#registerIfLatest
+   */
+  public default CompletableFuture<SchemaMetadata> registerIfLatest(String subject, String schema,
+                                                                    SchemaMetadata expectedLatest) {
+    return register(subject, schema);
+  }
+
+  public CompletableFuture<SchemaMetadata> getBySubjectAndVersion(String subject, String version);
+
+  public CompletableFuture<SchemaMetadata> getLatestSchemaMetadata(String subject);
+
+  /**
+   * @return future of the latest schema of the subject, completed with null if the subject is not registered
+   */
+  public default CompletableFuture<SchemaMetadata> findLatestSchemaMetadata(String subject) {
+    return isSubjectRegistered(subject).thenCompose(registered -> registered
+      ? getLatestSchemaMetadata(subject) : CompletableFuture.completedFuture(null));
+  }
+
+  public CompletableFuture<String> getLatestVersion(String subject);
+
+  public CompletableFuture<SchemaMetadata> revertToVersion(String subject, String version);
+
+  public CompletableFuture<List<String>> getAllSubjects();
+
+  public CompletableFuture<List<String>> getAllVersions(String subject);
+}
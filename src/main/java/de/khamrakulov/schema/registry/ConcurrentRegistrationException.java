@@ -0,0 +1,16 @@
+package de.khamrakulov.schema.registry;
+
+import java.io.IOException;
+
+/**
+ * Thrown by a conditional registration, if the latest version of the subject moved since it was read
+ */
+public class ConcurrentRegistrationException extends IOException {
+  public ConcurrentRegistrationException(String message) {
+    super(message);
+  }
+
+  public ConcurrentRegistrationException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
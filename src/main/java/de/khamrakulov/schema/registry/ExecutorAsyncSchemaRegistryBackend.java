@@ -0,0 +1,93 @@
+package de.khamrakulov.schema.registry;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs the calls of a blocking {@link SchemaRegistryBackend} on the given executor.
+ * <p>
+ * A bounded executor limits the number of threads waiting for the storage, regardless of the number of requests in
+ * flight.
+ */
+public class ExecutorAsyncSchemaRegistryBackend implements AsyncSchemaRegistryBackend {
+  private final SchemaRegistryBackend backend;
+  private final Executor executor;
+
+  public ExecutorAsyncSchemaRegistryBackend(SchemaRegistryBackend backend, Executor executor) {
+    this.backend = backend;
+    this.executor = executor;
+  }
+
+  @Override
+  public CompletableFuture<Boolean> isSubjectRegistered(String subject) {
+    return call(() -> backend.isSubjectRegistered(subject));
+  }
+
+  @Override
+  public CompletableFuture<SchemaMetadata> register(String subject, String schema) {
+    return call(() -> backend.register(subject, schema));
+  }
+
+  @Override
+  public CompletableFuture<SchemaMetadata> registerIfLatest(String subject, String schema,
+                                                            SchemaMetadata expectedLatest) {
+    return call(() -> backend.registerIfLatest(subject, schema, expectedLatest));
+  }
+
+  @Override
+  public CompletableFuture<SchemaMetadata> getBySubjectAndVersion(String subject, String version) {
+    return call(() -> backend.getBySubjectAndVersion(subject, version));
+  }
+
+  @Override
+  public CompletableFuture<SchemaMetadata> getLatestSchemaMetadata(String subject) {
+    return call(() -> backend.getLatestSchemaMetadata(subject));
+  }
+
+  @Override
+  public CompletableFuture<SchemaMetadata> findLatestSchemaMetadata(String subject) {
+    return call(() -> backend.findLatestSchemaMetadata(subject));
+  }
+
+  @Override
+  public CompletableFuture<String> getLatestVersion(String subject) {
+    return call(() -> backend.getLatestVersion(subject));
+  }
+
+  @Override
+  public CompletableFuture<SchemaMetadata> revertToVersion(String subject, String version) {
+    return call(() -> backend.revertToVersion(subject, version));
+  }
+
+  @Override
+  public CompletableFuture<List<String>> getAllSubjects() {
+    return call(backend::getAllSubjects);
+  }
+
+  @Override
+  public CompletableFuture<List<String>> getAllVersions(String subject) {
+    return call(() -> backend.getAllVersions(subject));
+  }
+
+  private <R> CompletableFuture<R> call(BackendCall<R> call) {
+    final CompletableFuture<R> future = new CompletableFuture<>();
+    try {
+      executor.execute(() -> {
+        try {
+          future.complete(call.call());
+        } catch (IOException | RuntimeException exception) {
+          future.completeExceptionally(exception);
+        }
+      });
+    } catch (RuntimeException exception) {
+      future.completeExceptionally(exception);
+    }
+    return future;
+  }
+
+  private interface BackendCall<R> {
+    R call() throws IOException;
+  }
+}
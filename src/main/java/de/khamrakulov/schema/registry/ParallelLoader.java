@@ -0,0 +1,71 @@
+package de.khamrakulov.schema.registry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads values for a set of keys with bounded parallelism, failing on the first error
+ */
+final class ParallelLoader {
+
+  interface Loader<K, V> {
+    V load(K key) throws IOException;
+  }
+
+  private ParallelLoader() {
+  }
+
+  /**
+   * @return loaded values by key, in the order of the given keys
+   */
+  static <K, V> Map<K, V> loadAll(Collection<K> keys, int parallelism, Loader<K, V> loader) throws IOException {
+    final Map<K, V> values = new LinkedHashMap<>();
+    if (keys.isEmpty()) {
+      return values;
+    }
+    if (keys.size() == 1 || parallelism <= 1) {
+      for (K key : keys) {
+        values.put(key, loader.load(key));
+      }
+      return values;
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, keys.size()));
+    try {
+      final Map<K, Future<V>> futures = new LinkedHashMap<>();
+      for (K key : keys) {
+        futures.put(key, executor.submit(() -> loader.load(key)));
+      }
+      for (Map.Entry<K, Future<V>> future : futures.entrySet()) {
+        values.put(future.getKey(), await(future.getValue()));
+      }
+      return values;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static <V> V await(Future<V> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while loading schemas");
+    } catch (ExecutionException exception) {
+      final Throwable cause = exception.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
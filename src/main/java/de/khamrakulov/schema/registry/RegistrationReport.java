@@ -0,0 +1,36 @@
+package de.khamrakulov.schema.registry;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a batch registration, registered schemas and failures by subject
+ */
+public final class RegistrationReport {
+  private final Map<String, SchemaMetadata> registered;
+  private final Map<String, Exception> failures;
+
+  RegistrationReport(Map<String, SchemaMetadata> registered, Map<String, Exception> failures) {
+    this.registered = Collections.unmodifiableMap(registered);
+    this.failures = Collections.unmodifiableMap(failures);
+  }
+
+  /**
+   * @return metadata of the registered schemas, in the order of the given subjects
+   */
+  public Map<String, SchemaMetadata> getRegistered() {
+    return registered;
+  }
+
+  /**
+   * @return {@link SchemaCompatibilityException}, {@link java.io.IOException} or runtime exception of every failed
+   * subject
+   */
+  public Map<String, Exception> getFailures() {
+    return failures;
+  }
+
+  public boolean isSuccessful() {
+    return failures.isEmpty();
+  }
+}
@@ -0,0 +1,36 @@
+package de.khamrakulov.schema.registry;
+
+/**
+ * Registration of a new version of a subject, as recorded in a {@link SchemaChangeFeed}
+ */
+public final class SchemaChange {
+  private final long sequence;
+  private final String subject;
+  private final String version;
+
+  public SchemaChange(long sequence, String subject, String version) {
+    this.sequence = sequence;
+    this.subject = subject;
+    this.version = version;
+  }
+
+  /**
+   * @return position of the change in the feed, increasing by one with every change
+   */
+  public long getSequence() {
+    return sequence;
+  }
+
+  public String getSubject() {
+    return subject;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("SchemaChange{sequence=%d, subject=%s, version=%s}", sequence, subject, version);
+  }
+}
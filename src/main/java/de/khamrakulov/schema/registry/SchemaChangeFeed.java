@@ -0,0 +1,19 @@
+package de.khamrakulov.schema.registry;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Ordered log of registrations, which lets clients learn about new versions without polling every subject
+ */
+public interface SchemaChangeFeed {
+  /**
+   * @return changes with a sequence number greater than the given one, in sequence order
+   */
+  public List<SchemaChange> getChangesSince(long sequence) throws IOException;
+
+  /**
+   * @return sequence number of the latest change, 0 if nothing was recorded yet
+   */
+  public long getLatestSequence() throws IOException;
+}
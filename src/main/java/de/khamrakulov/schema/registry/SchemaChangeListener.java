@@ -0,0 +1,6 @@
+package de.khamrakulov.schema.registry;
+
+@FunctionalInterface
+public interface SchemaChangeListener {
+  public void onChange(SchemaChange change);
+}
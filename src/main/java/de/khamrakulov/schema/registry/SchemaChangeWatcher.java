@@ -0,0 +1,124 @@
+package de.khamrakulov.schema.registry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls a {@link SchemaChangeFeed} and notifies listeners about new versions of the subjects they subscribed to.
+ * <p>
+ * Each poll reads only the changes after the last seen sequence number, so watching the whole registry costs a
+ * single feed read per poll interval. Listeners are called on the polling thread, in sequence order.
+ */
+public class SchemaChangeWatcher implements Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(SchemaChangeWatcher.class);
+
+  private final SchemaChangeFeed feed;
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownsScheduler;
+  private final List<SchemaChangeListener> allSubjectsListeners = new CopyOnWriteArrayList<>();
+  private final ConcurrentMap<String, List<SchemaChangeListener>> subjectListeners = new ConcurrentHashMap<>();
+  private volatile long lastSequence;
+
+  /**
+   * Watch changes registered from now on
+   */
+  public SchemaChangeWatcher(SchemaChangeFeed feed, Duration pollInterval) throws IOException {
+    this(feed, pollInterval, Executors.newSingleThreadScheduledExecutor(SchemaChangeWatcher::newDaemonThread), true,
+      feed.getLatestSequence());
+  }
+
+  /**
+   * @param scheduler    scheduler used to poll the feed, it isn't shut down on close
+   * @param lastSequence sequence number of the last change already known, later changes are reported
+   */
+  public SchemaChangeWatcher(SchemaChangeFeed feed, Duration pollInterval, ScheduledExecutorService scheduler,
+                             long lastSequence) {
+    this(feed, pollInterval, scheduler, false, lastSequence);
+  }
+
+  private SchemaChangeWatcher(SchemaChangeFeed feed, Duration pollInterval, ScheduledExecutorService scheduler,
+                              boolean ownsScheduler, long lastSequence) {
+    this.feed = feed;
+    this.scheduler = scheduler;
+    this.ownsScheduler = ownsScheduler;
+    this.lastSequence = lastSequence;
+    final long intervalNanos = pollInterval.toNanos();
+    scheduler.scheduleWithFixedDelay(this::pollSafely, intervalNanos, intervalNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void subscribe(String subject, SchemaChangeListener listener) {
+    subjectListeners.computeIfAbsent(subject, key -> new CopyOnWriteArrayList<>()).add(listener);
+  }
+
+  public void subscribeAll(SchemaChangeListener listener) {
+    allSubjectsListeners.add(listener);
+  }
+
+  public void unsubscribe(SchemaChangeListener listener) {
+    allSubjectsListeners.remove(listener);
+    subjectListeners.values().forEach(listeners -> listeners.remove(listener));
+  }
+
+  /**
+   * @return sequence number of the last change passed to the listeners
+   */
+  public long getLastSequence() {
+    return lastSequence;
+  }
+
+  @Override
+  public void close() {
+    if (ownsScheduler) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Read the changes since the last poll and notify the listeners
+   */
+  synchronized void poll() throws IOException {
+    for (SchemaChange change : feed.getChangesSince(lastSequence)) {
+      notify(allSubjectsListeners, change);
+      final List<SchemaChangeListener> listeners = subjectListeners.get(change.getSubject());
+      if (listeners != null) {
+        notify(listeners, change);
+      }
+      lastSequence = change.getSequence();
+    }
+  }
+
+  private void pollSafely() {
+    try {
+      poll();
+    } catch (IOException | RuntimeException exception) {
+      LOGGER.warn("Error reading schema changes after sequence {}", lastSequence, exception);
+    }
+  }
+
+  private static void notify(List<SchemaChangeListener> listeners, SchemaChange change) {
+    for (SchemaChangeListener listener : listeners) {
+      try {
+        listener.onChange(change);
+      } catch (RuntimeException exception) {
+        LOGGER.warn("Error notifying listener about {}", change, exception);
+      }
+    }
+  }
+
+  private static Thread newDaemonThread(Runnable runnable) {
+    final Thread thread = new Thread(runnable, "schema-registry-change-watcher");
+    thread.setDaemon(true);
+    return thread;
+  }
+}
@@ -6,4 +6,11 @@ public interface SchemaContractVerifier<T> {
   public boolean isCompatible(T newSchema, T prevSchema);
 
   public boolean isCompatible(T newSchema, List<T> previousSchemas);
+
+  /**
+   * Whether the new schema has to be checked against all previous schemas, not only the latest one
+   */
+  public default boolean isTransitive() {
+    return false;
+  }
 }
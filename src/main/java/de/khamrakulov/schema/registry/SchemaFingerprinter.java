@@ -0,0 +1,8 @@
+package de.khamrakulov.schema.registry;
+
+public interface SchemaFingerprinter<T> {
+  /**
+   * 64-bit fingerprint of the schema, equal for schemas which encode data the same way
+   */
+  public long fingerprint(T schema);
+}
@@ -0,0 +1,81 @@
+package de.khamrakulov.schema.registry;
+
+import de.khamrakulov.schema.registry.cache.LruCache;
+import de.khamrakulov.schema.registry.cache.SubjectVersion;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Version history of subjects as parsed schemas.
+ * <p>
+ * Versions are immutable, so every version is fetched and parsed once and then served from a bounded cache.
+ * Versions missing from the cache are fetched in parallel.
+ */
+public class SchemaHistory<T> {
+  public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+  private final SchemaRegistryBackend backend;
+  private final SchemaParser<T> parser;
+  private final int parallelism;
+  private final LruCache<SubjectVersion, T> versions;
+
+  public SchemaHistory(SchemaRegistryBackend backend, SchemaParser<T> parser) {
+    this(backend, parser, SchemaRegistry.DEFAULT_PARALLELISM, DEFAULT_MAXIMUM_SIZE);
+  }
+
+  /**
+   * @param parallelism maximum number of concurrent backend requests
+   * @param maximumSize maximum number of cached versions
+   */
+  public SchemaHistory(SchemaRegistryBackend backend, SchemaParser<T> parser, int parallelism, int maximumSize) {
+    this.backend = backend;
+    this.parser = parser;
+    this.parallelism = parallelism;
+    this.versions = new LruCache<>(maximumSize);
+  }
+
+  /**
+   * @return all schemas of the subject in chronological order
+   */
+  public List<T> getSchemas(String subject) throws IOException {
+    final List<String> versionIds = backend.getAllVersions(subject);
+    final List<String> missing = new ArrayList<>();
+    for (String version : versionIds) {
+      if (versions.peek(new SubjectVersion(subject, version)) == null) {
+        missing.add(version);
+      }
+    }
+    final Map<String, T> loaded = ParallelLoader.loadAll(missing, parallelism, version -> load(subject, version));
+
+    final List<T> schemas = new ArrayList<>(versionIds.size());
+    for (String version : versionIds) {
+      T schema = loaded.get(version);
+      if (schema == null) {
+        schema = versions.get(new SubjectVersion(subject, version));
+      }
+      if (schema == null) {
+        // evicted in the meantime
+        schema = load(subject, version);
+      }
+      schemas.add(schema);
+    }
+    return schemas;
+  }
+
+  /**
+   * @return the schema of the given version of the subject
+   */
+  public T getSchema(String subject, String version) throws IOException {
+    final T cached = versions.get(new SubjectVersion(subject, version));
+    return cached != null ? cached : load(subject, version);
+  }
+
+  private T load(String subject, String version) throws IOException {
+    final T schema = parser.parse(backend.getBySubjectAndVersion(subject, version).getSchema());
+    versions.put(new SubjectVersion(subject, version), schema);
+    return schema;
+  }
+}
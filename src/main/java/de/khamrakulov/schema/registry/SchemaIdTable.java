@@ -0,0 +1,87 @@
+package de.khamrakulov.schema.registry;
+
+/**
+ * Map from numeric schema ids to schemas for per-record lookups.
+ * <p>
+ * Reads are lock-free and allocation free: the table is an open addressing hash table over primitive keys, which is
+ * copied on every insert and published through a volatile field. Inserts are expected to be rare.
+ */
+public final class SchemaIdTable<T> {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private volatile Table table = new Table(INITIAL_CAPACITY);
+
+  /**
+   * @return the schema with the id or null, if the id is unknown
+   */
+  @SuppressWarnings("unchecked")
+  public T get(long id) {
+    return (T) table.get(id);
+  }
+
+  /**
+   * @return the schema already stored with the id, or null if the given schema was added
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized T putIfAbsent(long id, T schema) {
+    final Table current = table;
+    final Object existing = current.get(id);
+    if (existing != null) {
+      return (T) existing;
+    }
+    // keep the load factor at or below 1/2
+    final int capacity = (current.size + 1) * 2 > current.keys.length ? current.keys.length * 2 : current.keys.length;
+    final Table updated = new Table(capacity);
+    for (int i = 0; i < current.keys.length; i++) {
+      if (current.values[i] != null) {
+        updated.insert(current.keys[i], current.values[i]);
+      }
+    }
+    updated.insert(id, schema);
+    table = updated;
+    return null;
+  }
+
+  public int size() {
+    return table.size;
+  }
+
+  private static final class Table {
+    private final long[] keys;
+    private final Object[] values;
+    private final int mask;
+    private int size;
+
+    private Table(int capacity) {
+      this.keys = new long[capacity];
+      this.values = new Object[capacity];
+      this.mask = capacity - 1;
+    }
+
+    private Object get(long id) {
+      int index = index(id);
+      while (true) {
+        final Object value = values[index];
+        if (value == null || keys[index] == id) {
+          return value;
+        }
+        index = (index + 1) & mask;
+      }
+    }
+
+    private void insert(long id, Object value) {
+      int index = index(id);
+      while (values[index] != null) {
+        index = (index + 1) & mask;
+      }
+      keys[index] = id;
+      values[index] = value;
+      size++;
+    }
+
+    private int index(long id) {
+      // fingerprints are well distributed already, fold the high bits in for arbitrary ids
+      return (int) (id ^ (id >>> 32)) & mask;
+    }
+  }
+}
@@ -1,34 +1,169 @@
 package de.khamrakulov.schema.registry;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class SchemaRegistry<T> {
+  public static final int DEFAULT_PARALLELISM = 16;
+  static final int MAX_REGISTER_ATTEMPTS = 5;
+  private static final long BASE_BACKOFF_MILLIS = 20;
+
   private final SchemaRegistryBackend backend;
   private final SchemaContractVerifier<T> contractVerifier;
   private final SchemaParser<T> parser;
+  private final SchemaHistory<T> history;
 
   public SchemaRegistry(SchemaRegistryBackend backend, SchemaContractVerifier<T> contractVerifier, SchemaParser<T> parser) {
+    this(backend, contractVerifier, parser, new SchemaHistory<>(backend, parser));
+  }
+
+  public SchemaRegistry(SchemaRegistryBackend backend, SchemaContractVerifier<T> contractVerifier, SchemaParser<T> parser,
+                        SchemaHistory<T> history) {
     this.backend = backend;
     this.contractVerifier = contractVerifier;
     this.parser = parser;
+    this.history = history;
   }
 
+  /**
+   * Register the schema, if it is compatible with the registered ones. Registering the latest schema again returns
+   * its metadata without creating a new version.
+   * <p>
+   * The latest schema is read once and the new one is written on condition, that the latest version didn't move in
+   * the meantime. Registrations conflicting with a concurrent writer are verified again and retried with backoff.
+   */
   public SchemaMetadata register(String subject, T schema) throws IOException, SchemaCompatibilityException {
-    if (backend.isSubjectRegistered(subject)) {
-      final SchemaMetadata currentMd = backend.getLatestSchemaMetadata(subject);
-      final T currentSchema = parser.parse(currentMd.getSchema());
-      if (contractVerifier.isCompatible(schema, currentSchema)) {
-        return backend.register(subject, schema.toString());
-      } else {
+    final String schemaText = schema.toString();
+    for (int attempt = 1; ; attempt++) {
+      final SchemaMetadata latestMd = backend.findLatestSchemaMetadata(subject);
+      if (latestMd != null && schemaText.equals(latestMd.getSchema())) {
+        // already the latest schema, don't create a new version
+        return latestMd;
+      }
+      if (latestMd != null && !isCompatible(subject, schema, latestMd)) {
         throw new SchemaCompatibilityException("New schema is not compatible with latest registered schema.");
       }
-    } else {
-      return backend.register(subject, schema.toString());
+      try {
+        return backend.registerIfLatest(subject, schemaText, latestMd);
+      } catch (ConcurrentRegistrationException exception) {
+        if (attempt >= MAX_REGISTER_ATTEMPTS) {
+          throw exception;
+        }
+      }
+      backoff(attempt);
+    }
+  }
+
+  public RegistrationReport registerAll(Map<String, T> schemas) throws IOException {
+    return registerAll(schemas, DEFAULT_PARALLELISM);
+  }
+
+  /**
+   * Register the schemas of several subjects, subjects are fetched, verified and written in parallel.
+   * A failing subject doesn't stop the registration of the others.
+   *
+   * @param schemas     new schemas by subject
+   * @param parallelism maximum number of subjects registered concurrently
+   */
+  public RegistrationReport registerAll(Map<String, T> schemas, int parallelism) throws IOException {
+    final Map<String, Exception> failures = new LinkedHashMap<>();
+    final Map<String, SchemaMetadata> registered = new LinkedHashMap<>();
+    final Map<String, Outcome> outcomes = ParallelLoader.loadAll(schemas.keySet(), parallelism, subject -> {
+      try {
+        return new Outcome(register(subject, schemas.get(subject)), null);
+      } catch (IOException | SchemaCompatibilityException | RuntimeException exception) {
+        // e.g. a schema parse error fails only its subject
+        return new Outcome(null, exception);
+      }
+    });
+    for (Map.Entry<String, Outcome> outcome : outcomes.entrySet()) {
+      if (outcome.getValue().failure != null) {
+        failures.put(outcome.getKey(), outcome.getValue().failure);
+      } else {
+        registered.put(outcome.getKey(), outcome.getValue().registered);
+      }
     }
+    return new RegistrationReport(registered, failures);
   }
 
   public T getSchema(String subject) throws IOException {
     final String schema = backend.getLatestSchemaMetadata(subject).getSchema();
     return parser.parse(schema);
   }
+
+  /**
+   * @return all schemas of the subject in chronological order
+   */
+  public List<T> getSchemaHistory(String subject) throws IOException {
+    return history.getSchemas(subject);
+  }
+
+  public Map<String, T> getSchemas(Collection<String> subjects) throws IOException {
+    return getSchemas(subjects, DEFAULT_PARALLELISM);
+  }
+
+  /**
+   * Fetch the latest schemas of the subjects in parallel, any caching backend or parser is populated on the way
+   *
+   * @param parallelism maximum number of concurrent backend requests
+   * @return schemas by subject, in the order of the given subjects
+   */
+  public Map<String, T> getSchemas(Collection<String> subjects, int parallelism) throws IOException {
+    return ParallelLoader.loadAll(subjects, parallelism, subject -> {
+      try {
+        return getSchema(subject);
+      } catch (IOException exception) {
+        final String message = String.format("Error retrieving schema for subject %s", subject);
+        throw new IOException(message, exception);
+      }
+    });
+  }
+
+  /**
+   * Fetch the latest schemas of all registered subjects
+   *
+   * @see #getSchemas(Collection, int)
+   */
+  public Map<String, T> preloadAll(int parallelism) throws IOException {
+    return getSchemas(backend.getAllSubjects(), parallelism);
+  }
+
+  private boolean isCompatible(String subject, T schema, SchemaMetadata latestMd) throws IOException {
+    if (contractVerifier.isTransitive()) {
+      return contractVerifier.isCompatible(schema, history.getSchemas(subject));
+    }
+    return contractVerifier.isCompatible(schema, parser.parse(latestMd.getSchema()));
+  }
+
+  /**
+   * @return jittered delay before the next attempt of a conflicting registration
+   */
+  static long backoffMillis(int attempt) {
+    final long maxDelay = BASE_BACKOFF_MILLIS << Math.min(attempt, 6);
+    return ThreadLocalRandom.current().nextLong(maxDelay / 2, maxDelay);
+  }
+
+  private static void backoff(int attempt) throws InterruptedIOException {
+    try {
+      Thread.sleep(backoffMillis(attempt));
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to retry");
+    }
+  }
+
+  private static final class Outcome {
+    private final SchemaMetadata registered;
+    private final Exception failure;
+
+    private Outcome(SchemaMetadata registered, Exception failure) {
+      this.registered = registered;
+      this.failure = failure;
+    }
+  }
 }
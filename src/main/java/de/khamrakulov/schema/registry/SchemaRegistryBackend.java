@@ -8,15 +8,37 @@ public interface SchemaRegistryBackend {
 
   public SchemaMetadata register(String subject, String schema) throws IOException;
 
+  /**
+   * Register the schema, only if the latest version of the subject is still the expected one.
+   * Backends without conditional writes register unconditionally.
+   *
+   * @param expectedLatest latest schema as read before, or null if the subject is expected to be new
+   * @throws ConcurrentRegistrationException if the latest version of the subject moved
+   */
+  public default SchemaMetadata registerIfLatest(String subject, String schema, SchemaMetadata expectedLatest)
+    throws IOException {
+    return register(subject, schema);
+  }
+
   public SchemaMetadata getBySubjectAndVersion(String subject, String version) throws IOException;
 
   public SchemaMetadata getLatestSchemaMetadata(String subject) throws IOException;
 
+  /**
+   * @return the latest schema of the subject, or null if the subject is not registered
+   */
+  public default SchemaMetadata findLatestSchemaMetadata(String subject) throws IOException {
+    return isSubjectRegistered(subject) ? getLatestSchemaMetadata(subject) : null;
+  }
+
   public String getLatestVersion(String subject) throws IOException;
 
   public SchemaMetadata revertToVersion(String subject, String version) throws IOException;
 
   public List<String> getAllSubjects() throws IOException;
 
+  /**
+   * @return versions of the subject in chronological order
+   */
   public List<String> getAllVersions(String subject) throws IOException;
 }
@@ -0,0 +1,126 @@
+package de.khamrakulov.schema.registry.avro;
+
+import de.khamrakulov.schema.registry.SchemaIdTable;
+import de.khamrakulov.schema.registry.SchemaRegistry;
+import de.khamrakulov.schema.registry.cache.SingleFlight;
+import org.apache.avro.Schema;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.apache.avro.specific.SpecificDatumReader;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Reads records written by {@link AvroSerializer}.
+ * <p>
+ * Writer schemas are resolved by their id from a lock-free table. Unknown ids are looked up in the version history
+ * of the configured subjects, so a registry request is only made the first time an id is seen. Concurrent lookups
+ * share a single refresh of the histories and refreshes happen at most once per refresh interval, so a stream of
+ * records with an id unknown to the registry fails fast instead of refetching the histories for every record.
+ */
+public class AvroDeserializer<D> {
+  public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(1);
+
+  private final SchemaRegistry<Schema> registry;
+  private final List<String> subjects;
+  private final Schema readerSchema;
+  private final long refreshIntervalNanos;
+  private final LongSupplier ticker;
+  private final SchemaIdTable<Schema> writerSchemas = new SchemaIdTable<>();
+  private final SchemaIdTable<DatumReader<D>> readers = new SchemaIdTable<>();
+  private final SingleFlight<String, Void> refreshes = new SingleFlight<>();
+  private volatile boolean refreshed;
+  private volatile long lastRefresh;
+
+  /**
+   * Reads records with the schema they were written with
+   */
+  public AvroDeserializer(SchemaRegistry<Schema> registry, Collection<String> subjects) {
+    this(registry, subjects, null);
+  }
+
+  /**
+   * @param readerSchema schema the records are resolved to
+   */
+  public AvroDeserializer(SchemaRegistry<Schema> registry, Collection<String> subjects, Schema readerSchema) {
+    this(registry, subjects, readerSchema, DEFAULT_REFRESH_INTERVAL);
+  }
+
+  /**
+   * @param refreshInterval minimum time between two lookups of unknown ids in the registry
+   */
+  public AvroDeserializer(SchemaRegistry<Schema> registry, Collection<String> subjects, Schema readerSchema,
+                          Duration refreshInterval) {
+    this(registry, subjects, readerSchema, refreshInterval, System::nanoTime);
+  }
+
+  AvroDeserializer(SchemaRegistry<Schema> registry, Collection<String> subjects, Schema readerSchema,
+                   Duration refreshInterval, LongSupplier ticker) {
+    this.registry = registry;
+    this.subjects = new ArrayList<>(subjects);
+    this.readerSchema = readerSchema;
+    this.refreshIntervalNanos = refreshInterval.toNanos();
+    this.ticker = ticker;
+  }
+
+  public D deserialize(byte[] data) throws IOException {
+    final long schemaId = AvroWireFormat.readSchemaId(data);
+    DatumReader<D> reader = readers.get(schemaId);
+    if (reader == null) {
+      reader = createReader(schemaId);
+    }
+    final int offset = AvroWireFormat.HEADER_SIZE;
+    return reader.read(null, DecoderFactory.get().binaryDecoder(data, offset, data.length - offset, null));
+  }
+
+  /**
+   * Make a writer schema known without a registry request
+   */
+  public void addSchema(Schema schema) {
+    writerSchemas.putIfAbsent(AvroSchemaFingerprinter.INSTANCE.fingerprint(schema), schema);
+  }
+
+  private DatumReader<D> createReader(long schemaId) throws IOException {
+    Schema writerSchema = writerSchemas.get(schemaId);
+    if (writerSchema == null) {
+      final long start = ticker.getAsLong();
+      if (!refreshed || start - lastRefresh >= refreshIntervalNanos) {
+        refreshes.execute("histories", this::refresh);
+      }
+      writerSchema = writerSchemas.get(schemaId);
+    }
+    if (writerSchema == null) {
+      throw new IOException(String.format("Unknown schema id %016x", schemaId));
+    }
+    final DatumReader<D> reader =
+      new SpecificDatumReader<>(writerSchema, readerSchema == null ? writerSchema : readerSchema);
+    final DatumReader<D> existing = readers.putIfAbsent(schemaId, reader);
+    return existing != null ? existing : reader;
+  }
+
+  /**
+   * Adds the histories of all subjects to the known writer schemas. Failed refreshes count as well, so an unavailable
+   * registry isn't queried for every record either.
+   */
+  private Void refresh() throws IOException {
+    final long start = ticker.getAsLong();
+    if (refreshed && start - lastRefresh < refreshIntervalNanos) {
+      // refreshed by a concurrent caller, after this caller checked
+      return null;
+    }
+    try {
+      for (String subject : subjects) {
+        registry.getSchemaHistory(subject).forEach(this::addSchema);
+      }
+    } finally {
+      lastRefresh = start;
+      refreshed = true;
+    }
+    return null;
+  }
+}
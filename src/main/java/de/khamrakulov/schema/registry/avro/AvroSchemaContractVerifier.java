@@ -1,5 +1,8 @@
 package de.khamrakulov.schema.registry.avro;
 
+import de.khamrakulov.schema.registry.cache.CacheStats;
+import de.khamrakulov.schema.registry.cache.LruCache;
+import org.apache.avro.SchemaNormalization;
 import org.apache.avro.SchemaValidationException;
 import org.apache.avro.SchemaValidator;
 import org.apache.avro.SchemaValidatorBuilder;
@@ -8,7 +11,7 @@ import org.apache.avro.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 
@@ -20,37 +23,31 @@ public class AvroSchemaContractVerifier implements SchemaContractVerifier<Schema
   private static final SchemaValidator BACKWARD_VALIDATOR =
     new SchemaValidatorBuilder().canReadStrategy().validateLatest();
   public static final AvroSchemaContractVerifier BACKWARD_CHECKER
-    = new AvroSchemaContractVerifier(BACKWARD_VALIDATOR);
+    = new AvroSchemaContractVerifier(BACKWARD_VALIDATOR, false);
 
   // Check if data produced by the new schema can be read by the previous schema
   private static final SchemaValidator FORWARD_VALIDATOR =
     new SchemaValidatorBuilder().canBeReadStrategy().validateLatest();
   public static final AvroSchemaContractVerifier FORWARD_CHECKER
-    = new AvroSchemaContractVerifier(FORWARD_VALIDATOR);
+    = new AvroSchemaContractVerifier(FORWARD_VALIDATOR, false);
 
   // Check if the new schema is both forward and backward compatible with the previous schema
   private static final SchemaValidator FULL_VALIDATOR =
     new SchemaValidatorBuilder().mutualReadStrategy().validateLatest();
   public static final AvroSchemaContractVerifier FULL_CHECKER
-    = new AvroSchemaContractVerifier(FULL_VALIDATOR);
+    = new AvroSchemaContractVerifier(FULL_VALIDATOR, false);
 
   // Check if the new schema can be used to read data produced by all earlier schemas
-  private static final SchemaValidator BACKWARD_TRANSITIVE_VALIDATOR =
-    new SchemaValidatorBuilder().canReadStrategy().validateAll();
   public static final AvroSchemaContractVerifier BACKWARD_TRANSITIVE_CHECKER
-    = new AvroSchemaContractVerifier(BACKWARD_TRANSITIVE_VALIDATOR);
+    = new AvroSchemaContractVerifier(BACKWARD_VALIDATOR, true);
 
   // Check if data produced by the new schema can be read by all earlier schemas
-  private static final SchemaValidator FORWARD_TRANSITIVE_VALIDATOR =
-    new SchemaValidatorBuilder().canBeReadStrategy().validateAll();
   public static final AvroSchemaContractVerifier FORWARD_TRANSITIVE_CHECKER
-    = new AvroSchemaContractVerifier(FORWARD_TRANSITIVE_VALIDATOR);
+    = new AvroSchemaContractVerifier(FORWARD_VALIDATOR, true);
 
   // Check if the new schema is both forward and backward compatible with all earlier schemas
-  private static final SchemaValidator FULL_TRANSITIVE_VALIDATOR =
-    new SchemaValidatorBuilder().mutualReadStrategy().validateAll();
   public static final AvroSchemaContractVerifier FULL_TRANSITIVE_CHECKER
-    = new AvroSchemaContractVerifier(FULL_TRANSITIVE_VALIDATOR);
+    = new AvroSchemaContractVerifier(FULL_VALIDATOR, true);
 
   private static final SchemaValidator NO_OP_VALIDATOR = new SchemaValidator() {
     @Override
@@ -59,12 +56,40 @@ public class AvroSchemaContractVerifier implements SchemaContractVerifier<Schema
     }
   };
   public static final AvroSchemaContractVerifier NO_OP_CHECKER = new AvroSchemaContractVerifier(
-    NO_OP_VALIDATOR);
+    NO_OP_VALIDATOR, false);
 
+  private static final int MAXIMUM_CACHED_VERDICTS = 10_000;
+  private static final SchemaIdentityFingerprints FINGERPRINTS = new SchemaIdentityFingerprints(
+    schema -> SchemaNormalization.fingerprint64(schema.toString().getBytes(StandardCharsets.UTF_8)));
+
+  // validates the new schema against a single previous schema
   private final SchemaValidator validator;
+  private final boolean transitive;
+  // verdicts of single (new, previous) checks by schema fingerprints
+  private final LruCache<Verdict, Boolean> verdicts;
+
+  private AvroSchemaContractVerifier(SchemaValidator validator, boolean transitive) {
+    this(validator, transitive, MAXIMUM_CACHED_VERDICTS);
+  }
 
-  private AvroSchemaContractVerifier(SchemaValidator validator) {
+  private AvroSchemaContractVerifier(SchemaValidator validator, boolean transitive, int maximumCachedVerdicts) {
     this.validator = validator;
+    this.transitive = transitive;
+    this.verdicts = new LruCache<>(maximumCachedVerdicts);
+  }
+
+  /**
+   * Verifier with the strategy of the given verifier and an empty verdict cache
+   */
+  AvroSchemaContractVerifier(AvroSchemaContractVerifier verifier) {
+    this(verifier, MAXIMUM_CACHED_VERDICTS);
+  }
+
+  /**
+   * @param maximumCachedVerdicts size of the verdict cache, 0 validates every pair of schemas on every check
+   */
+  AvroSchemaContractVerifier(AvroSchemaContractVerifier verifier, int maximumCachedVerdicts) {
+    this(verifier.validator, verifier.transitive, maximumCachedVerdicts);
   }
 
   /**
@@ -82,16 +107,82 @@ public class AvroSchemaContractVerifier implements SchemaContractVerifier<Schema
    */
   @Override
   public boolean isCompatible(Schema newSchema, List<Schema> previousSchemas) {
-    List<Schema> previousSchemasCopy = new ArrayList<>(previousSchemas);
+    if (previousSchemas.isEmpty() || validator == NO_OP_VALIDATOR) {
+      return true;
+    }
+    final long newFingerprint = fingerprint(newSchema);
+    final int latest = previousSchemas.size() - 1;
+    final int oldest = transitive ? 0 : latest;
+    // checks occur in reverse chronological order
+    for (int i = latest; i >= oldest; i--) {
+      if (!isCompatible(newSchema, newFingerprint, previousSchemas.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean isTransitive() {
+    return transitive;
+  }
+
+  /**
+   * Counters of the compatibility verdicts served from the cache
+   */
+  public CacheStats getVerdictCacheStats() {
+    return verdicts.stats();
+  }
+
+  private boolean isCompatible(Schema newSchema, long newFingerprint, Schema prevSchema) {
+    final Verdict verdict = new Verdict(newFingerprint, fingerprint(prevSchema));
+    final Boolean cached = verdicts.get(verdict);
+    if (cached != null) {
+      return cached;
+    }
+    boolean compatible = true;
     try {
-      // Validator checks in list order, but checks should occur in reverse chronological order
-      Collections.reverse(previousSchemasCopy);
-      validator.validate(newSchema, previousSchemasCopy);
+      validator.validate(newSchema, Collections.singletonList(prevSchema));
     } catch (SchemaValidationException e) {
       LOGGER.error("Schema validation error", e);
-      return false;
+      compatible = false;
     }
+    verdicts.put(verdict, compatible);
+    return compatible;
+  }
 
-    return true;
+  /**
+   * Fingerprint of the full schema, the parsing canonical form would ignore defaults relevant for compatibility.
+   * Fingerprints are cached per schema instance, schemas must not be changed after they were checked.
+   */
+  private static long fingerprint(Schema schema) {
+    return FINGERPRINTS.fingerprint(schema);
+  }
+
+  private static final class Verdict {
+    private final long newFingerprint;
+    private final long prevFingerprint;
+
+    private Verdict(long newFingerprint, long prevFingerprint) {
+      this.newFingerprint = newFingerprint;
+      this.prevFingerprint = prevFingerprint;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Verdict that = (Verdict) o;
+      return newFingerprint == that.newFingerprint && prevFingerprint == that.prevFingerprint;
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(newFingerprint) * 31 + Long.hashCode(prevFingerprint);
+    }
   }
 }
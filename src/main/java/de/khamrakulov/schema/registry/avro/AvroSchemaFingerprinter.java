@@ -0,0 +1,17 @@
+package de.khamrakulov.schema.registry.avro;
+
+import de.khamrakulov.schema.registry.SchemaFingerprinter;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+/**
+ * CRC-64-AVRO fingerprint of the Parsing Canonical Form, as used by the Avro single object encoding
+ */
+public class AvroSchemaFingerprinter implements SchemaFingerprinter<Schema> {
+  public static final AvroSchemaFingerprinter INSTANCE = new AvroSchemaFingerprinter();
+
+  @Override
+  public long fingerprint(Schema schema) {
+    return SchemaNormalization.parsingFingerprint64(schema);
+  }
+}
@@ -0,0 +1,51 @@
+package de.khamrakulov.schema.registry.avro;
+
+import de.khamrakulov.schema.registry.SchemaRegistry;
+import org.apache.avro.Schema;
+import org.apache.avro.io.BinaryEncoder;
+import org.apache.avro.io.DatumWriter;
+import org.apache.avro.io.EncoderFactory;
+import org.apache.avro.specific.SpecificDatumWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes records with the latest schema of a subject, prefixed by the 64-bit id of the schema.
+ * <p>
+ * The output is the Avro single object encoding, the schema id is the fingerprint from {@link AvroSchemaFingerprinter}.
+ */
+public class AvroSerializer<D> {
+  private final Schema schema;
+  private final long schemaId;
+  private final byte[] header;
+  private final DatumWriter<D> writer;
+
+  public AvroSerializer(SchemaRegistry<Schema> registry, String subject) throws IOException {
+    this(registry.getSchema(subject));
+  }
+
+  public AvroSerializer(Schema schema) {
+    this.schema = schema;
+    this.schemaId = AvroSchemaFingerprinter.INSTANCE.fingerprint(schema);
+    this.header = AvroWireFormat.header(schemaId);
+    this.writer = new SpecificDatumWriter<>(schema);
+  }
+
+  public Schema getSchema() {
+    return schema;
+  }
+
+  public long getSchemaId() {
+    return schemaId;
+  }
+
+  public byte[] serialize(D datum) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+    out.write(header);
+    final BinaryEncoder encoder = EncoderFactory.get().directBinaryEncoder(out, null);
+    writer.write(datum, encoder);
+    encoder.flush();
+    return out.toByteArray();
+  }
+}
@@ -0,0 +1,36 @@
+package de.khamrakulov.schema.registry.avro;
+
+import java.io.IOException;
+
+/**
+ * Header of the Avro single object encoding: two marker bytes followed by the little-endian schema fingerprint
+ */
+final class AvroWireFormat {
+  static final int HEADER_SIZE = 10;
+  private static final byte MARKER_1 = (byte) 0xC3;
+  private static final byte MARKER_2 = (byte) 0x01;
+
+  private AvroWireFormat() {
+  }
+
+  static byte[] header(long schemaId) {
+    final byte[] header = new byte[HEADER_SIZE];
+    header[0] = MARKER_1;
+    header[1] = MARKER_2;
+    for (int i = 0; i < 8; i++) {
+      header[2 + i] = (byte) (schemaId >>> (8 * i));
+    }
+    return header;
+  }
+
+  static long readSchemaId(byte[] data) throws IOException {
+    if (data.length < HEADER_SIZE || data[0] != MARKER_1 || data[1] != MARKER_2) {
+      throw new IOException("Data is not in the Avro single object encoding");
+    }
+    long schemaId = 0;
+    for (int i = 7; i >= 0; i--) {
+      schemaId = (schemaId << 8) | (data[2 + i] & 0xFF);
+    }
+    return schemaId;
+  }
+}
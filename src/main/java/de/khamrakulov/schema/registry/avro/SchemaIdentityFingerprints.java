@@ -0,0 +1,74 @@
+package de.khamrakulov.schema.registry.avro;
+
+import org.apache.avro.Schema;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Fingerprints of schema instances, keyed by identity and weakly referenced, so the schemas a registry keeps parsed
+ * are fingerprinted once and collected schemas drop out. Equal schemas of different instances are fingerprinted
+ * separately, and a schema mutated after its first fingerprint keeps the old fingerprint.
+ */
+final class SchemaIdentityFingerprints {
+  private final ToLongFunction<Schema> fingerprinter;
+  private final ConcurrentMap<Key, Long> fingerprints = new ConcurrentHashMap<>();
+  private final ReferenceQueue<Schema> collected = new ReferenceQueue<>();
+
+  SchemaIdentityFingerprints(ToLongFunction<Schema> fingerprinter) {
+    this.fingerprinter = fingerprinter;
+  }
+
+  long fingerprint(Schema schema) {
+    expungeCollected();
+    final Long cached = fingerprints.get(new Key(schema, null));
+    if (cached != null) {
+      return cached;
+    }
+    final long fingerprint = fingerprinter.applyAsLong(schema);
+    fingerprints.putIfAbsent(new Key(schema, collected), fingerprint);
+    return fingerprint;
+  }
+
+  int size() {
+    expungeCollected();
+    return fingerprints.size();
+  }
+
+  private void expungeCollected() {
+    Reference<? extends Schema> reference;
+    while ((reference = collected.poll()) != null) {
+      fingerprints.remove(reference);
+    }
+  }
+
+  private static final class Key extends WeakReference<Schema> {
+    private final int hashCode;
+
+    private Key(Schema schema, ReferenceQueue<Schema> queue) {
+      super(schema, queue);
+      this.hashCode = System.identityHashCode(schema);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      final Schema schema = get();
+      return schema != null && schema == ((Key) o).get();
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package de.khamrakulov.schema.registry.cache;
+
+import de.khamrakulov.schema.registry.SchemaParser;
+import org.apache.avro.SchemaNormalization;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parser decorator, which parses every distinct schema text only once.
+ * <p>
+ * Parsed schemas are cached by the CRC-64-AVRO fingerprint of their text and interned by the fingerprint of their
+ * serialized form, so texts which differ only in formatting share one schema instance.
+ */
+public class CachingSchemaParser<T> implements SchemaParser<T> {
+  public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+  private final SchemaParser<T> parser;
+  private final LruCache<Long, T> textCache;
+  private final LruCache<Long, T> definitionCache;
+
+  public CachingSchemaParser(SchemaParser<T> parser) {
+    this(parser, DEFAULT_MAXIMUM_SIZE);
+  }
+
+  public CachingSchemaParser(SchemaParser<T> parser, int maximumSize) {
+    this.parser = parser;
+    this.textCache = new LruCache<>(maximumSize);
+    this.definitionCache = new LruCache<>(maximumSize);
+  }
+
+  @Override
+  public T parse(String schema) {
+    final long textFingerprint = fingerprint(schema);
+    final T cached = textCache.get(textFingerprint);
+    if (cached != null) {
+      return cached;
+    }
+    final T interned = intern(parser.parse(schema));
+    textCache.put(textFingerprint, interned);
+    return interned;
+  }
+
+  /**
+   * Returns the shared instance with the same definition as the given schema
+   */
+  public T intern(T schema) {
+    // parsing canonical form drops defaults and docs, so the full serialized form is used for identity
+    final T existing = definitionCache.putIfAbsent(fingerprint(schema.toString()), schema);
+    return existing == null ? schema : existing;
+  }
+
+  public CacheStats stats() {
+    return textCache.stats();
+  }
+
+  private static long fingerprint(String text) {
+    return SchemaNormalization.fingerprint64(text.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,272 @@
+package de.khamrakulov.schema.registry.cache;
+
+import de.khamrakulov.schema.registry.ConcurrentRegistrationException;
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory caching decorator for a {@link SchemaRegistryBackend}.
+ * <p>
+ * Schema versions are immutable, so they are cached by (subject, version) until evicted. The latest version of a
+ * subject is tracked by a pointer, which expires after the configured TTL and is then revalidated by the backend.
+ * <p>
+ * Pointers are read without locking, a cache hit of the latest schema takes a single lock of the version cache.
+ * A pointer loaded by a read is only installed if no other pointer was installed
+ * for the subject while the read was in flight, so a slow read can't replace the version of a later registration.
+ * Once more than {@code maximumSubjects} pointers are cached, arbitrary pointers are evicted.
+ */
+public class CachingSchemaRegistryBackend implements SchemaRegistryBackend {
+  public static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+  // approximate number of characters of cached schema text
+  public static final long DEFAULT_MAXIMUM_WEIGHT = 32L * 1024 * 1024;
+  public static final int DEFAULT_MAXIMUM_SUBJECTS = 100_000;
+
+  private final SchemaRegistryBackend backend;
+  private final long ttlNanos;
+  private final LongSupplier ticker;
+  private final LruCache<SubjectVersion, SchemaMetadata> versions;
+  private final int maximumSubjects;
+  private final ConcurrentMap<String, LatestVersion> latestVersions = new ConcurrentHashMap<>();
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder latestEvictionCount = new LongAdder();
+
+  public CachingSchemaRegistryBackend(SchemaRegistryBackend backend) {
+    this(backend, DEFAULT_TTL, DEFAULT_MAXIMUM_WEIGHT, DEFAULT_MAXIMUM_SUBJECTS);
+  }
+
+  public CachingSchemaRegistryBackend(SchemaRegistryBackend backend, Duration ttl, long maximumWeight,
+                                      int maximumSubjects) {
+    this(backend, ttl, maximumWeight, maximumSubjects, System::nanoTime);
+  }
+
+  CachingSchemaRegistryBackend(SchemaRegistryBackend backend, Duration ttl, long maximumWeight,
+                               int maximumSubjects, LongSupplier ticker) {
+    this.backend = backend;
+    this.ttlNanos = ttl.toNanos();
+    this.ticker = ticker;
+    this.versions = new LruCache<>(maximumWeight, CachingSchemaRegistryBackend::weigh);
+    this.maximumSubjects = maximumSubjects;
+  }
+
+  @Override
+  public boolean isSubjectRegistered(String subject) {
+    if (getFresh(latestVersions.get(subject)) != null) {
+      hitCount.increment();
+      return true;
+    }
+    missCount.increment();
+    return backend.isSubjectRegistered(subject);
+  }
+
+  @Override
+  public SchemaMetadata register(String subject, String schema) throws IOException {
+    final LatestVersion expected = latestVersions.get(subject);
+    final SchemaMetadata md = backend.register(subject, schema);
+    cacheWritten(subject, expected, md);
+    return md;
+  }
+
+  @Override
+  public SchemaMetadata registerIfLatest(String subject, String schema, SchemaMetadata expectedLatest)
+    throws IOException {
+    final LatestVersion expected = latestVersions.get(subject);
+    final SchemaMetadata md;
+    try {
+      md = backend.registerIfLatest(subject, schema, expectedLatest);
+    } catch (ConcurrentRegistrationException exception) {
+      // the cached latest version is outdated, read it from the backend on retry
+      invalidate(subject);
+      throw exception;
+    }
+    cacheWritten(subject, expected, md);
+    return md;
+  }
+
+  @Override
+  public SchemaMetadata getBySubjectAndVersion(String subject, String version) throws IOException {
+    if (version == null) {
+      return backend.getBySubjectAndVersion(subject, null);
+    }
+    final SchemaMetadata cached = versions.get(new SubjectVersion(subject, version));
+    if (cached != null) {
+      hitCount.increment();
+      return cached;
+    }
+    missCount.increment();
+    final SchemaMetadata md = backend.getBySubjectAndVersion(subject, version);
+    cacheVersion(md);
+    return md;
+  }
+
+  @Override
+  public SchemaMetadata getLatestSchemaMetadata(String subject) throws IOException {
+    final LatestVersion latest = latestVersions.get(subject);
+    final SchemaMetadata cached = getCachedVersion(subject, getFresh(latest));
+    if (cached != null) {
+      hitCount.increment();
+      return cached;
+    }
+    missCount.increment();
+    final SchemaMetadata md = backend.getLatestSchemaMetadata(subject);
+    cacheRead(subject, latest, md);
+    return md;
+  }
+
+  @Override
+  public SchemaMetadata findLatestSchemaMetadata(String subject) throws IOException {
+    final LatestVersion latest = latestVersions.get(subject);
+    final SchemaMetadata cached = getCachedVersion(subject, getFresh(latest));
+    if (cached != null) {
+      hitCount.increment();
+      return cached;
+    }
+    missCount.increment();
+    final SchemaMetadata md = backend.findLatestSchemaMetadata(subject);
+    cacheRead(subject, latest, md);
+    return md;
+  }
+
+  @Override
+  public String getLatestVersion(String subject) throws IOException {
+    final LatestVersion latest = latestVersions.get(subject);
+    final LatestVersion fresh = getFresh(latest);
+    if (fresh != null) {
+      hitCount.increment();
+      return fresh.version;
+    }
+    missCount.increment();
+    final String version = backend.getLatestVersion(subject);
+    if (version != null) {
+      install(subject, latest, new LatestVersion(version, ticker.getAsLong() + ttlNanos));
+    }
+    return version;
+  }
+
+  @Override
+  public SchemaMetadata revertToVersion(String subject, String version) throws IOException {
+    final LatestVersion expected = latestVersions.get(subject);
+    final SchemaMetadata md = backend.revertToVersion(subject, version);
+    cacheWritten(subject, expected, md);
+    return md;
+  }
+
+  @Override
+  public List<String> getAllSubjects() throws IOException {
+    return backend.getAllSubjects();
+  }
+
+  @Override
+  public List<String> getAllVersions(String subject) throws IOException {
+    return backend.getAllVersions(subject);
+  }
+
+  /**
+   * Drop the latest version pointer of the subject, so the next lookup goes to the backend
+   */
+  public void invalidate(String subject) {
+    // an expired pointer rather than none, so reads started before can't install their result
+    latestVersions.put(subject, LatestVersion.INVALID);
+  }
+
+  public void invalidateAll() {
+    latestVersions.replaceAll((subject, latest) -> LatestVersion.INVALID);
+    versions.invalidateAll();
+  }
+
+  public CacheStats stats() {
+    final long evictionCount = versions.stats().getEvictionCount() + latestEvictionCount.sum();
+    return new CacheStats(hitCount.sum(), missCount.sum(), evictionCount);
+  }
+
+  private LatestVersion getFresh(LatestVersion latest) {
+    if (latest == null || latest.version == null || ticker.getAsLong() - latest.expiresAt >= 0) {
+      return null;
+    }
+    return latest;
+  }
+
+  private SchemaMetadata getCachedVersion(String subject, LatestVersion latest) {
+    return latest == null ? null : versions.get(new SubjectVersion(subject, latest.version));
+  }
+
+  /**
+   * Cache the latest version returned by a read, unless another pointer was installed while reading
+   *
+   * @param expected pointer of the subject before the read, or null
+   */
+  private void cacheRead(String subject, LatestVersion expected, SchemaMetadata md) {
+    if (md == null || md.getVersion() == null) {
+      // unversioned buckets can't be cached safely
+      return;
+    }
+    cacheVersion(md);
+    install(subject, expected, new LatestVersion(md.getVersion(), ticker.getAsLong() + ttlNanos));
+  }
+
+  /**
+   * Cache the version returned by a write. If another pointer was installed during the write, the order of the two
+   * is unknown and the pointer is invalidated instead.
+   */
+  private void cacheWritten(String subject, LatestVersion expected, SchemaMetadata md) {
+    if (md == null || md.getVersion() == null) {
+      invalidate(subject);
+      return;
+    }
+    cacheVersion(md);
+    if (!install(subject, expected, new LatestVersion(md.getVersion(), ticker.getAsLong() + ttlNanos))) {
+      invalidate(subject);
+    }
+  }
+
+  private boolean install(String subject, LatestVersion expected, LatestVersion latest) {
+    final boolean installed = expected == null ? latestVersions.putIfAbsent(subject, latest) == null
+      : latestVersions.replace(subject, expected, latest);
+    if (installed && expected == null && latestVersions.size() > maximumSubjects) {
+      evictLatest();
+    }
+    return installed;
+  }
+
+  private void evictLatest() {
+    final Iterator<LatestVersion> iterator = latestVersions.values().iterator();
+    while (latestVersions.size() > maximumSubjects && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+      latestEvictionCount.increment();
+    }
+  }
+
+  private void cacheVersion(SchemaMetadata md) {
+    if (md != null && md.getVersion() != null) {
+      versions.put(new SubjectVersion(md.getSubject(), md.getVersion()), md);
+    }
+  }
+
+  private static long weigh(SubjectVersion key, SchemaMetadata md) {
+    final String schema = md.getSchema();
+    return key.subject.length() + key.version.length() + (schema == null ? 0 : schema.length());
+  }
+
+  private static final class LatestVersion {
+    // expired pointer of an invalidated subject
+    private static final LatestVersion INVALID = new LatestVersion(null, 0);
+
+    private final String version;
+    private final long expiresAt;
+
+    private LatestVersion(String version, long expiresAt) {
+      this.version = version;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
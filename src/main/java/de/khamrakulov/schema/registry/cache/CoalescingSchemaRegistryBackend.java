@@ -0,0 +1,72 @@
+package de.khamrakulov.schema.registry.cache;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Decorator, which issues a single backend request for concurrent reads of the same (subject, version).
+ * All concurrent callers share the result, or the failure, of that request. Writes are not coalesced.
+ */
+public class CoalescingSchemaRegistryBackend implements SchemaRegistryBackend {
+  private final SchemaRegistryBackend backend;
+  private final SingleFlight<SubjectVersion, SchemaMetadata> schemaLoads = new SingleFlight<>();
+  private final SingleFlight<String, String> versionLoads = new SingleFlight<>();
+
+  public CoalescingSchemaRegistryBackend(SchemaRegistryBackend backend) {
+    this.backend = backend;
+  }
+
+  @Override
+  public boolean isSubjectRegistered(String subject) {
+    return backend.isSubjectRegistered(subject);
+  }
+
+  @Override
+  public SchemaMetadata register(String subject, String schema) throws IOException {
+    return backend.register(subject, schema);
+  }
+
+  @Override
+  public SchemaMetadata registerIfLatest(String subject, String schema, SchemaMetadata expectedLatest)
+    throws IOException {
+    return backend.registerIfLatest(subject, schema, expectedLatest);
+  }
+
+  @Override
+  public SchemaMetadata getBySubjectAndVersion(String subject, String version) throws IOException {
+    return schemaLoads.execute(new SubjectVersion(subject, version), () -> backend.getBySubjectAndVersion(subject, version));
+  }
+
+  @Override
+  public SchemaMetadata getLatestSchemaMetadata(String subject) throws IOException {
+    return schemaLoads.execute(new SubjectVersion(subject, null), () -> backend.getLatestSchemaMetadata(subject));
+  }
+
+  @Override
+  public SchemaMetadata findLatestSchemaMetadata(String subject) throws IOException {
+    return backend.findLatestSchemaMetadata(subject);
+  }
+
+  @Override
+  public String getLatestVersion(String subject) throws IOException {
+    return versionLoads.execute(subject, () -> backend.getLatestVersion(subject));
+  }
+
+  @Override
+  public SchemaMetadata revertToVersion(String subject, String version) throws IOException {
+    return backend.revertToVersion(subject, version);
+  }
+
+  @Override
+  public List<String> getAllSubjects() throws IOException {
+    return backend.getAllSubjects();
+  }
+
+  @Override
+  public List<String> getAllVersions(String subject) throws IOException {
+    return backend.getAllVersions(subject);
+  }
+}
@@ -0,0 +1,476 @@
+package de.khamrakulov.schema.registry.cache;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * Decorator, which persists schemas in a local append-only file, so they survive restarts and can be served without
+ * the backend.
+ * <p>
+ * Every record carries a checksum, a torn record at the end of the file, e.g. after a crash, is dropped on open.
+ * Schema versions are immutable and always served from the file once stored. The latest version of a subject read
+ * from the file is served immediately after a restart and revalidated in the background; later lookups of the latest
+ * version go to the backend and fall back to the file if the backend fails.
+ * <p>
+ * Every change of a latest version appends a record. Once the superseded records outnumber the live ones, the file
+ * is compacted on open: rewritten to a temporary file with one record per version and subject, which then replaces
+ * the file.
+ */
+public class FileCachingSchemaRegistryBackend implements SchemaRegistryBackend, Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileCachingSchemaRegistryBackend.class);
+
+  private static final int MAGIC = 0x53524331; // SRC1
+  private static final int RECORD_HEADER_SIZE = 8;
+  private static final byte VERSION_RECORD = 1;
+  private static final byte LATEST_RECORD = 2;
+  // superseded latest records tolerated in any file, before it is compacted on open
+  static final int MINIMUM_OBSOLETE_RECORDS = 1024;
+
+  private final SchemaRegistryBackend backend;
+  private final Path file;
+  // replaced only by a compaction while opening
+  private volatile FileChannel channel;
+  private final Executor revalidationExecutor;
+  private final ExecutorService ownedExecutor;
+  private final ConcurrentMap<SubjectVersion, Location> versions = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, String> latestVersions = new ConcurrentHashMap<>();
+  // subjects, whose latest version was loaded from the file but not checked against the backend yet
+  private final Set<String> unverified = ConcurrentHashMap.newKeySet();
+  // subjects with a revalidation queued or running, at most one per subject
+  private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+  public FileCachingSchemaRegistryBackend(SchemaRegistryBackend backend, Path file) throws IOException {
+    this(backend, file, null);
+  }
+
+  /**
+   * @param revalidationExecutor executor for background revalidation of the latest versions read from the file
+   */
+  public FileCachingSchemaRegistryBackend(SchemaRegistryBackend backend, Path file, Executor revalidationExecutor)
+    throws IOException {
+    this.backend = backend;
+    this.file = file;
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    if (revalidationExecutor == null) {
+      this.ownedExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "schema-registry-file-cache");
+        thread.setDaemon(true);
+        return thread;
+      });
+      this.revalidationExecutor = ownedExecutor;
+    } else {
+      this.ownedExecutor = null;
+      this.revalidationExecutor = revalidationExecutor;
+    }
+    try {
+      load();
+    } catch (IOException exception) {
+      close();
+      throw exception;
+    }
+  }
+
+  @Override
+  public boolean isSubjectRegistered(String subject) {
+    return latestVersions.containsKey(subject) || backend.isSubjectRegistered(subject);
+  }
+
+  @Override
+  public SchemaMetadata register(String subject, String schema) throws IOException {
+    final String expected = latestVersions.get(subject);
+    final SchemaMetadata md = backend.register(subject, schema);
+    storeWritten(expected, md);
+    return md;
+  }
+
+  @Override
+  public SchemaMetadata registerIfLatest(String subject, String schema, SchemaMetadata expectedLatest)
+    throws IOException {
+    final String expected = latestVersions.get(subject);
+    final SchemaMetadata md = backend.registerIfLatest(subject, schema, expectedLatest);
+    storeWritten(expected, md);
+    return md;
+  }
+
+  @Override
+  public SchemaMetadata getBySubjectAndVersion(String subject, String version) throws IOException {
+    if (version != null) {
+      final Location location = versions.get(new SubjectVersion(subject, version));
+      if (location != null) {
+        return new SchemaMetadata(subject, version, read(location));
+      }
+    }
+    final SchemaMetadata md = backend.getBySubjectAndVersion(subject, version);
+    storeVersion(md);
+    return md;
+  }
+
+  @Override
+  public SchemaMetadata getLatestSchemaMetadata(String subject) throws IOException {
+    if (unverified.contains(subject)) {
+      final SchemaMetadata local = getLocalLatest(subject);
+      if (local != null) {
+        scheduleRevalidation(subject);
+        return local;
+      }
+    }
+    final String expected = latestVersions.get(subject);
+    try {
+      final SchemaMetadata md = backend.getLatestSchemaMetadata(subject);
+      storeRead(expected, md);
+      return md;
+    } catch (IOException exception) {
+      final SchemaMetadata local = getLocalLatest(subject);
+      if (local == null) {
+        throw exception;
+      }
+      LOGGER.warn("Error retrieving schema for subject {}, serving version {} from the local file",
+        subject, local.getVersion(), exception);
+      return local;
+    }
+  }
+
+  @Override
+  public SchemaMetadata findLatestSchemaMetadata(String subject) throws IOException {
+    // used for registrations, which have to see the backend state
+    final String expected = latestVersions.get(subject);
+    final SchemaMetadata md = backend.findLatestSchemaMetadata(subject);
+    storeRead(expected, md);
+    return md;
+  }
+
+  @Override
+  public String getLatestVersion(String subject) throws IOException {
+    try {
+      return backend.getLatestVersion(subject);
+    } catch (IOException exception) {
+      final String local = latestVersions.get(subject);
+      if (local == null) {
+        throw exception;
+      }
+      LOGGER.warn("Error retrieving version for subject {}, serving version {} from the local file",
+        subject, local, exception);
+      return local;
+    }
+  }
+
+  @Override
+  public SchemaMetadata revertToVersion(String subject, String version) throws IOException {
+    final String expected = latestVersions.get(subject);
+    final SchemaMetadata md = backend.revertToVersion(subject, version);
+    storeWritten(expected, md);
+    return md;
+  }
+
+  @Override
+  public List<String> getAllSubjects() throws IOException {
+    return backend.getAllSubjects();
+  }
+
+  @Override
+  public List<String> getAllVersions(String subject) throws IOException {
+    return backend.getAllVersions(subject);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdownNow();
+    }
+    channel.close();
+  }
+
+  private void scheduleRevalidation(String subject) {
+    if (!revalidating.add(subject)) {
+      return;
+    }
+    try {
+      revalidationExecutor.execute(() -> revalidate(subject));
+    } catch (RuntimeException exception) {
+      revalidating.remove(subject);
+      LOGGER.warn("Error scheduling revalidation of subject {}", subject, exception);
+    }
+  }
+
+  private void revalidate(String subject) {
+    try {
+      if (unverified.contains(subject)) {
+        final String expected = latestVersions.get(subject);
+        storeRead(expected, backend.getLatestSchemaMetadata(subject));
+      }
+    } catch (IOException | RuntimeException exception) {
+      LOGGER.warn("Error revalidating schema for subject {}", subject, exception);
+    } finally {
+      revalidating.remove(subject);
+    }
+  }
+
+  private SchemaMetadata getLocalLatest(String subject) throws IOException {
+    final String version = latestVersions.get(subject);
+    if (version == null) {
+      return null;
+    }
+    final Location location = versions.get(new SubjectVersion(subject, version));
+    return location == null ? null : new SchemaMetadata(subject, version, read(location));
+  }
+
+  /**
+   * Store the latest version returned by a read, unless the latest version changed while reading. The read may have
+   * started before a registration and returned an older version.
+   *
+   * @param expected latest version of the subject before the read, or null
+   */
+  private void storeRead(String expected, SchemaMetadata md) throws IOException {
+    if (md == null || md.getVersion() == null) {
+      return;
+    }
+    storeVersion(md);
+    synchronized (this) {
+      final String current = latestVersions.get(md.getSubject());
+      if (Objects.equals(current, expected)) {
+        if (!md.getVersion().equals(current)) {
+          append(LATEST_RECORD, md.getSubject(), md.getVersion(), null);
+        }
+        unverified.remove(md.getSubject());
+      }
+    }
+  }
+
+  /**
+   * Store the version returned by a write. If the latest version changed during the write, the order of the two is
+   * unknown, the version is still stored but revalidated on the next read.
+   */
+  private void storeWritten(String expected, SchemaMetadata md) throws IOException {
+    if (md == null || md.getVersion() == null) {
+      return;
+    }
+    storeVersion(md);
+    synchronized (this) {
+      final String current = latestVersions.get(md.getSubject());
+      if (!md.getVersion().equals(current)) {
+        append(LATEST_RECORD, md.getSubject(), md.getVersion(), null);
+      }
+      if (Objects.equals(current, expected)) {
+        unverified.remove(md.getSubject());
+      } else {
+        unverified.add(md.getSubject());
+      }
+    }
+  }
+
+  private void storeVersion(SchemaMetadata md) throws IOException {
+    if (md == null || md.getVersion() == null) {
+      // unversioned schemas can't be cached safely
+      return;
+    }
+    if (!versions.containsKey(new SubjectVersion(md.getSubject(), md.getVersion()))) {
+      append(VERSION_RECORD, md.getSubject(), md.getVersion(), md.getSchema().getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private String read(Location location) throws IOException {
+    return new String(readBytes(location), StandardCharsets.UTF_8);
+  }
+
+  private byte[] readBytes(Location location) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(location.length);
+    long position = location.offset;
+    while (buffer.hasRemaining()) {
+      final int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new EOFException("Schema cache file is truncated");
+      }
+      position += read;
+    }
+    return buffer.array();
+  }
+
+  private synchronized void append(byte type, String subject, String version, byte[] schema) throws IOException {
+    write(channel, channel.size(), type, subject, version, schema);
+  }
+
+  /**
+   * Write the record at the position and index it
+   *
+   * @return position after the record
+   */
+  private long write(FileChannel target, long recordOffset, byte type, String subject, String version, byte[] schema)
+    throws IOException {
+    final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    final DataOutputStream out = new DataOutputStream(payload);
+    out.writeByte(type);
+    out.writeUTF(subject);
+    out.writeUTF(version);
+    final int schemaOffset = out.size();
+    if (schema != null) {
+      out.write(schema);
+    }
+    out.flush();
+    final byte[] payloadBytes = payload.toByteArray();
+
+    final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payloadBytes.length);
+    record.putInt(payloadBytes.length).putInt(checksum(payloadBytes, payloadBytes.length)).put(payloadBytes);
+    record.flip();
+    long position = recordOffset;
+    while (record.hasRemaining()) {
+      position += target.write(record, position);
+    }
+    index(type, subject, version, recordOffset + RECORD_HEADER_SIZE + schemaOffset, payloadBytes.length - schemaOffset);
+    return position;
+  }
+
+  private void index(byte type, String subject, String version, long schemaOffset, int schemaLength) {
+    if (type == VERSION_RECORD) {
+      versions.put(new SubjectVersion(subject, version), new Location(schemaOffset, schemaLength));
+    } else {
+      latestVersions.put(subject, version);
+    }
+  }
+
+  /**
+   * Rebuild the index from the file and drop a torn record at its end
+   */
+  private synchronized void load() throws IOException {
+    if (channel.size() == 0) {
+      final ByteBuffer header = ByteBuffer.allocate(4).putInt(MAGIC);
+      header.flip();
+      channel.write(header, 0);
+      return;
+    }
+    final ByteBuffer header = ByteBuffer.allocate(4);
+    if (channel.read(header, 0) != 4 || header.getInt(0) != MAGIC) {
+      throw new IOException("Not a schema cache file");
+    }
+    long position = 4;
+    int latestRecords = 0;
+    final long size = channel.size();
+    final ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+    while (position + RECORD_HEADER_SIZE <= size) {
+      recordHeader.clear();
+      channel.read(recordHeader, position);
+      final int length = recordHeader.getInt(0);
+      final int checksum = recordHeader.getInt(4);
+      if (length < 0 || position + RECORD_HEADER_SIZE + length > size) {
+        break;
+      }
+      final ByteBuffer payload = ByteBuffer.allocate(length);
+      while (payload.hasRemaining()) {
+        if (channel.read(payload, position + RECORD_HEADER_SIZE + payload.position()) < 0) {
+          break;
+        }
+      }
+      if (payload.hasRemaining() || checksum(payload.array(), length) != checksum) {
+        break;
+      }
+      final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload.array()));
+      final byte type = in.readByte();
+      final String subject = in.readUTF();
+      final String version = in.readUTF();
+      final int schemaOffset = length - in.available();
+      index(type, subject, version, position + RECORD_HEADER_SIZE + schemaOffset, length - schemaOffset);
+      if (type == LATEST_RECORD) {
+        latestRecords++;
+      }
+      position += RECORD_HEADER_SIZE + length;
+    }
+    unverified.addAll(latestVersions.keySet());
+    final int obsoleteRecords = latestRecords - latestVersions.size();
+    // the rewritten file leaves out a torn record as well
+    final boolean compacted = obsoleteRecords >= Math.max(MINIMUM_OBSOLETE_RECORDS,
+      versions.size() + latestVersions.size()) && compact();
+    if (!compacted && position < size) {
+      LOGGER.warn("Dropping {} bytes of incomplete records from the schema cache file", size - position);
+      channel.truncate(position);
+    }
+  }
+
+  /**
+   * Rewrite the file with the latest record of every subject only, into a temporary file replacing the file
+   *
+   * @return false if the file was kept as is
+   */
+  private boolean compact() throws IOException {
+    final Map<SubjectVersion, Location> previousVersions = new HashMap<>(versions);
+    final Map<String, String> previousLatestVersions = new HashMap<>(latestVersions);
+    final Path temporary = file.resolveSibling(file.getFileName() + ".compact");
+    try {
+      try (FileChannel target = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+        final ByteBuffer header = ByteBuffer.allocate(4).putInt(MAGIC);
+        header.flip();
+        long position = target.write(header, 0);
+        versions.clear();
+        latestVersions.clear();
+        for (Map.Entry<SubjectVersion, Location> entry : previousVersions.entrySet()) {
+          position = write(target, position, VERSION_RECORD, entry.getKey().subject, entry.getKey().version,
+            readBytes(entry.getValue()));
+        }
+        for (Map.Entry<String, String> entry : previousLatestVersions.entrySet()) {
+          position = write(target, position, LATEST_RECORD, entry.getKey(), entry.getValue(), null);
+        }
+        target.force(true);
+      }
+      Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException | RuntimeException exception) {
+      versions.clear();
+      versions.putAll(previousVersions);
+      latestVersions.clear();
+      latestVersions.putAll(previousLatestVersions);
+      try {
+        Files.deleteIfExists(temporary);
+      } catch (IOException deleteException) {
+        exception.addSuppressed(deleteException);
+      }
+      LOGGER.warn("Error compacting the schema cache file, keeping it as is", exception);
+      return false;
+    }
+    final FileChannel previous = channel;
+    channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    previous.close();
+    return true;
+  }
+
+  private static int checksum(byte[] bytes, int length) {
+    final CRC32 crc = new CRC32();
+    crc.update(bytes, 0, length);
+    return (int) crc.getValue();
+  }
+
+  private static final class Location {
+    private final long offset;
+    private final int length;
+
+    private Location(long offset, int length) {
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+}
@@ -0,0 +1,144 @@
+package de.khamrakulov.schema.registry.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread safe least recently used cache, bounded by the total weight of its entries.
+ */
+public final class LruCache<K, V> {
+
+  public interface Weigher<K, V> {
+    long weigh(K key, V value);
+  }
+
+  // kept in insertion order, a hit moves the entry to the end, so lookups without a hit don't reorder it
+  private final LinkedHashMap<K, Node<V>> entries = new LinkedHashMap<>();
+  private final long maximumWeight;
+  private final Weigher<K, V> weigher;
+
+  private long totalWeight;
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /**
+   * Cache bounded by the number of entries
+   */
+  public LruCache(long maximumSize) {
+    this(maximumSize, (key, value) -> 1);
+  }
+
+  public LruCache(long maximumWeight, Weigher<K, V> weigher) {
+    if (maximumWeight < 0) {
+      throw new IllegalArgumentException("Maximum weight must not be negative");
+    }
+    this.maximumWeight = maximumWeight;
+    this.weigher = weigher;
+  }
+
+  public synchronized V get(K key) {
+    final Node<V> node = touch(key);
+    if (node == null) {
+      missCount++;
+      return null;
+    }
+    hitCount++;
+    return node.value;
+  }
+
+  /**
+   * Returns the cached value without touching the access order or the counters
+   */
+  public synchronized V peek(K key) {
+    final Node<V> node = entries.get(key);
+    return node == null ? null : node.value;
+  }
+
+  public synchronized void put(K key, V value) {
+    final long weight = weigher.weigh(key, value);
+    final Node<V> previous = entries.remove(key);
+    if (previous != null) {
+      totalWeight -= previous.weight;
+    }
+    if (weight > maximumWeight) {
+      // the entry would evict the whole cache and still not fit
+      evictionCount++;
+      return;
+    }
+    entries.put(key, new Node<>(value, weight));
+    totalWeight += weight;
+    evict();
+  }
+
+  /**
+   * Caches the value unless the key is already present
+   *
+   * @return the value already cached for the key, or null if the value was added
+   */
+  public synchronized V putIfAbsent(K key, V value) {
+    final Node<V> node = touch(key);
+    if (node != null) {
+      return node.value;
+    }
+    put(key, value);
+    return null;
+  }
+
+  public synchronized V remove(K key) {
+    final Node<V> node = entries.remove(key);
+    if (node == null) {
+      return null;
+    }
+    totalWeight -= node.weight;
+    return node.value;
+  }
+
+  public synchronized void invalidateAll() {
+    entries.clear();
+    totalWeight = 0;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long weight() {
+    return totalWeight;
+  }
+
+  public synchronized CacheStats stats() {
+    return new CacheStats(hitCount, missCount, evictionCount);
+  }
+
+  /**
+   * Move the entry of the key to the most recently used end
+   */
+  private Node<V> touch(K key) {
+    final Node<V> node = entries.remove(key);
+    if (node != null) {
+      entries.put(key, node);
+    }
+    return node;
+  }
+
+  private void evict() {
+    final Iterator<Map.Entry<K, Node<V>>> iterator = entries.entrySet().iterator();
+    while (totalWeight > maximumWeight && iterator.hasNext()) {
+      totalWeight -= iterator.next().getValue().weight;
+      iterator.remove();
+      evictionCount++;
+    }
+  }
+
+  private static final class Node<V> {
+    private final V value;
+    private final long weight;
+
+    private Node(V value, long weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+}
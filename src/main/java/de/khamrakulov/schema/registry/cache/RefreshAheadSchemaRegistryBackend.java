@@ -0,0 +1,263 @@
+package de.khamrakulov.schema.registry.cache;
+
+import de.khamrakulov.schema.registry.ConcurrentRegistrationException;
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Decorator, which keeps the latest schema of frequently used subjects fresh in the background.
+ * <p>
+ * Latest schemas are served from memory. Once an entry is older than {@code refreshAfter} it is refreshed
+ * asynchronously, while the old value keeps being served. Subjects accessed at least {@code hotAccessCount} times
+ * between two sweeps are refreshed ahead of time, so reads of hot subjects don't wait for the backend. Refresh times
+ * are jittered to spread the load. Entries not refreshed within {@code expireAfter} are loaded synchronously.
+ */
+public class RefreshAheadSchemaRegistryBackend implements SchemaRegistryBackend, Closeable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RefreshAheadSchemaRegistryBackend.class);
+
+  public static final int DEFAULT_HOT_ACCESS_COUNT = 2;
+  // refresh times are spread over the last 20% of the refresh interval
+  private static final double JITTER = 0.2;
+
+  private final SchemaRegistryBackend backend;
+  private final long refreshAfterNanos;
+  private final long expireAfterNanos;
+  private final int hotAccessCount;
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownsScheduler;
+  private final LongSupplier ticker;
+  private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * @param threads number of threads used to refresh schemas
+   */
+  public RefreshAheadSchemaRegistryBackend(SchemaRegistryBackend backend, Duration refreshAfter,
+                                           Duration expireAfter, int threads) {
+    this(backend, refreshAfter, expireAfter, DEFAULT_HOT_ACCESS_COUNT,
+      Executors.newScheduledThreadPool(threads, RefreshAheadSchemaRegistryBackend::newDaemonThread), true,
+      System::nanoTime);
+  }
+
+  /**
+   * @param scheduler scheduler used to refresh schemas, it isn't shut down on close
+   */
+  public RefreshAheadSchemaRegistryBackend(SchemaRegistryBackend backend, Duration refreshAfter,
+                                           Duration expireAfter, int hotAccessCount,
+                                           ScheduledExecutorService scheduler) {
+    this(backend, refreshAfter, expireAfter, hotAccessCount, scheduler, false, System::nanoTime);
+  }
+
+  RefreshAheadSchemaRegistryBackend(SchemaRegistryBackend backend, Duration refreshAfter, Duration expireAfter,
+                                    int hotAccessCount, ScheduledExecutorService scheduler, boolean ownsScheduler,
+                                    LongSupplier ticker) {
+    if (expireAfter.compareTo(refreshAfter) < 0) {
+      throw new IllegalArgumentException("expireAfter must not be shorter than refreshAfter");
+    }
+    this.backend = backend;
+    this.refreshAfterNanos = refreshAfter.toNanos();
+    this.expireAfterNanos = expireAfter.toNanos();
+    this.hotAccessCount = hotAccessCount;
+    this.scheduler = scheduler;
+    this.ownsScheduler = ownsScheduler;
+    this.ticker = ticker;
+
+    final long sweepIntervalNanos = Math.max(refreshAfterNanos / 4, TimeUnit.MILLISECONDS.toNanos(10));
+    scheduler.scheduleWithFixedDelay(this::sweep, sweepIntervalNanos, sweepIntervalNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public boolean isSubjectRegistered(String subject) {
+    return entries.containsKey(subject) || backend.isSubjectRegistered(subject);
+  }
+
+  @Override
+  public SchemaMetadata register(String subject, String schema) throws IOException {
+    final SchemaMetadata md = backend.register(subject, schema);
+    load(subject, md);
+    return md;
+  }
+
+  @Override
+  public SchemaMetadata registerIfLatest(String subject, String schema, SchemaMetadata expectedLatest)
+    throws IOException {
+    final SchemaMetadata md;
+    try {
+      md = backend.registerIfLatest(subject, schema, expectedLatest);
+    } catch (ConcurrentRegistrationException exception) {
+      entries.remove(subject);
+      throw exception;
+    }
+    load(subject, md);
+    return md;
+  }
+
+  @Override
+  public SchemaMetadata getBySubjectAndVersion(String subject, String version) throws IOException {
+    return backend.getBySubjectAndVersion(subject, version);
+  }
+
+  @Override
+  public SchemaMetadata getLatestSchemaMetadata(String subject) throws IOException {
+    final long now = ticker.getAsLong();
+    final Entry entry = entries.get(subject);
+    if (entry == null || now - entry.expiresAt >= 0) {
+      final SchemaMetadata md = backend.getLatestSchemaMetadata(subject);
+      load(subject, entry, md);
+      return md;
+    }
+    entry.accesses.incrementAndGet();
+    if (now - entry.refreshAt >= 0) {
+      refresh(subject, entry);
+    }
+    return entry.metadata;
+  }
+
+  @Override
+  public SchemaMetadata findLatestSchemaMetadata(String subject) throws IOException {
+    final Entry entry = entries.get(subject);
+    final SchemaMetadata md = backend.findLatestSchemaMetadata(subject);
+    if (md != null) {
+      load(subject, entry, md);
+    }
+    return md;
+  }
+
+  @Override
+  public String getLatestVersion(String subject) throws IOException {
+    final Entry entry = entries.get(subject);
+    if (entry == null || ticker.getAsLong() - entry.expiresAt >= 0) {
+      return backend.getLatestVersion(subject);
+    }
+    return entry.metadata.getVersion();
+  }
+
+  @Override
+  public SchemaMetadata revertToVersion(String subject, String version) throws IOException {
+    final SchemaMetadata md = backend.revertToVersion(subject, version);
+    load(subject, md);
+    return md;
+  }
+
+  @Override
+  public List<String> getAllSubjects() throws IOException {
+    return backend.getAllSubjects();
+  }
+
+  @Override
+  public List<String> getAllVersions(String subject) throws IOException {
+    return backend.getAllVersions(subject);
+  }
+
+  @Override
+  public void close() {
+    if (ownsScheduler) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  /**
+   * Refresh hot entries, which are due before the next sweep, and drop entries nobody reads anymore
+   */
+  void sweep() {
+    final long now = ticker.getAsLong();
+    final long horizon = now + Math.max(refreshAfterNanos / 4, TimeUnit.MILLISECONDS.toNanos(10));
+    entries.forEach((subject, entry) -> {
+      final int accesses = entry.accesses.getAndSet(0);
+      if (accesses >= hotAccessCount && horizon - entry.refreshAt >= 0) {
+        refresh(subject, entry);
+      } else if (accesses == 0 && now - entry.expiresAt >= 0) {
+        entries.remove(subject, entry);
+      }
+    });
+  }
+
+  private void refresh(String subject, Entry entry) {
+    if (!entry.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      scheduler.execute(() -> {
+        try {
+          load(subject, entry, backend.getLatestSchemaMetadata(subject));
+        } catch (IOException | RuntimeException exception) {
+          LOGGER.warn("Error refreshing schema for subject {}, serving the previous version", subject, exception);
+        } finally {
+          entry.refreshing.set(false);
+        }
+      });
+    } catch (RuntimeException exception) {
+      entry.refreshing.set(false);
+      LOGGER.warn("Error scheduling refresh for subject {}", subject, exception);
+    }
+  }
+
+  /**
+   * Install a version returned by a write, it is at least as new as any cached one
+   */
+  private void load(String subject, SchemaMetadata md) {
+    final Entry entry = newEntry(md);
+    final Entry previous = entries.put(subject, entry);
+    if (previous != null) {
+      // keep the access frequency of the subject
+      entry.accesses.addAndGet(previous.accesses.get());
+    }
+  }
+
+  /**
+   * Install a version returned by a read, unless the entry was replaced while reading, e.g. by a registration.
+   * A read started before the replacement may have returned an older version.
+   *
+   * @param expected entry cached before the read, or null
+   */
+  private void load(String subject, Entry expected, SchemaMetadata md) {
+    final Entry entry = newEntry(md);
+    if (expected == null) {
+      entries.putIfAbsent(subject, entry);
+    } else {
+      entry.accesses.addAndGet(expected.accesses.get());
+      entries.replace(subject, expected, entry);
+    }
+  }
+
+  private Entry newEntry(SchemaMetadata md) {
+    final long now = ticker.getAsLong();
+    final long jitter = (long) (refreshAfterNanos * JITTER * ThreadLocalRandom.current().nextDouble());
+    return new Entry(md, now + refreshAfterNanos - jitter, now + expireAfterNanos);
+  }
+
+  private static Thread newDaemonThread(Runnable runnable) {
+    final Thread thread = new Thread(runnable, "schema-registry-refresh");
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  private static final class Entry {
+    private final SchemaMetadata metadata;
+    private final long refreshAt;
+    private final long expiresAt;
+    private final AtomicInteger accesses = new AtomicInteger();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private Entry(SchemaMetadata metadata, long refreshAt, long expiresAt) {
+      this.metadata = metadata;
+      this.refreshAt = refreshAt;
+      this.expiresAt = expiresAt;
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package de.khamrakulov.schema.registry.cache;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Deduplicates concurrent loads of the same key: the first caller loads the value, concurrent callers wait for and
+ * share its result or failure.
+ */
+public final class SingleFlight<K, V> {
+
+  public interface Loader<V> {
+    V load() throws IOException;
+  }
+
+  private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+  public V execute(K key, Loader<V> loader) throws IOException {
+    final CompletableFuture<V> call = new CompletableFuture<>();
+    final CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+    if (existing != null) {
+      return await(existing);
+    }
+    try {
+      final V value = loader.load();
+      call.complete(value);
+      return value;
+    } catch (IOException | RuntimeException | Error exception) {
+      call.completeExceptionally(exception);
+      throw exception;
+    } finally {
+      inFlight.remove(key, call);
+    }
+  }
+
+  /**
+   * Number of loads currently in flight
+   */
+  public int size() {
+    return inFlight.size();
+  }
+
+  private static <V> V await(CompletableFuture<V> call) throws IOException {
+    try {
+      return call.get();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for a concurrent load");
+    } catch (ExecutionException exception) {
+      final Throwable cause = exception.getCause();
+      if (cause instanceof IOException) {
+        // rethrown as is, so waiters can handle subclasses like the loading caller
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package de.khamrakulov.schema.registry.cache;
+
+import java.util.Objects;
+
+/**
+ * (subject, version) cache key, the version may be null for the latest version
+ */
+public final class SubjectVersion {
+  final String subject;
+  final String version;
+
+  public SubjectVersion(String subject, String version) {
+    this.subject = subject;
+    this.version = version;
+  }
+
+  public String getSubject() {
+    return subject;
+  }
+
+  public String getVersion() {
+    return version;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    final SubjectVersion that = (SubjectVersion) o;
+    return subject.equals(that.subject) && Objects.equals(version, that.version);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(subject, version);
+  }
+}
@@ -0,0 +1,283 @@
+package de.khamrakulov.schema.registry.fs;
+
+import de.khamrakulov.schema.registry.ConcurrentRegistrationException;
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Backend storing every version of a subject as a file in a local directory, e.g. for tests, edge deployments or as
+ * a local read tier.
+ * <p>
+ * Each subject is a directory with one file per version, numbered from 1. New versions are written to a temporary
+ * file first and then linked or renamed to the next free version number, which fails if another writer, also in
+ * another process, claimed the number first. Readers therefore never see partially written schemas.
+ * <p>
+ * Versions are claimed without gaps, so the latest version number seen per subject is kept in memory and a read of
+ * the latest version only checks for the files following it, instead of listing the subject directory.
+ */
+public class FileSystemSchemaRegistryBackend implements SchemaRegistryBackend {
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileSystemSchemaRegistryBackend.class);
+
+  private static final String VERSION_SUFFIX = ".schema";
+  private static final String VERSION_FORMAT = "%010d" + VERSION_SUFFIX;
+  private static final String TEMPORARY_PREFIX = ".tmp-";
+
+  private final Path root;
+  private final ConcurrentMap<String, Long> latestVersions = new ConcurrentHashMap<>();
+
+  public FileSystemSchemaRegistryBackend(Path root) throws IOException {
+    this.root = Files.createDirectories(root);
+  }
+
+  @Override
+  public boolean isSubjectRegistered(String subject) {
+    try {
+      return getLatestVersionNumber(subject) > 0;
+    } catch (IOException exception) {
+      LOGGER.warn("Error listing versions of subject {}, treating it as not registered", subject, exception);
+      return false;
+    }
+  }
+
+  /**
+   * Register the schema, unless it is the latest schema of the subject already
+   */
+  @Override
+  public SchemaMetadata register(String subject, String schema) throws IOException {
+    while (true) {
+      final SchemaMetadata latest = findLatestSchemaMetadata(subject);
+      if (latest != null && latest.getSchema().equals(schema)) {
+        return latest;
+      }
+      final long version = latest == null ? 1 : Long.parseLong(latest.getVersion()) + 1;
+      final SchemaMetadata registered = write(subject, version, schema);
+      if (registered != null) {
+        return registered;
+      }
+    }
+  }
+
+  @Override
+  public SchemaMetadata registerIfLatest(String subject, String schema, SchemaMetadata expectedLatest)
+    throws IOException {
+    if (expectedLatest != null && schema.equals(expectedLatest.getSchema())) {
+      return expectedLatest;
+    }
+    final long version = expectedLatest == null ? 1 : parseVersion(expectedLatest.getVersion()) + 1;
+    final SchemaMetadata registered = write(subject, version, schema);
+    if (registered == null) {
+      throw new ConcurrentRegistrationException(
+        String.format("Schema for subject %s was changed concurrently", subject));
+    }
+    return registered;
+  }
+
+  @Override
+  public SchemaMetadata getBySubjectAndVersion(String subject, String version) throws IOException {
+    if (version == null) {
+      return getLatestSchemaMetadata(subject);
+    }
+    return read(subject, parseVersion(version));
+  }
+
+  @Override
+  public SchemaMetadata getLatestSchemaMetadata(String subject) throws IOException {
+    final SchemaMetadata latest = findLatestSchemaMetadata(subject);
+    if (latest == null) {
+      throw new IOException(String.format("Subject %s is not registered", subject));
+    }
+    return latest;
+  }
+
+  @Override
+  public SchemaMetadata findLatestSchemaMetadata(String subject) throws IOException {
+    final long version = getLatestVersionNumber(subject);
+    return version == 0 ? null : read(subject, version);
+  }
+
+  @Override
+  public String getLatestVersion(String subject) throws IOException {
+    final long version = getLatestVersionNumber(subject);
+    if (version == 0) {
+      throw new IOException(String.format("Subject %s is not registered", subject));
+    }
+    return String.valueOf(version);
+  }
+
+  @Override
+  public SchemaMetadata revertToVersion(String subject, String version) throws IOException {
+    return register(subject, getBySubjectAndVersion(subject, version).getSchema());
+  }
+
+  @Override
+  public List<String> getAllSubjects() throws IOException {
+    final List<String> subjects = new ArrayList<>();
+    try (DirectoryStream<Path> directories = Files.newDirectoryStream(root, Files::isDirectory)) {
+      for (Path directory : directories) {
+        final String subject = decode(directory.getFileName().toString());
+        if (getLatestVersionNumber(subject) > 0) {
+          subjects.add(subject);
+        }
+      }
+    }
+    Collections.sort(subjects);
+    return subjects;
+  }
+
+  @Override
+  public List<String> getAllVersions(String subject) throws IOException {
+    final List<Long> numbers = listVersionNumbers(subject);
+    Collections.sort(numbers);
+    final List<String> versions = new ArrayList<>(numbers.size());
+    for (Long number : numbers) {
+      versions.add(String.valueOf(number));
+    }
+    return versions;
+  }
+
+  /**
+   * @return the registered schema, or null if the version was claimed by another writer
+   */
+  private SchemaMetadata write(String subject, long version, String schema) throws IOException {
+    final Path directory = Files.createDirectories(getSubjectDirectory(subject));
+    final Path temporary = Files.createTempFile(directory, TEMPORARY_PREFIX, VERSION_SUFFIX);
+    try {
+      Files.write(temporary, schema.getBytes(StandardCharsets.UTF_8));
+      final Path target = getVersionFile(subject, version);
+      try {
+        // a hard link fails atomically if the version exists, unlike a rename, which may replace it
+        Files.createLink(target, temporary);
+      } catch (FileAlreadyExistsException exception) {
+        throw exception;
+      } catch (UnsupportedOperationException | FileSystemException exception) {
+        // hard links aren't supported by the file system. Whether an atomic rename fails or replaces an existing
+        // version depends on the file system, checking first leaves the smallest window for the replacing ones.
+        if (Files.exists(target)) {
+          return null;
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+      }
+      latestVersions.merge(subject, version, Math::max);
+      return new SchemaMetadata(subject, String.valueOf(version), schema);
+    } catch (FileAlreadyExistsException exception) {
+      return null;
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  private SchemaMetadata read(String subject, long version) throws IOException {
+    final Path file = getVersionFile(subject, version);
+    try {
+      return new SchemaMetadata(subject, String.valueOf(version),
+        new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    } catch (NoSuchFileException exception) {
+      final String message = String.format("Version %d of subject %s is not registered", version, subject);
+      throw new IOException(message, exception);
+    }
+  }
+
+  private long getLatestVersionNumber(String subject) throws IOException {
+    final Long known = latestVersions.get(subject);
+    if (known == null || (known > 0 && !Files.exists(getVersionFile(subject, known)))) {
+      // first read of the subject, or its versions were removed
+      long latest = 0;
+      for (Long version : listVersionNumbers(subject)) {
+        latest = Math.max(latest, version);
+      }
+      latestVersions.put(subject, latest);
+      return latest;
+    }
+    long latest = known;
+    // versions registered since, also by other processes
+    while (Files.exists(getVersionFile(subject, latest + 1))) {
+      latest++;
+    }
+    if (latest > known) {
+      latestVersions.merge(subject, latest, Math::max);
+    }
+    return latest;
+  }
+
+  private List<Long> listVersionNumbers(String subject) throws IOException {
+    final List<Long> versions = new ArrayList<>();
+    final Path directory = getSubjectDirectory(subject);
+    if (!Files.isDirectory(directory)) {
+      return versions;
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "[0-9]*" + VERSION_SUFFIX)) {
+      for (Path file : files) {
+        final String name = file.getFileName().toString();
+        try {
+          versions.add(Long.parseLong(name.substring(0, name.length() - VERSION_SUFFIX.length())));
+        } catch (NumberFormatException exception) {
+          // e.g. a backup copy placed next to the versions, only whole numbers are versions
+          LOGGER.debug("Ignoring file {} of subject {}, it isn't a version", name, subject);
+        }
+      }
+    } catch (NoSuchFileException exception) {
+      // the subject directory was removed in the meantime
+    }
+    return versions;
+  }
+
+  private Path getSubjectDirectory(String subject) {
+    return root.resolve(encode(subject));
+  }
+
+  private Path getVersionFile(String subject, long version) {
+    return getSubjectDirectory(subject).resolve(String.format(VERSION_FORMAT, version));
+  }
+
+  /**
+   * Percent-encode the subject into a safe file name, keeping letters, digits, '-', '_' and '.' not in first place
+   */
+  static String encode(String subject) {
+    final StringBuilder name = new StringBuilder(subject.length());
+    for (byte b : subject.getBytes(StandardCharsets.UTF_8)) {
+      final char c = (char) (b & 0xFF);
+      if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_'
+        || (c == '.' && name.length() > 0)) {
+        name.append(c);
+      } else {
+        name.append('%').append(String.format("%02X", (int) c));
+      }
+    }
+    return name.toString();
+  }
+
+  static String decode(String name) {
+    try {
+      return URLDecoder.decode(name, StandardCharsets.UTF_8.name());
+    } catch (UnsupportedEncodingException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private static long parseVersion(String version) throws IOException {
+    try {
+      return Long.parseLong(version);
+    } catch (NumberFormatException exception) {
+      throw new IOException(String.format("Invalid version %s", version), exception);
+    }
+  }
+}
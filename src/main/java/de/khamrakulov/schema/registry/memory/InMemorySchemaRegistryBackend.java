@@ -0,0 +1,162 @@
+package de.khamrakulov.schema.registry.memory;
+
+import de.khamrakulov.schema.registry.ConcurrentRegistrationException;
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Backend keeping the version history of every subject in memory, e.g. for tests or as a local read tier.
+ * <p>
+ * The history of a subject is an immutable array, which registrations replace with compare-and-set, so reads never
+ * block and conditional registrations are atomic. Versions are numbered from 1.
+ */
+public class InMemorySchemaRegistryBackend implements SchemaRegistryBackend {
+  private static final SchemaMetadata[] EMPTY = new SchemaMetadata[0];
+
+  private final ConcurrentMap<String, AtomicReference<SchemaMetadata[]>> subjects = new ConcurrentHashMap<>();
+
+  @Override
+  public boolean isSubjectRegistered(String subject) {
+    return getHistory(subject).length > 0;
+  }
+
+  /**
+   * Register the schema, unless it is the latest schema of the subject already
+   */
+  @Override
+  public SchemaMetadata register(String subject, String schema) {
+    final AtomicReference<SchemaMetadata[]> history = getOrCreateHistory(subject);
+    while (true) {
+      final SchemaMetadata[] current = history.get();
+      if (current.length > 0 && current[current.length - 1].getSchema().equals(schema)) {
+        return current[current.length - 1];
+      }
+      final SchemaMetadata[] updated = append(current, subject, schema);
+      if (history.compareAndSet(current, updated)) {
+        return updated[current.length];
+      }
+    }
+  }
+
+  @Override
+  public SchemaMetadata registerIfLatest(String subject, String schema, SchemaMetadata expectedLatest)
+    throws IOException {
+    if (expectedLatest != null && schema.equals(expectedLatest.getSchema())) {
+      return expectedLatest;
+    }
+    final AtomicReference<SchemaMetadata[]> history = getOrCreateHistory(subject);
+    final SchemaMetadata[] current = history.get();
+    final SchemaMetadata latest = current.length == 0 ? null : current[current.length - 1];
+    final SchemaMetadata[] updated = append(current, subject, schema);
+    if (!isExpected(latest, expectedLatest) || !history.compareAndSet(current, updated)) {
+      throw new ConcurrentRegistrationException(
+        String.format("Schema for subject %s was changed concurrently", subject));
+    }
+    return updated[current.length];
+  }
+
+  @Override
+  public SchemaMetadata getBySubjectAndVersion(String subject, String version) throws IOException {
+    if (version == null) {
+      return getLatestSchemaMetadata(subject);
+    }
+    final SchemaMetadata[] history = getHistory(subject);
+    final int index = parseVersion(version) - 1;
+    if (index < 0 || index >= history.length) {
+      throw new IOException(String.format("Version %s of subject %s is not registered", version, subject));
+    }
+    return history[index];
+  }
+
+  @Override
+  public SchemaMetadata getLatestSchemaMetadata(String subject) throws IOException {
+    final SchemaMetadata latest = findLatestSchemaMetadata(subject);
+    if (latest == null) {
+      throw new IOException(String.format("Subject %s is not registered", subject));
+    }
+    return latest;
+  }
+
+  @Override
+  public SchemaMetadata findLatestSchemaMetadata(String subject) {
+    final SchemaMetadata[] history = getHistory(subject);
+    return history.length == 0 ? null : history[history.length - 1];
+  }
+
+  @Override
+  public String getLatestVersion(String subject) throws IOException {
+    return getLatestSchemaMetadata(subject).getVersion();
+  }
+
+  @Override
+  public SchemaMetadata revertToVersion(String subject, String version) throws IOException {
+    return register(subject, getBySubjectAndVersion(subject, version).getSchema());
+  }
+
+  @Override
+  public List<String> getAllSubjects() {
+    final List<String> registered = new ArrayList<>();
+    subjects.forEach((subject, history) -> {
+      if (history.get().length > 0) {
+        registered.add(subject);
+      }
+    });
+    Collections.sort(registered);
+    return registered;
+  }
+
+  @Override
+  public List<String> getAllVersions(String subject) {
+    final SchemaMetadata[] history = getHistory(subject);
+    final List<String> versions = new ArrayList<>(history.length);
+    for (SchemaMetadata md : history) {
+      versions.add(md.getVersion());
+    }
+    return versions;
+  }
+
+  private SchemaMetadata[] getHistory(String subject) {
+    final AtomicReference<SchemaMetadata[]> history = subjects.get(subject);
+    return history == null ? EMPTY : history.get();
+  }
+
+  private AtomicReference<SchemaMetadata[]> getOrCreateHistory(String subject) {
+    final AtomicReference<SchemaMetadata[]> history = subjects.get(subject);
+    if (history != null) {
+      return history;
+    }
+    final AtomicReference<SchemaMetadata[]> created = new AtomicReference<>(EMPTY);
+    final AtomicReference<SchemaMetadata[]> existing = subjects.putIfAbsent(subject, created);
+    return existing == null ? created : existing;
+  }
+
+  private static boolean isExpected(SchemaMetadata latest, SchemaMetadata expectedLatest) {
+    if (latest == null || expectedLatest == null) {
+      return latest == expectedLatest;
+    }
+    return latest.getVersion().equals(expectedLatest.getVersion());
+  }
+
+  private static SchemaMetadata[] append(SchemaMetadata[] history, String subject, String schema) {
+    final SchemaMetadata[] updated = Arrays.copyOf(history, history.length + 1);
+    updated[history.length] = new SchemaMetadata(subject, String.valueOf(updated.length), schema);
+    return updated;
+  }
+
+  private static int parseVersion(String version) throws IOException {
+    try {
+      return Integer.parseInt(version);
+    } catch (NumberFormatException exception) {
+      throw new IOException(String.format("Invalid version %s", version), exception);
+    }
+  }
+}
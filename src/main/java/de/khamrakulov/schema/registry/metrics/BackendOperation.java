@@ -0,0 +1,17 @@
+package de.khamrakulov.schema.registry.metrics;
+
+/**
+ * Operations of {@link de.khamrakulov.schema.registry.SchemaRegistryBackend}
+ */
+public enum BackendOperation {
+  IS_SUBJECT_REGISTERED,
+  REGISTER,
+  REGISTER_IF_LATEST,
+  GET_BY_SUBJECT_AND_VERSION,
+  GET_LATEST_SCHEMA_METADATA,
+  FIND_LATEST_SCHEMA_METADATA,
+  GET_LATEST_VERSION,
+  REVERT_TO_VERSION,
+  GET_ALL_SUBJECTS,
+  GET_ALL_VERSIONS
+}
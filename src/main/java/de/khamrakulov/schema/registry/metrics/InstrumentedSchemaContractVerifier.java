@@ -0,0 +1,39 @@
+package de.khamrakulov.schema.registry.metrics;
+
+import de.khamrakulov.schema.registry.SchemaContractVerifier;
+
+import java.util.List;
+
+/**
+ * Decorator, which reports the duration and outcome of compatibility checks
+ */
+public class InstrumentedSchemaContractVerifier<T> implements SchemaContractVerifier<T> {
+  private final SchemaContractVerifier<T> verifier;
+  private final RegistryMetrics metrics;
+
+  public InstrumentedSchemaContractVerifier(SchemaContractVerifier<T> verifier, RegistryMetrics metrics) {
+    this.verifier = verifier;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public boolean isCompatible(T newSchema, T prevSchema) {
+    final long start = System.nanoTime();
+    final boolean compatible = verifier.isCompatible(newSchema, prevSchema);
+    metrics.recordVerification(System.nanoTime() - start, 1, compatible);
+    return compatible;
+  }
+
+  @Override
+  public boolean isCompatible(T newSchema, List<T> previousSchemas) {
+    final long start = System.nanoTime();
+    final boolean compatible = verifier.isCompatible(newSchema, previousSchemas);
+    metrics.recordVerification(System.nanoTime() - start, previousSchemas.size(), compatible);
+    return compatible;
+  }
+
+  @Override
+  public boolean isTransitive() {
+    return verifier.isTransitive();
+  }
+}
@@ -0,0 +1,29 @@
+package de.khamrakulov.schema.registry.metrics;
+
+import de.khamrakulov.schema.registry.SchemaParser;
+
+/**
+ * Decorator, which reports the duration and failures of schema parsing
+ */
+public class InstrumentedSchemaParser<T> implements SchemaParser<T> {
+  private final SchemaParser<T> parser;
+  private final RegistryMetrics metrics;
+
+  public InstrumentedSchemaParser(SchemaParser<T> parser, RegistryMetrics metrics) {
+    this.parser = parser;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public T parse(String schema) {
+    final long start = System.nanoTime();
+    try {
+      final T parsed = parser.parse(schema);
+      metrics.recordParse(System.nanoTime() - start, null);
+      return parsed;
+    } catch (RuntimeException exception) {
+      metrics.recordParse(System.nanoTime() - start, exception);
+      throw exception;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package de.khamrakulov.schema.registry.metrics;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Decorator, which reports the duration, transferred schema bytes and failures of every backend call
+ */
+public class InstrumentedSchemaRegistryBackend implements SchemaRegistryBackend {
+  private final SchemaRegistryBackend backend;
+  private final RegistryMetrics metrics;
+
+  public InstrumentedSchemaRegistryBackend(SchemaRegistryBackend backend, RegistryMetrics metrics) {
+    this.backend = backend;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public boolean isSubjectRegistered(String subject) {
+    final long start = System.nanoTime();
+    try {
+      final boolean registered = backend.isSubjectRegistered(subject);
+      metrics.recordBackendCall(BackendOperation.IS_SUBJECT_REGISTERED, subject, System.nanoTime() - start, 0, null);
+      return registered;
+    } catch (RuntimeException exception) {
+      metrics.recordBackendCall(BackendOperation.IS_SUBJECT_REGISTERED, subject, System.nanoTime() - start, 0,
+        exception);
+      throw exception;
+    }
+  }
+
+  @Override
+  public SchemaMetadata register(String subject, String schema) throws IOException {
+    return write(BackendOperation.REGISTER, subject, schema, () -> backend.register(subject, schema));
+  }
+
+  @Override
+  public SchemaMetadata registerIfLatest(String subject, String schema, SchemaMetadata expectedLatest)
+    throws IOException {
+    return write(BackendOperation.REGISTER_IF_LATEST, subject, schema,
+      () -> backend.registerIfLatest(subject, schema, expectedLatest));
+  }
+
+  @Override
+  public SchemaMetadata getBySubjectAndVersion(String subject, String version) throws IOException {
+    return call(BackendOperation.GET_BY_SUBJECT_AND_VERSION, subject,
+      () -> backend.getBySubjectAndVersion(subject, version));
+  }
+
+  @Override
+  public SchemaMetadata getLatestSchemaMetadata(String subject) throws IOException {
+    return call(BackendOperation.GET_LATEST_SCHEMA_METADATA, subject, () -> backend.getLatestSchemaMetadata(subject));
+  }
+
+  @Override
+  public SchemaMetadata findLatestSchemaMetadata(String subject) throws IOException {
+    return call(BackendOperation.FIND_LATEST_SCHEMA_METADATA, subject, () -> backend.findLatestSchemaMetadata(subject));
+  }
+
+  @Override
+  public String getLatestVersion(String subject) throws IOException {
+    return call(BackendOperation.GET_LATEST_VERSION, subject, () -> backend.getLatestVersion(subject));
+  }
+
+  @Override
+  public SchemaMetadata revertToVersion(String subject, String version) throws IOException {
+    return call(BackendOperation.REVERT_TO_VERSION, subject, () -> backend.revertToVersion(subject, version));
+  }
+
+  @Override
+  public List<String> getAllSubjects() throws IOException {
+    return call(BackendOperation.GET_ALL_SUBJECTS, null, backend::getAllSubjects);
+  }
+
+  @Override
+  public List<String> getAllVersions(String subject) throws IOException {
+    return call(BackendOperation.GET_ALL_VERSIONS, subject, () -> backend.getAllVersions(subject));
+  }
+
+  /**
+   * Call, which sends the schema, the returned metadata echoes it and isn't counted again
+   */
+  private SchemaMetadata write(BackendOperation operation, String subject, String schema, Call<SchemaMetadata> call)
+    throws IOException {
+    final long requestBytes = utf8Length(schema);
+    final long start = System.nanoTime();
+    final SchemaMetadata result;
+    try {
+      result = call.call();
+    } catch (IOException | RuntimeException exception) {
+      metrics.recordBackendCall(operation, subject, System.nanoTime() - start, requestBytes, exception);
+      throw exception;
+    }
+    metrics.recordBackendCall(operation, subject, System.nanoTime() - start, requestBytes, null);
+    return result;
+  }
+
+  /**
+   * Call, which receives the schema of the returned metadata, if any
+   */
+  private <V> V call(BackendOperation operation, String subject, Call<V> call) throws IOException {
+    final long start = System.nanoTime();
+    final V result;
+    try {
+      result = call.call();
+    } catch (IOException | RuntimeException exception) {
+      metrics.recordBackendCall(operation, subject, System.nanoTime() - start, 0, exception);
+      throw exception;
+    }
+    final long responseBytes = result instanceof SchemaMetadata ? utf8Length(((SchemaMetadata) result).getSchema()) : 0;
+    metrics.recordBackendCall(operation, subject, System.nanoTime() - start, responseBytes, null);
+    return result;
+  }
+
+  /**
+   * UTF-8 size of the text without encoding it
+   */
+  static long utf8Length(String text) {
+    if (text == null) {
+      return 0;
+    }
+    long length = 0;
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (c < 0x80) {
+        length++;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c)) {
+        // the surrogate pair encodes a single four byte character
+        length += 4;
+        i++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+  private interface Call<V> {
+    V call() throws IOException;
+  }
+}
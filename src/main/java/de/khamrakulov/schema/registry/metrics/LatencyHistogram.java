@@ -0,0 +1,70 @@
+package de.khamrakulov.schema.registry.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in power of two buckets, percentiles are accurate within a factor of two
+ */
+public class LatencyHistogram {
+  private static final int BUCKETS = 64;
+
+  // bucket i counts durations in [2^(i-1), 2^i) nanoseconds, bucket 0 counts zero durations
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  public void record(long durationNanos) {
+    final long nanos = Math.max(0, durationNanos);
+    buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(nanos));
+    count.increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getTotalNanos() {
+    return totalNanos.sum();
+  }
+
+  public long getMaxNanos() {
+    return maxNanos.get();
+  }
+
+  public double getMeanNanos() {
+    final long n = count.sum();
+    return n == 0 ? 0 : (double) totalNanos.sum() / n;
+  }
+
+  /**
+   * @param quantile between 0 and 1, e.g. 0.99
+   * @return upper bound of the bucket containing the quantile, never above the maximum
+   */
+  public long getPercentileNanos(double quantile) {
+    final long n = count.sum();
+    if (n == 0) {
+      return 0;
+    }
+    final long rank = Math.max(1, (long) Math.ceil(quantile * n));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += buckets.get(i);
+      if (seen >= rank) {
+        final long upperBound = i == 0 ? 0 : i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+        return Math.min(upperBound, getMaxNanos());
+      }
+    }
+    return getMaxNanos();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("LatencyHistogram{count=%d, mean=%.0fns, p50=%dns, p99=%dns, max=%dns}", getCount(),
+      getMeanNanos(), getPercentileNanos(0.5), getPercentileNanos(0.99), getMaxNanos());
+  }
+}
@@ -0,0 +1,59 @@
+package de.khamrakulov.schema.registry.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latencies of a single backend operation
+ */
+public class OperationStats {
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final LongAdder errorCount = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  private final ConcurrentMap<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+
+  void record(long durationNanos, long bytes, Throwable failure) {
+    latency.record(durationNanos);
+    this.bytes.add(bytes);
+    if (failure != null) {
+      errorCount.increment();
+      errorsByType.computeIfAbsent(errorType(failure), type -> new LongAdder()).increment();
+    }
+  }
+
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  public long getRequestCount() {
+    return latency.getCount();
+  }
+
+  public long getErrorCount() {
+    return errorCount.sum();
+  }
+
+  public long getBytes() {
+    return bytes.sum();
+  }
+
+  /**
+   * @return number of failures by class name of the root cause, e.g. the S3 exception wrapped into an IOException
+   */
+  public Map<String, Long> getErrorsByType() {
+    final Map<String, Long> errors = new TreeMap<>();
+    errorsByType.forEach((type, count) -> errors.put(type, count.sum()));
+    return errors;
+  }
+
+  private static String errorType(Throwable failure) {
+    Throwable cause = failure;
+    while (cause.getCause() != null && cause.getCause() != cause) {
+      cause = cause.getCause();
+    }
+    return cause.getClass().getName();
+  }
+}
@@ -0,0 +1,42 @@
+package de.khamrakulov.schema.registry.metrics;
+
+/**
+ * Listener for measurements of backend calls, schema parsing and compatibility checks, e.g. to export them to a
+ * metrics or tracing system. Methods are called synchronously on the measured thread and must be cheap.
+ * All methods do nothing by default.
+ */
+public interface RegistryMetrics {
+  public static final RegistryMetrics NO_OP = new RegistryMetrics() {
+  };
+
+  /**
+   * @param subject  subject of the call, null for calls not related to a single subject
+   * @param bytes    size of the schema sent by a registration, or received by other calls, as UTF-8
+   * @param failure  exception thrown by the call, null if it succeeded
+   */
+  public default void recordBackendCall(BackendOperation operation, String subject, long durationNanos, long bytes,
+                                        Throwable failure) {
+  }
+
+  /**
+   * Request sent to the storage of a backend, e.g. an S3 request, retries are recorded as requests of their own
+   *
+   * @param request    type of the request, e.g. GetObject
+   * @param statusCode HTTP status code of the response, 0 if no response was received
+   * @param failure    exception the request failed with, null if it succeeded
+   */
+  public default void recordStorageRequest(String request, int statusCode, long durationNanos, Throwable failure) {
+  }
+
+  /**
+   * @param failure exception thrown by the parser, null if the schema was parsed
+   */
+  public default void recordParse(long durationNanos, Throwable failure) {
+  }
+
+  /**
+   * @param previousSchemas number of schemas the new schema was checked against
+   */
+  public default void recordVerification(long durationNanos, int previousSchemas, boolean compatible) {
+  }
+}
@@ -0,0 +1,91 @@
+package de.khamrakulov.schema.registry.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps all measurements in memory, e.g. to expose them through JMX or log them periodically
+ */
+public class SimpleRegistryMetrics implements RegistryMetrics {
+  private final Map<BackendOperation, OperationStats> operations = new EnumMap<>(BackendOperation.class);
+  private final ConcurrentMap<String, OperationStats> storageRequests = new ConcurrentHashMap<>();
+  private final LatencyHistogram parseLatency = new LatencyHistogram();
+  private final LongAdder parseFailures = new LongAdder();
+  private final LatencyHistogram verificationLatency = new LatencyHistogram();
+  private final LongAdder incompatibleCount = new LongAdder();
+
+  public SimpleRegistryMetrics() {
+    // all entries are created upfront, so the map is only read afterwards
+    for (BackendOperation operation : BackendOperation.values()) {
+      operations.put(operation, new OperationStats());
+    }
+  }
+
+  @Override
+  public void recordBackendCall(BackendOperation operation, String subject, long durationNanos, long bytes,
+                                Throwable failure) {
+    operations.get(operation).record(durationNanos, bytes, failure);
+  }
+
+  @Override
+  public void recordStorageRequest(String request, int statusCode, long durationNanos, Throwable failure) {
+    storageRequests.computeIfAbsent(request, type -> new OperationStats()).record(durationNanos, 0, failure);
+  }
+
+  @Override
+  public void recordParse(long durationNanos, Throwable failure) {
+    parseLatency.record(durationNanos);
+    if (failure != null) {
+      parseFailures.increment();
+    }
+  }
+
+  @Override
+  public void recordVerification(long durationNanos, int previousSchemas, boolean compatible) {
+    verificationLatency.record(durationNanos);
+    if (!compatible) {
+      incompatibleCount.increment();
+    }
+  }
+
+  public OperationStats getOperationStats(BackendOperation operation) {
+    return operations.get(operation);
+  }
+
+  /**
+   * @return stats of the storage requests of the given type, or null if none was sent
+   */
+  public OperationStats getStorageRequestStats(String request) {
+    return storageRequests.get(request);
+  }
+
+  /**
+   * @return number of storage requests of all types
+   */
+  public long getStorageRequestCount() {
+    long count = 0;
+    for (OperationStats stats : storageRequests.values()) {
+      count += stats.getRequestCount();
+    }
+    return count;
+  }
+
+  public LatencyHistogram getParseLatency() {
+    return parseLatency;
+  }
+
+  public long getParseFailureCount() {
+    return parseFailures.sum();
+  }
+
+  public LatencyHistogram getVerificationLatency() {
+    return verificationLatency;
+  }
+
+  public long getIncompatibleCount() {
+    return incompatibleCount.sum();
+  }
+}
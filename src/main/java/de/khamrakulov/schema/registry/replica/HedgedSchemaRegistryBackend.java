@@ -0,0 +1,362 @@
+package de.khamrakulov.schema.registry.replica;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import de.khamrakulov.schema.registry.metrics.LatencyHistogram;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Backend reading from a primary backend and its replicas, e.g. S3 backends over replicas of the primary bucket.
+ * <p>
+ * Reads go to the primary first. Once a read takes longer than a percentile of the measured read latencies, a hedged
+ * request is sent to the next replica and the first successful response is returned. A failed request fails over to
+ * the next replica immediately. Hedged requests are limited to a share of all reads, so a slow primary doesn't
+ * multiply the load on the replicas. Requests run on a bounded pool: a hedged request is skipped when the pool is
+ * busy, other requests then run on the calling thread. Requests still in flight once a read completes are cancelled.
+ * <p>
+ * Writes go to the primary only, as do {@link #isSubjectRegistered} and {@link #findLatestSchemaMetadata}, which
+ * registrations rely on. Replicas may lag behind the primary and serve an older latest version for a short time.
+ * Versions must be identified alike by all backends, as with S3 replication, which keeps the object version ids.
+ */
+public class HedgedSchemaRegistryBackend implements SchemaRegistryBackend, Closeable {
+  public static final double DEFAULT_HEDGE_QUANTILE = 0.95;
+  public static final Duration DEFAULT_INITIAL_HEDGE_DELAY = Duration.ofMillis(50);
+  public static final double DEFAULT_MAXIMUM_HEDGE_RATIO = 0.1;
+  public static final int DEFAULT_MAXIMUM_THREADS = 32;
+
+  // reads to measure, before the latency percentile replaces the initial hedge delay
+  private static final long MINIMUM_SAMPLES = 100;
+  // hedge budget is kept in thousandths of a request, at most this many hedges can be sent in a burst
+  private static final long HEDGE_COST = 1000;
+  private static final long MAXIMUM_HEDGE_BURST = 10 * HEDGE_COST;
+
+  private final SchemaRegistryBackend primary;
+  private final List<SchemaRegistryBackend> tiers;
+  private final double hedgeQuantile;
+  private final long initialHedgeDelayNanos;
+  private final long hedgeBudgetPerRead;
+  private final ExecutorService executor;
+  private final boolean ownsExecutor;
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final AtomicLong hedgeBudget = new AtomicLong(MAXIMUM_HEDGE_BURST);
+  private final LongAdder hedges = new LongAdder();
+  private final LongAdder failovers = new LongAdder();
+
+  private HedgedSchemaRegistryBackend(Builder builder) {
+    this.primary = builder.tiers.get(0);
+    this.tiers = Collections.unmodifiableList(new ArrayList<>(builder.tiers));
+    this.hedgeQuantile = builder.hedgeQuantile;
+    this.initialHedgeDelayNanos = builder.initialHedgeDelay.toNanos();
+    this.hedgeBudgetPerRead = Math.round(builder.maximumHedgeRatio * HEDGE_COST);
+    if (builder.executor == null) {
+      // no queue, a request either gets a thread right away or is rejected
+      final ThreadPoolExecutor pool = new ThreadPoolExecutor(builder.maximumThreads, builder.maximumThreads, 60,
+        TimeUnit.SECONDS, new SynchronousQueue<>(), HedgedSchemaRegistryBackend::newDaemonThread);
+      pool.allowCoreThreadTimeOut(true);
+      this.executor = pool;
+      this.ownsExecutor = true;
+    } else {
+      this.executor = builder.executor;
+      this.ownsExecutor = false;
+    }
+  }
+
+  public static Builder builder(SchemaRegistryBackend primary) {
+    return new Builder(primary);
+  }
+
+  @Override
+  public boolean isSubjectRegistered(String subject) {
+    return primary.isSubjectRegistered(subject);
+  }
+
+  @Override
+  public SchemaMetadata register(String subject, String schema) throws IOException {
+    return primary.register(subject, schema);
+  }
+
+  @Override
+  public SchemaMetadata registerIfLatest(String subject, String schema, SchemaMetadata expectedLatest)
+    throws IOException {
+    return primary.registerIfLatest(subject, schema, expectedLatest);
+  }
+
+  @Override
+  public SchemaMetadata getBySubjectAndVersion(String subject, String version) throws IOException {
+    return read(backend -> backend.getBySubjectAndVersion(subject, version));
+  }
+
+  @Override
+  public SchemaMetadata getLatestSchemaMetadata(String subject) throws IOException {
+    return read(backend -> backend.getLatestSchemaMetadata(subject));
+  }
+
+  @Override
+  public SchemaMetadata findLatestSchemaMetadata(String subject) throws IOException {
+    return primary.findLatestSchemaMetadata(subject);
+  }
+
+  @Override
+  public String getLatestVersion(String subject) throws IOException {
+    return read(backend -> backend.getLatestVersion(subject));
+  }
+
+  @Override
+  public SchemaMetadata revertToVersion(String subject, String version) throws IOException {
+    return primary.revertToVersion(subject, version);
+  }
+
+  @Override
+  public List<String> getAllSubjects() throws IOException {
+    return read(SchemaRegistryBackend::getAllSubjects);
+  }
+
+  @Override
+  public List<String> getAllVersions(String subject) throws IOException {
+    return read(backend -> backend.getAllVersions(subject));
+  }
+
+  /**
+   * Latencies of the successful reads of all backends
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /**
+   * @return number of hedged requests sent, because a read took too long
+   */
+  public long getHedgeCount() {
+    return hedges.sum();
+  }
+
+  /**
+   * @return number of requests sent, because a read failed
+   */
+  public long getFailoverCount() {
+    return failovers.sum();
+  }
+
+  @Override
+  public void close() {
+    if (ownsExecutor) {
+      executor.shutdownNow();
+    }
+  }
+
+  private <T> T read(Read<T> read) throws IOException {
+    hedgeBudget.accumulateAndGet(hedgeBudgetPerRead, (budget, earned) -> Math.min(budget + earned,
+      MAXIMUM_HEDGE_BURST));
+    final BlockingQueue<Attempt<T>> completed = new LinkedBlockingQueue<>();
+    final List<Future<?>> started = new ArrayList<>(tiers.size());
+    Exception failure = null;
+    int failed = 0;
+    boolean hedge = tiers.size() > 1;
+    try {
+      start(read, completed, started, true);
+      while (true) {
+        final Attempt<T> attempt = hedge ? completed.poll(getHedgeDelayNanos(), TimeUnit.NANOSECONDS)
+          : completed.take();
+        if (attempt == null) {
+          // at most one hedged request per read, skipped if no thread is available
+          if (acquireHedge() && start(read, completed, started, false)) {
+            hedges.increment();
+          }
+          hedge = false;
+        } else if (attempt.failure == null) {
+          return attempt.result;
+        } else {
+          if (failure == null) {
+            failure = attempt.failure;
+          } else {
+            failure.addSuppressed(attempt.failure);
+          }
+          failed++;
+          if (started.size() < tiers.size()) {
+            failovers.increment();
+            start(read, completed, started, true);
+          } else if (failed == started.size()) {
+            break;
+          }
+        }
+        hedge = hedge && started.size() < tiers.size();
+      }
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the schema registry backends");
+    } finally {
+      // the losing requests are interrupted, so slow requests don't keep holding threads of the pool
+      for (Future<?> future : started) {
+        future.cancel(true);
+      }
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    throw (IOException) failure;
+  }
+
+  /**
+   * Send the request to the next backend
+   *
+   * @param callerRuns run the request on the calling thread, if the executor rejects it
+   * @return false, if the request was rejected and not sent
+   */
+  private <T> boolean start(Read<T> read, BlockingQueue<Attempt<T>> completed, List<Future<?>> started,
+                            boolean callerRuns) {
+    final SchemaRegistryBackend backend = tiers.get(started.size());
+    final Runnable request = () -> {
+      final long startNanos = System.nanoTime();
+      try {
+        final T result = read.apply(backend);
+        latency.record(System.nanoTime() - startNanos);
+        completed.add(new Attempt<>(result, null));
+      } catch (IOException | RuntimeException exception) {
+        completed.add(new Attempt<>(null, exception));
+      }
+    };
+    try {
+      started.add(executor.submit(request));
+    } catch (RejectedExecutionException exception) {
+      if (!callerRuns) {
+        return false;
+      }
+      request.run();
+      started.add(CompletableFuture.completedFuture(null));
+    }
+    return true;
+  }
+
+  private long getHedgeDelayNanos() {
+    if (latency.getCount() < MINIMUM_SAMPLES) {
+      return initialHedgeDelayNanos;
+    }
+    return latency.getPercentileNanos(hedgeQuantile);
+  }
+
+  private boolean acquireHedge() {
+    while (true) {
+      final long budget = hedgeBudget.get();
+      if (budget < HEDGE_COST) {
+        return false;
+      }
+      if (hedgeBudget.compareAndSet(budget, budget - HEDGE_COST)) {
+        return true;
+      }
+    }
+  }
+
+  private static Thread newDaemonThread(Runnable runnable) {
+    final Thread thread = new Thread(runnable, "schema-registry-hedged-read");
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  @FunctionalInterface
+  private interface Read<T> {
+    T apply(SchemaRegistryBackend backend) throws IOException;
+  }
+
+  private static final class Attempt<T> {
+    private final T result;
+    private final Exception failure;
+
+    private Attempt(T result, Exception failure) {
+      this.result = result;
+      this.failure = failure;
+    }
+  }
+
+  public static final class Builder {
+    private final List<SchemaRegistryBackend> tiers = new ArrayList<>();
+    private double hedgeQuantile = DEFAULT_HEDGE_QUANTILE;
+    private Duration initialHedgeDelay = DEFAULT_INITIAL_HEDGE_DELAY;
+    private double maximumHedgeRatio = DEFAULT_MAXIMUM_HEDGE_RATIO;
+    private ExecutorService executor;
+    private int maximumThreads = DEFAULT_MAXIMUM_THREADS;
+
+    private Builder(SchemaRegistryBackend primary) {
+      tiers.add(primary);
+    }
+
+    /**
+     * Add a replica, replicas are tried in the order they were added
+     */
+    public Builder withReplica(SchemaRegistryBackend replica) {
+      tiers.add(replica);
+      return this;
+    }
+
+    /**
+     * @param hedgeQuantile quantile of the read latency, after which a hedged request is sent, e.g. 0.95
+     */
+    public Builder withHedgeQuantile(double hedgeQuantile) {
+      if (hedgeQuantile <= 0 || hedgeQuantile > 1) {
+        throw new IllegalArgumentException("hedgeQuantile must be in (0, 1]");
+      }
+      this.hedgeQuantile = hedgeQuantile;
+      return this;
+    }
+
+    /**
+     * @param initialHedgeDelay delay before a hedged request, until enough reads were measured
+     */
+    public Builder withInitialHedgeDelay(Duration initialHedgeDelay) {
+      this.initialHedgeDelay = initialHedgeDelay;
+      return this;
+    }
+
+    /**
+     * @param maximumHedgeRatio share of reads, which may send a hedged request, e.g. 0.1
+     */
+    public Builder withMaximumHedgeRatio(double maximumHedgeRatio) {
+      if (maximumHedgeRatio < 0) {
+        throw new IllegalArgumentException("maximumHedgeRatio must not be negative");
+      }
+      this.maximumHedgeRatio = maximumHedgeRatio;
+      return this;
+    }
+
+    /**
+     * @param maximumThreads size of the pool running the requests, unless an executor is given
+     */
+    public Builder withMaximumThreads(int maximumThreads) {
+      if (maximumThreads < 1) {
+        throw new IllegalArgumentException("maximumThreads must be positive");
+      }
+      this.maximumThreads = maximumThreads;
+      return this;
+    }
+
+    /**
+     * @param executor executor running the requests, it isn't shut down on close. Rejected hedged requests are
+     *                 skipped, other rejected requests run on the calling thread.
+     */
+    public Builder withExecutor(ExecutorService executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    public HedgedSchemaRegistryBackend build() {
+      return new HedgedSchemaRegistryBackend(this);
+    }
+  }
+}
@@ -0,0 +1,322 @@
+package de.khamrakulov.schema.registry.s3;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.util.IOUtils;
+import de.khamrakulov.schema.registry.SchemaChange;
+import de.khamrakulov.schema.registry.SchemaChangeFeed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * Change log with one object per registration, named by its zero padded sequence number.
+ * <p>
+ * Entries are created with {@code If-None-Match: *}, so every sequence number is claimed by exactly one writer, and
+ * a writer only claims a number after seeing the previous one taken, which keeps the log free of gaps.
+ * <p>
+ * The writer claiming the last sequence number of a segment compacts the segment's entries into a single
+ * {@code segments/<last sequence number>} object and advances the {@code checkpoint} object to it. Readers fetch the
+ * checkpoint, the segments after their last sequence number up to the checkpoint, and list the keys after the
+ * checkpoint, so a poll takes two requests plus one per change since the checkpoint. Entry objects are kept after
+ * compaction: deleting them would let a writer with a stale sequence number claim a number a second time.
+ */
+final class S3ChangeLog implements SchemaChangeFeed {
+  private static final Logger LOGGER = LoggerFactory.getLogger(S3ChangeLog.class);
+  private static final String SEQUENCE_FORMAT = "%019d";
+  private static final int SEQUENCE_LENGTH = 19;
+  private static final int MAX_APPEND_ATTEMPTS = 10;
+  private static final int MAX_CHECKPOINT_ATTEMPTS = 10;
+  static final int DEFAULT_SEGMENT_SIZE = 100;
+
+  private final AmazonS3 client;
+  private final String bucketName;
+  private final String prefix;
+  private final String contentType;
+  private final int segmentSize;
+  // -1 until the end of the log was looked up, so the first append of a process doesn't start at the beginning
+  private final AtomicLong lastKnownSequence = new AtomicLong(-1);
+
+  S3ChangeLog(AmazonS3 client, String bucketName, String prefix, String contentType) {
+    this(client, bucketName, prefix, contentType, DEFAULT_SEGMENT_SIZE);
+  }
+
+  S3ChangeLog(AmazonS3 client, String bucketName, String prefix, String contentType, int segmentSize) {
+    this.client = client;
+    this.bucketName = bucketName;
+    this.prefix = prefix;
+    this.contentType = contentType;
+    this.segmentSize = segmentSize;
+  }
+
+  /**
+   * @return sequence number of the appended change
+   */
+  long append(String subject, String version) throws IOException {
+    final byte[] entry = (subject + '\t' + (version == null ? "" : version)).getBytes(StandardCharsets.UTF_8);
+    final long known = lastKnownSequence.get();
+    long sequence = (known < 0 ? getLatestSequence() : known) + 1;
+    for (int attempt = 1; attempt <= MAX_APPEND_ATTEMPTS; attempt++) {
+      final ObjectMetadata md = new ObjectMetadata();
+      md.setContentLength(entry.length);
+      md.setContentType(contentType);
+      final PutObjectRequest request = new PutObjectRequest(bucketName, getKey(sequence),
+        new ByteArrayInputStream(entry), md);
+      request.putCustomRequestHeader("If-None-Match", "*");
+      boolean claimed = false;
+      try {
+        client.putObject(request);
+        claimed = true;
+      } catch (AmazonServiceException exception) {
+        if (!S3ManifestStore.isConflict(exception)) {
+          throw new IOException(String.format("Error appending change of subject %s", subject), exception);
+        }
+      }
+      if (claimed) {
+        lastKnownSequence.accumulateAndGet(sequence, Math::max);
+        if (sequence % segmentSize == 0) {
+          compact(sequence);
+        }
+        return sequence;
+      }
+      if (attempt > 1) {
+        S3ManifestStore.backoff(attempt);
+      }
+      // taken by another writer, continue after the end of the log
+      sequence = Math.max(sequence, getLatestSequence()) + 1;
+    }
+    throw new IOException(String.format("Error appending change of subject %s, too many concurrent changes", subject));
+  }
+
+  @Override
+  public List<SchemaChange> getChangesSince(long sequence) throws IOException {
+    final long checkpoint = readCheckpoint().sequence;
+    final List<SchemaChange> changes = new ArrayList<>();
+    for (long end = (sequence / segmentSize + 1) * segmentSize; end <= checkpoint; end += segmentSize) {
+      for (SchemaChange change : readSegment(end)) {
+        if (change.getSequence() > sequence) {
+          changes.add(change);
+        }
+      }
+    }
+    final List<Long> sequences = new ArrayList<>();
+    listSequencesAfter(Math.max(sequence, checkpoint), sequences::add);
+    for (long next : sequences) {
+      changes.add(read(next));
+    }
+    return changes;
+  }
+
+  @Override
+  public long getLatestSequence() throws IOException {
+    final long start = Math.max(lastKnownSequence.get(), readCheckpoint().sequence);
+    final AtomicLong latest = new AtomicLong(Math.max(start, 0));
+    listSequencesAfter(start, latest::set);
+    lastKnownSequence.accumulateAndGet(latest.get(), Math::max);
+    return latest.get();
+  }
+
+  /**
+   * Writes the segments up to the given sequence number, which aren't covered by the checkpoint yet, and advances
+   * the checkpoint. A failure is logged, the next writer completing a segment compacts the missing ones as well.
+   */
+  private void compact(long sequence) {
+    try {
+      final Checkpoint checkpoint = readCheckpoint();
+      for (long end = checkpoint.sequence + segmentSize; end <= sequence; end += segmentSize) {
+        writeSegment(end);
+      }
+      advanceCheckpoint(sequence, checkpoint);
+    } catch (IOException | RuntimeException exception) {
+      LOGGER.warn("Error compacting the change log up to sequence {}", sequence, exception);
+    }
+  }
+
+  private void writeSegment(long end) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      for (long sequence = end - segmentSize + 1; sequence <= end; sequence++) {
+        final SchemaChange change = read(sequence);
+        output.writeUTF(change.getSubject());
+        output.writeUTF(change.getVersion() == null ? "" : change.getVersion());
+      }
+    }
+    // the content of a segment never changes, so concurrent compactions may overwrite each other
+    put(getSegmentKey(end), bytes.toByteArray(), null, null);
+  }
+
+  private List<SchemaChange> readSegment(long end) throws IOException {
+    final List<SchemaChange> changes = new ArrayList<>(segmentSize);
+    final String key = getSegmentKey(end);
+    try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(get(key).content))) {
+      for (long sequence = end - segmentSize + 1; sequence <= end; sequence++) {
+        final String subject = input.readUTF();
+        final String version = input.readUTF();
+        changes.add(new SchemaChange(sequence, subject, version.isEmpty() ? null : version));
+      }
+    } catch (AmazonServiceException exception) {
+      throw new IOException(String.format("Error retrieving schema changes up to %d", end), exception);
+    }
+    return changes;
+  }
+
+  /**
+   * Moves the checkpoint forward only, concurrent compactions may finish in any order
+   */
+  private void advanceCheckpoint(long sequence, Checkpoint current) throws IOException {
+    for (int attempt = 1; attempt <= MAX_CHECKPOINT_ATTEMPTS; attempt++) {
+      if (current.sequence >= sequence) {
+        return;
+      }
+      final byte[] content = Long.toString(sequence).getBytes(StandardCharsets.UTF_8);
+      try {
+        if (current.eTag == null) {
+          put(getCheckpointKey(), content, "If-None-Match", "*");
+        } else {
+          put(getCheckpointKey(), content, "If-Match", current.eTag);
+        }
+        return;
+      } catch (AmazonServiceException exception) {
+        if (!S3ManifestStore.isConflict(exception)) {
+          throw new IOException("Error writing the change log checkpoint", exception);
+        }
+      }
+      S3ManifestStore.backoff(attempt);
+      current = readCheckpoint();
+    }
+    throw new IOException("Error writing the change log checkpoint, too many concurrent updates");
+  }
+
+  private Checkpoint readCheckpoint() throws IOException {
+    try {
+      final Content checkpoint = get(getCheckpointKey());
+      return new Checkpoint(Long.parseLong(new String(checkpoint.content, StandardCharsets.UTF_8).trim()),
+        checkpoint.eTag);
+    } catch (AmazonServiceException exception) {
+      if (exception.getStatusCode() == 404) {
+        return Checkpoint.NONE;
+      }
+      throw new IOException("Error retrieving the change log checkpoint", exception);
+    } catch (NumberFormatException exception) {
+      throw new IOException("Malformed change log checkpoint", exception);
+    }
+  }
+
+  /**
+   * Passes the sequence numbers after the given one to the consumer, page by page
+   */
+  private void listSequencesAfter(long sequence, LongConsumer consumer) throws IOException {
+    final ListObjectsV2Request request = new ListObjectsV2Request()
+      .withBucketName(bucketName)
+      .withPrefix(prefix)
+      .withDelimiter("/");
+    if (sequence > 0) {
+      request.setStartAfter(getKey(sequence));
+    }
+    long last = -1;
+    try {
+      ListObjectsV2Result result;
+      do {
+        result = client.listObjectsV2(request);
+        for (S3ObjectSummary summary : result.getObjectSummaries()) {
+          final String name = summary.getKey().substring(prefix.length());
+          if (name.length() == SEQUENCE_LENGTH && name.chars().allMatch(Character::isDigit)) {
+            last = Long.parseLong(name);
+            consumer.accept(last);
+          }
+        }
+        request.setContinuationToken(result.getNextContinuationToken());
+      } while (result.isTruncated());
+    } catch (AmazonServiceException exception) {
+      throw new IOException("Error retrieving schema changes", exception);
+    }
+    if (last > 0) {
+      lastKnownSequence.accumulateAndGet(last, Math::max);
+    }
+  }
+
+  private SchemaChange read(long sequence) throws IOException {
+    final String entry;
+    try {
+      entry = new String(get(getKey(sequence)).content, StandardCharsets.UTF_8);
+    } catch (AmazonServiceException exception) {
+      throw new IOException(String.format("Error retrieving schema change %d", sequence), exception);
+    }
+    final int separator = entry.lastIndexOf('\t');
+    if (separator < 0) {
+      throw new IOException(String.format("Malformed schema change %d", sequence));
+    }
+    final String version = entry.substring(separator + 1);
+    return new SchemaChange(sequence, entry.substring(0, separator), version.isEmpty() ? null : version);
+  }
+
+  private Content get(String key) throws IOException {
+    final S3Object object = client.getObject(bucketName, key);
+    try {
+      return new Content(IOUtils.toByteArray(object.getObjectContent()), object.getObjectMetadata().getETag());
+    } finally {
+      object.close();
+    }
+  }
+
+  private void put(String key, byte[] content, String preconditionHeader, String precondition) {
+    final ObjectMetadata md = new ObjectMetadata();
+    md.setContentLength(content.length);
+    md.setContentType(contentType);
+    final PutObjectRequest request = new PutObjectRequest(bucketName, key, new ByteArrayInputStream(content), md);
+    if (preconditionHeader != null) {
+      request.putCustomRequestHeader(preconditionHeader, precondition);
+    }
+    client.putObject(request);
+  }
+
+  private String getKey(long sequence) {
+    return prefix + String.format(SEQUENCE_FORMAT, sequence);
+  }
+
+  private String getSegmentKey(long end) {
+    return prefix + "segments/" + String.format(SEQUENCE_FORMAT, end);
+  }
+
+  private String getCheckpointKey() {
+    return prefix + "checkpoint";
+  }
+
+  private static final class Content {
+    private final byte[] content;
+    private final String eTag;
+
+    private Content(byte[] content, String eTag) {
+      this.content = content;
+      this.eTag = eTag;
+    }
+  }
+
+  private static final class Checkpoint {
+    private static final Checkpoint NONE = new Checkpoint(0, null);
+
+    private final long sequence;
+    private final String eTag;
+
+    private Checkpoint(long sequence, String eTag) {
+      this.sequence = sequence;
+      this.eTag = eTag;
+    }
+  }
+}
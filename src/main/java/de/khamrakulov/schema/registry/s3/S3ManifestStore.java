@@ -0,0 +1,144 @@
+package de.khamrakulov.schema.registry.s3;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.util.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reads and atomically updates the manifest object, using ETag preconditions for both
+ */
+final class S3ManifestStore {
+  private static final int MAX_UPDATE_ATTEMPTS = 10;
+  private static final long BASE_BACKOFF_MILLIS = 20;
+
+  private final AmazonS3 client;
+  private final String bucketName;
+  private final String key;
+  private final String contentType;
+  private volatile Loaded lastLoaded;
+
+  interface Update {
+    /**
+     * @param current the current manifest or null, if no manifest was written yet
+     * @return the updated manifest, or the current one to leave the manifest as is
+     */
+    S3SchemaManifest apply(S3SchemaManifest current) throws IOException;
+  }
+
+  S3ManifestStore(AmazonS3 client, String bucketName, String key, String contentType) {
+    this.client = client;
+    this.bucketName = bucketName;
+    this.key = key;
+    this.contentType = contentType;
+  }
+
+  /**
+   * @return the current manifest or null, if no manifest was written yet
+   */
+  S3SchemaManifest load() throws IOException {
+    final Loaded loaded = reload();
+    return loaded.eTag == null ? null : loaded.manifest;
+  }
+
+  /**
+   * Apply the update to the current manifest and write it, if nobody else updated the manifest in the meantime.
+   * Conflicting updates are retried with backoff, the update is applied again to the manifest written in between.
+   */
+  S3SchemaManifest update(Update update) throws IOException {
+    for (int attempt = 1; attempt <= MAX_UPDATE_ATTEMPTS; attempt++) {
+      final Loaded current = reload();
+      final S3SchemaManifest updated = update.apply(current.eTag == null ? null : current.manifest);
+      if (current.eTag != null && updated == current.manifest) {
+        return updated;
+      }
+      final byte[] bytes = updated.serialize().getBytes(StandardCharsets.UTF_8);
+      final ObjectMetadata md = new ObjectMetadata();
+      md.setContentLength(bytes.length);
+      md.setContentType(contentType);
+      final PutObjectRequest request = new PutObjectRequest(bucketName, key, new ByteArrayInputStream(bytes), md);
+      if (current.eTag == null) {
+        request.putCustomRequestHeader("If-None-Match", "*");
+      } else {
+        request.putCustomRequestHeader("If-Match", current.eTag);
+      }
+      try {
+        final PutObjectResult result = client.putObject(request);
+        lastLoaded = new Loaded(updated, result.getETag());
+        return updated;
+      } catch (AmazonServiceException exception) {
+        if (!isConflict(exception)) {
+          throw new IOException("Error updating schema manifest", exception);
+        }
+      }
+      backoff(attempt);
+    }
+    throw new IOException("Error updating schema manifest, too many concurrent updates");
+  }
+
+  private Loaded reload() throws IOException {
+    final Loaded previous = lastLoaded;
+    final GetObjectRequest request = new GetObjectRequest(bucketName, key);
+    if (previous != null && previous.eTag != null) {
+      request.withNonmatchingETagConstraint(previous.eTag);
+    }
+    try {
+      final S3Object object = client.getObject(request);
+      if (object == null) {
+        // not modified since the last load
+        return previous;
+      }
+      final Loaded loaded;
+      try {
+        loaded = new Loaded(S3SchemaManifest.parse(IOUtils.toString(object.getObjectContent())),
+          object.getObjectMetadata().getETag());
+      } finally {
+        object.close();
+      }
+      lastLoaded = loaded;
+      return loaded;
+    } catch (AmazonServiceException exception) {
+      if (exception.getStatusCode() == 404) {
+        final Loaded empty = new Loaded(S3SchemaManifest.EMPTY, null);
+        lastLoaded = empty;
+        return empty;
+      }
+      throw new IOException("Error retrieving schema manifest", exception);
+    }
+  }
+
+  static boolean isConflict(AmazonServiceException exception) {
+    // 412 for a failed precondition, 409 for a concurrent conditional write
+    return exception.getStatusCode() == 412 || exception.getStatusCode() == 409;
+  }
+
+  static void backoff(int attempt) throws InterruptedIOException {
+    final long maxDelay = BASE_BACKOFF_MILLIS << Math.min(attempt, 6);
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelay / 2, maxDelay));
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to retry");
+    }
+  }
+
+  private static final class Loaded {
+    private final S3SchemaManifest manifest;
+    private final String eTag;
+
+    private Loaded(S3SchemaManifest manifest, String eTag) {
+      this.manifest = manifest;
+      this.eTag = eTag;
+    }
+  }
+}
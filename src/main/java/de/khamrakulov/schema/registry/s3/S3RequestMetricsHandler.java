@@ -0,0 +1,61 @@
+package de.khamrakulov.schema.registry.s3;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import de.khamrakulov.schema.registry.metrics.RegistryMetrics;
+
+/**
+ * Request handler, which reports every HTTP request of an S3 client, including retries, to a {@link RegistryMetrics}
+ * listener. Unlike the backend calls measured by
+ * {@link de.khamrakulov.schema.registry.metrics.InstrumentedSchemaRegistryBackend}, this counts the requests S3 bills,
+ * e.g. the GETs and LISTs of a single call or the requests avoided by caching. Register it when building the client:
+ * <pre>
+ * AmazonS3ClientBuilder.standard().withRequestHandlers(new S3RequestMetricsHandler(metrics)).build();
+ * </pre>
+ */
+public class S3RequestMetricsHandler extends RequestHandler2 {
+  private static final HandlerContextKey<Long> START_NANOS = new HandlerContextKey<>("SchemaRegistryStartNanos");
+  private static final String REQUEST_SUFFIX = "Request";
+
+  private final RegistryMetrics metrics;
+
+  public S3RequestMetricsHandler(RegistryMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void beforeAttempt(HandlerBeforeAttemptContext context) {
+    context.getRequest().addHandlerContext(START_NANOS, System.nanoTime());
+  }
+
+  @Override
+  public void afterAttempt(HandlerAfterAttemptContext context) {
+    final Long start = context.getRequest().getHandlerContext(START_NANOS);
+    final long durationNanos = start == null ? 0 : System.nanoTime() - start;
+    final Exception failure = context.getException();
+    int statusCode = 0;
+    if (context.getResponse() != null && context.getResponse().getHttpResponse() != null) {
+      statusCode = context.getResponse().getHttpResponse().getStatusCode();
+    } else if (failure instanceof AmazonServiceException) {
+      statusCode = ((AmazonServiceException) failure).getStatusCode();
+    }
+    metrics.recordStorageRequest(getRequestType(context.getRequest().getOriginalRequest()), statusCode,
+      durationNanos, failure);
+  }
+
+  /**
+   * @return name of the request class without the suffix, e.g. GetObject
+   */
+  static String getRequestType(AmazonWebServiceRequest request) {
+    if (request == null) {
+      return "Unknown";
+    }
+    final String name = request.getClass().getSimpleName();
+    return name.endsWith(REQUEST_SUFFIX) && name.length() > REQUEST_SUFFIX.length()
+      ? name.substring(0, name.length() - REQUEST_SUFFIX.length()) : name;
+  }
+}
@@ -0,0 +1,134 @@
+package de.khamrakulov.schema.registry.s3;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes schema text into object bodies and back. Compressed bodies are recognized by the gzip magic bytes, which
+ * can't start a UTF-8 JSON document, so objects written without compression are read as before.
+ * <p>
+ * Bodies are read into per-thread buffers, which are reused across reads, so reading a schema allocates little more
+ * than the resulting string. Buffers of up to 64 KB are kept, so an idle thread retains at most 128 KB.
+ */
+final class S3SchemaCodec {
+  static final String GZIP_ENCODING = "gzip";
+
+  private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+  // larger buffers are used for a single read and left to the garbage collector, typical schemas fit
+  private static final int MAXIMUM_POOLED_BUFFER_SIZE = 64 * 1024;
+  private static final ThreadLocal<byte[]> BODY_BUFFERS = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+  private static final ThreadLocal<byte[]> INFLATED_BUFFERS =
+    ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+
+  private S3SchemaCodec() {
+  }
+
+  static Body compress(byte[] schema) throws IOException {
+    final Body compressed = new Body(schema.length / 4 + 32);
+    try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+      out.write(schema);
+    }
+    return compressed;
+  }
+
+  /**
+   * Read the body to its end and decode it
+   *
+   * @param contentLength size of the body, used to size the buffer, or a negative value if unknown
+   */
+  static String read(InputStream body, long contentLength) throws IOException {
+    byte[] buffer = BODY_BUFFERS.get();
+    // one spare byte, so the end of the body is seen without growing the buffer
+    if (contentLength >= buffer.length && contentLength < Integer.MAX_VALUE - 8) {
+      buffer = new byte[(int) contentLength + 1];
+    }
+    final Buffered read = readFully(body, buffer);
+    final String schema = isCompressed(read.bytes, read.length) ? inflate(read.bytes, read.length)
+      : new String(read.bytes, 0, read.length, StandardCharsets.UTF_8);
+    if (read.bytes.length <= MAXIMUM_POOLED_BUFFER_SIZE) {
+      BODY_BUFFERS.set(read.bytes);
+    }
+    return schema;
+  }
+
+  /**
+   * @return size of the buffers kept by the calling thread
+   */
+  static int getRetainedBufferSize() {
+    return BODY_BUFFERS.get().length + INFLATED_BUFFERS.get().length;
+  }
+
+  private static String inflate(byte[] body, int length) throws IOException {
+    final Buffered inflated;
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body, 0, length))) {
+      inflated = readFully(in, INFLATED_BUFFERS.get());
+    }
+    if (inflated.bytes.length <= MAXIMUM_POOLED_BUFFER_SIZE) {
+      INFLATED_BUFFERS.set(inflated.bytes);
+    }
+    return new String(inflated.bytes, 0, inflated.length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Read the stream to its end into the buffer, or into a larger copy of it if the stream doesn't fit
+   */
+  private static Buffered readFully(InputStream in, byte[] buffer) throws IOException {
+    int length = 0;
+    while (true) {
+      if (length == buffer.length) {
+        final int next = in.read();
+        if (next < 0) {
+          break;
+        }
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        buffer[length++] = (byte) next;
+      }
+      final int read = in.read(buffer, length, buffer.length - length);
+      if (read < 0) {
+        break;
+      }
+      length += read;
+    }
+    return new Buffered(buffer, length);
+  }
+
+  private static boolean isCompressed(byte[] body, int length) {
+    return length >= 2 && (body[0] & 0xFF) == 0x1F && (body[1] & 0xFF) == 0x8B;
+  }
+
+  private static final class Buffered {
+    private final byte[] bytes;
+    private final int length;
+
+    private Buffered(byte[] bytes, int length) {
+      this.bytes = bytes;
+      this.length = length;
+    }
+  }
+
+  /**
+   * Encoded object body, uploaded straight from the encoding buffer
+   */
+  static final class Body extends ByteArrayOutputStream {
+    Body(int size) {
+      super(size);
+    }
+
+    static Body of(byte[] bytes) {
+      final Body body = new Body(0);
+      body.buf = bytes;
+      body.count = bytes.length;
+      return body;
+    }
+
+    InputStream toInputStream() {
+      return new ByteArrayInputStream(buf, 0, count);
+    }
+  }
+}
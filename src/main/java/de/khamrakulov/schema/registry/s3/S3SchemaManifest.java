@@ -0,0 +1,119 @@
+package de.khamrakulov.schema.registry.s3;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Snapshot of the latest version of every subject, stored as a single object next to the schemas.
+ * <p>
+ * The manifest is a UTF-8 text with a header line followed by one tab separated line per subject:
+ * {@code subject, version id, ETag, fingerprint}.
+ */
+public final class S3SchemaManifest {
+  private static final String HEADER = "s3-schema-registry-manifest\t1";
+  static final S3SchemaManifest EMPTY = new S3SchemaManifest(new TreeMap<>());
+
+  private final Map<String, Entry> entries;
+
+  private S3SchemaManifest(TreeMap<String, Entry> entries) {
+    this.entries = Collections.unmodifiableMap(entries);
+  }
+
+  public Set<String> getSubjects() {
+    return entries.keySet();
+  }
+
+  /**
+   * @return the latest version of the subject or null, if the subject isn't registered
+   */
+  public Entry getEntry(String subject) {
+    return entries.get(subject);
+  }
+
+  public Map<String, Entry> getEntries() {
+    return entries;
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  S3SchemaManifest with(String subject, Entry entry) {
+    if (subject.indexOf('\t') >= 0 || subject.indexOf('\n') >= 0) {
+      throw new IllegalArgumentException("Subject names with tabs or line breaks can't be stored in the manifest");
+    }
+    final TreeMap<String, Entry> updated = new TreeMap<>(entries);
+    updated.put(subject, entry);
+    return new S3SchemaManifest(updated);
+  }
+
+  String serialize() {
+    final StringBuilder builder = new StringBuilder(HEADER.length() + entries.size() * 96);
+    builder.append(HEADER).append('\n');
+    entries.forEach((subject, entry) -> builder
+      .append(subject).append('\t')
+      .append(entry.version == null ? "" : entry.version).append('\t')
+      .append(entry.eTag == null ? "" : entry.eTag).append('\t')
+      .append(Long.toHexString(entry.fingerprint)).append('\n'));
+    return builder.toString();
+  }
+
+  static S3SchemaManifest parse(String text) throws IOException {
+    final String[] lines = text.split("\n");
+    if (lines.length == 0 || !HEADER.equals(lines[0])) {
+      throw new IOException("Unsupported schema manifest format");
+    }
+    final TreeMap<String, Entry> entries = new TreeMap<>();
+    for (int i = 1; i < lines.length; i++) {
+      if (lines[i].isEmpty()) {
+        continue;
+      }
+      final String[] fields = lines[i].split("\t", -1);
+      if (fields.length != 4) {
+        throw new IOException("Malformed schema manifest line " + (i + 1));
+      }
+      final long fingerprint;
+      try {
+        fingerprint = Long.parseUnsignedLong(fields[3], 16);
+      } catch (NumberFormatException exception) {
+        throw new IOException("Malformed schema manifest line " + (i + 1), exception);
+      }
+      entries.put(fields[0], new Entry(emptyToNull(fields[1]), emptyToNull(fields[2]), fingerprint));
+    }
+    return new S3SchemaManifest(entries);
+  }
+
+  private static String emptyToNull(String value) {
+    return value.isEmpty() ? null : value;
+  }
+
+  public static final class Entry {
+    private final String version;
+    private final String eTag;
+    private final long fingerprint;
+
+    public Entry(String version, String eTag, long fingerprint) {
+      this.version = version;
+      this.eTag = eTag;
+      this.fingerprint = fingerprint;
+    }
+
+    public String getVersion() {
+      return version;
+    }
+
+    public String getETag() {
+      return eTag;
+    }
+
+    /**
+     * CRC-64-AVRO fingerprint of the stored schema text
+     */
+    public long getFingerprint() {
+      return fingerprint;
+    }
+  }
+}
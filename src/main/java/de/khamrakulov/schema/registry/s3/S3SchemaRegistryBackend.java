@@ -3,36 +3,91 @@ package de.khamrakulov.schema.registry.s3;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.*;
-import com.amazonaws.util.IOUtils;
+import de.khamrakulov.schema.registry.ConcurrentRegistrationException;
+import de.khamrakulov.schema.registry.SchemaChangeFeed;
 import de.khamrakulov.schema.registry.SchemaMetadata;
 import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import de.khamrakulov.schema.registry.cache.LruCache;
+import de.khamrakulov.schema.registry.cache.SubjectVersion;
+import org.apache.avro.SchemaNormalization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 final public class S3SchemaRegistryBackend implements SchemaRegistryBackend {
+  private static final Logger LOGGER = LoggerFactory.getLogger(S3SchemaRegistryBackend.class);
+
   private final static String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+  private final static int DEFAULT_MAXIMUM_TRACKED_SUBJECTS = 10_000;
+  // smaller schemas hardly shrink, gzip adds about 20 bytes of framing
+  private final static int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+  // folder for objects maintained by the registry itself, excluded from the subject listing
+  private final static String INTERNAL_FOLDER = "_registry";
+  // user metadata holding the fingerprint of the schema text
+  private final static String FINGERPRINT_METADATA = "schema-fingerprint";
+  private final static String FINGERPRINT_FORMAT = "%016x";
+  // characters subject names usually start with, in S3 listing order, used to split the subject keyspace
+  private final static String SPLIT_ALPHABET = "-.0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ_abcdefghijklmnopqrstuvwxyz";
   private final AmazonS3 client;
   private final String bucketName;
   private final String extensionFolderName;
   private final String contentType;
+  // latest object served per subject, used for revalidation in conditional fetch mode
+  private final LruCache<String, ServedObject> lastServed;
+  // ETags of recently read or written objects, used as preconditions of conditional registrations
+  private final LruCache<SubjectVersion, String> observedETags;
+  private final S3ManifestStore manifestStore;
+  private final S3ChangeLog changeLog;
+  // minimum size of schemas stored compressed, negative to store all schemas uncompressed
+  private final int compressionThreshold;
 
   public S3SchemaRegistryBackend(AmazonS3 client, String bucketName, String extensionFolderName) {
     this(client, bucketName, extensionFolderName, DEFAULT_CONTENT_TYPE);
   }
 
   public S3SchemaRegistryBackend(AmazonS3 client, String bucketName, String extensionFolderName, String contentType) {
-    this.client = client;
-    this.bucketName = bucketName;
-    this.extensionFolderName = extensionFolderName;
-    this.contentType = contentType;
+    this(builder(client, bucketName, extensionFolderName).withContentType(contentType));
+  }
+
+  private S3SchemaRegistryBackend(Builder builder) {
+    this.client = builder.client;
+    this.bucketName = builder.bucketName;
+    this.extensionFolderName = builder.extensionFolderName;
+    this.contentType = builder.contentType;
+    this.lastServed = builder.conditionalFetch ? new LruCache<>(builder.maximumTrackedSubjects) : null;
+    this.observedETags = new LruCache<>(DEFAULT_MAXIMUM_TRACKED_SUBJECTS);
+    this.compressionThreshold = builder.compressionThreshold;
+    this.manifestStore = builder.manifest
+      ? new S3ManifestStore(client, bucketName, getInternalKey("manifest"), contentType)
+      : null;
+    this.changeLog = builder.changeLog
+      ? new S3ChangeLog(client, bucketName, getInternalKey("changes/"), contentType)
+      : null;
+  }
+
+  public static Builder builder(AmazonS3 client, String bucketName, String extensionFolderName) {
+    return new Builder(client, bucketName, extensionFolderName);
   }
 
   @Override
@@ -40,24 +95,171 @@ final public class S3SchemaRegistryBackend implements SchemaRegistryBackend {
     return client.doesObjectExist(bucketName, getS3Key(subject));
   }
 
+  /**
+   * Register the schema, unless it is the latest schema of the subject already. The check costs a HEAD request per
+   * registration, plus a GET of the latest version if its fingerprint matches, so the text is compared before a
+   * registration is skipped.
+   */
   @Override
   public SchemaMetadata register(String subject, String schema) throws IOException {
-    final byte[] objectBytes = schema.getBytes(StandardCharsets.UTF_8);
-    final InputStream input = new ByteArrayInputStream(objectBytes);
-    final String s3Key = getS3Key(subject);
+    final byte[] schemaBytes = schema.getBytes(StandardCharsets.UTF_8);
+    final long fingerprint = SchemaNormalization.fingerprint64(schemaBytes);
+    final ObjectMetadata latest;
+    try {
+      latest = client.getObjectMetadata(bucketName, getS3Key(subject));
+    } catch (AmazonServiceException exception) {
+      if (exception.getStatusCode() != 404) {
+        String message = String.format("Error retrieving version for subject %s", subject);
+        throw new IOException(message, exception);
+      }
+      return put(subject, schema, schemaBytes, fingerprint, null, null);
+    }
+    if (String.format(FINGERPRINT_FORMAT, fingerprint).equals(latest.getUserMetaDataOf(FINGERPRINT_METADATA))
+      && schema.equals(readVersion(subject, latest.getVersionId()))) {
+      return new SchemaMetadata(subject, latest.getVersionId(), schema);
+    }
+    return put(subject, schema, schemaBytes, fingerprint, null, null);
+  }
+
+  private String readVersion(String subject, String version) throws IOException {
+    try {
+      return readSchema(client.getObject(new GetObjectRequest(bucketName, getS3Key(subject), version)));
+    } catch (AmazonServiceException exception) {
+      String message = String.format("Error retrieving schema for subject %s", subject);
+      throw new IOException(message, exception);
+    }
+  }
+
+  /**
+   * Register the schema with a single conditional PUT, which fails if the latest object changed since it was read
+   */
+  @Override
+  public SchemaMetadata registerIfLatest(String subject, String schema, SchemaMetadata expectedLatest)
+    throws IOException {
+    if (expectedLatest == null) {
+      return put(subject, schema, "If-None-Match", "*");
+    }
+    if (schema.equals(expectedLatest.getSchema())) {
+      return expectedLatest;
+    }
+    return put(subject, schema, "If-Match", getObservedETag(subject, expectedLatest));
+  }
+
+  private SchemaMetadata put(String subject, String schema, String preconditionHeader, String precondition)
+    throws IOException {
+    final byte[] schemaBytes = schema.getBytes(StandardCharsets.UTF_8);
+    return put(subject, schema, schemaBytes, SchemaNormalization.fingerprint64(schemaBytes), preconditionHeader,
+      precondition);
+  }
+
+  /**
+   * @param schemaBytes UTF-8 encoded schema, encoded once per registration and uploaded without further copies
+   */
+  private SchemaMetadata put(String subject, String schema, byte[] schemaBytes, long fingerprint,
+                             String preconditionHeader, String precondition) throws IOException {
     final ObjectMetadata md = new ObjectMetadata();
-    md.setContentLength(objectBytes.length);
+    final S3SchemaCodec.Body body;
+    if (compressionThreshold >= 0 && schemaBytes.length >= compressionThreshold) {
+      body = S3SchemaCodec.compress(schemaBytes);
+      md.setContentEncoding(S3SchemaCodec.GZIP_ENCODING);
+    } else {
+      body = S3SchemaCodec.Body.of(schemaBytes);
+    }
+    final InputStream input = body.toInputStream();
+    final String s3Key = getS3Key(subject);
+    md.setContentLength(body.size());
     md.setContentType(contentType);
+    md.addUserMetadata(FINGERPRINT_METADATA, String.format(FINGERPRINT_FORMAT, fingerprint));
     final PutObjectRequest request = new PutObjectRequest(bucketName, s3Key, input, md);
+    if (preconditionHeader != null) {
+      request.putCustomRequestHeader(preconditionHeader, precondition);
+    }
     final PutObjectResult result;
     try {
       result = client.putObject(request);
     } catch (AmazonServiceException exception) {
+      if (preconditionHeader != null && S3ManifestStore.isConflict(exception)) {
+        String message = String.format("Schema for subject %s was changed concurrently", subject);
+        throw new ConcurrentRegistrationException(message, exception);
+      }
       String message = String.format("Error registering schema for subject %s", subject);
       throw new IOException(message, exception);
     }
 
-    return new SchemaMetadata(subject, result.getVersionId(), schema);
+    final SchemaMetadata registered = new SchemaMetadata(subject, result.getVersionId(), schema);
+    observedETags.put(new SubjectVersion(subject, result.getVersionId()), result.getETag());
+    if (lastServed != null) {
+      lastServed.put(subject, new ServedObject(result.getETag(), registered));
+    }
+    // the schema is registered once it is written, failing the call now would make callers retry a registration
+    // which already happened, so the manifest and the change log are updated on a best effort basis
+    if (manifestStore != null) {
+      final S3SchemaManifest.Entry entry = new S3SchemaManifest.Entry(result.getVersionId(), result.getETag(),
+        fingerprint);
+      try {
+        manifestStore.update(manifest -> manifest == null ? buildManifest() : withLatest(manifest, subject, entry));
+      } catch (IOException | RuntimeException exception) {
+        LOGGER.warn("Schema for subject {} registered as version {}, but the manifest update failed",
+          subject, result.getVersionId(), exception);
+      }
+    }
+    if (changeLog != null) {
+      try {
+        changeLog.append(subject, result.getVersionId());
+      } catch (IOException | RuntimeException exception) {
+        LOGGER.warn("Schema for subject {} registered as version {}, but the change log append failed",
+          subject, result.getVersionId(), exception);
+      }
+    }
+    return registered;
+  }
+
+  /**
+   * ETag of the expected latest object, taken from the read which returned it or from a HEAD request
+   */
+  private String getObservedETag(String subject, SchemaMetadata expectedLatest) throws IOException {
+    final String eTag = observedETags.get(new SubjectVersion(subject, expectedLatest.getVersion()));
+    if (eTag != null) {
+      return eTag;
+    }
+    final ObjectMetadata latest;
+    try {
+      latest = client.getObjectMetadata(bucketName, getS3Key(subject));
+    } catch (AmazonServiceException exception) {
+      if (exception.getStatusCode() == 404) {
+        String message = String.format("Schema for subject %s was deleted concurrently", subject);
+        throw new ConcurrentRegistrationException(message, exception);
+      }
+      String message = String.format("Error retrieving version for subject %s", subject);
+      throw new IOException(message, exception);
+    }
+    if (!Objects.equals(expectedLatest.getVersion(), latest.getVersionId())) {
+      String message = String.format("Schema for subject %s was changed concurrently", subject);
+      throw new ConcurrentRegistrationException(message);
+    }
+    return latest.getETag();
+  }
+
+  @Override
+  public SchemaMetadata findLatestSchemaMetadata(String subject) throws IOException {
+    final SchemaMetadata md;
+    final String eTag;
+    try {
+      final S3Object object = client.getObject(bucketName, getS3Key(subject));
+      eTag = object.getObjectMetadata().getETag();
+      md = new SchemaMetadata(subject, object.getObjectMetadata().getVersionId(), readSchema(object));
+    } catch (AmazonServiceException exception) {
+      if (exception.getStatusCode() == 404) {
+        return null;
+      }
+      String message = String.format("Error retrieving schema for subject %s", subject);
+      throw new IOException(message, exception);
+    }
+    observedETags.put(new SubjectVersion(subject, md.getVersion()), eTag);
+    if (lastServed != null) {
+      lastServed.put(subject, new ServedObject(eTag, md));
+    }
+    return md;
   }
 
   @Override
@@ -67,8 +269,7 @@ final public class S3SchemaRegistryBackend implements SchemaRegistryBackend {
       final GetObjectRequest rq = new GetObjectRequest(bucketName, getS3Key(subject), version);
       final S3Object object = client.getObject(rq);
       version = object.getObjectMetadata().getVersionId();
-      schema = IOUtils.toString(object.getObjectContent());
-      object.close();
+      schema = readSchema(object);
     } catch (AmazonServiceException exception) {
       String message = String.format("Error retrieving schema for subject %s", subject);
       throw new IOException(message, exception);
@@ -79,14 +280,16 @@ final public class S3SchemaRegistryBackend implements SchemaRegistryBackend {
 
   @Override
   public SchemaMetadata getLatestSchemaMetadata(String subject) throws IOException {
+    if (lastServed != null) {
+      return getLatestSchemaMetadataConditionally(subject);
+    }
     final String version;
     final String schema;
     final S3Object object;
     try {
       object = client.getObject(bucketName, getS3Key(subject));
       version = object.getObjectMetadata().getVersionId();
-      schema = IOUtils.toString(object.getObjectContent());
-      object.close();
+      schema = readSchema(object);
     } catch (AmazonServiceException exception) {
       String message = String.format("Error retrieving schema for subject %s", subject);
       throw new IOException(message, exception);
@@ -95,6 +298,44 @@ final public class S3SchemaRegistryBackend implements SchemaRegistryBackend {
     return new SchemaMetadata(subject, version, schema);
   }
 
+  /**
+   * Revalidates the last served object with a HEAD request and downloads the body only if the latest version moved
+   */
+  private SchemaMetadata getLatestSchemaMetadataConditionally(String subject) throws IOException {
+    final ServedObject served = lastServed.get(subject);
+    if (served == null) {
+      return fetchAndTrack(subject, null);
+    }
+    final ObjectMetadata latest;
+    try {
+      latest = client.getObjectMetadata(bucketName, getS3Key(subject));
+    } catch (AmazonServiceException exception) {
+      String message = String.format("Error retrieving schema for subject %s", subject);
+      throw new IOException(message, exception);
+    }
+    if (served.isSameObject(latest)) {
+      return served.metadata;
+    }
+    // fetch exactly the version the HEAD request observed
+    return fetchAndTrack(subject, latest.getVersionId());
+  }
+
+  private SchemaMetadata fetchAndTrack(String subject, String version) throws IOException {
+    final SchemaMetadata md;
+    final String eTag;
+    try {
+      final GetObjectRequest rq = new GetObjectRequest(bucketName, getS3Key(subject), version);
+      final S3Object object = client.getObject(rq);
+      eTag = object.getObjectMetadata().getETag();
+      md = new SchemaMetadata(subject, object.getObjectMetadata().getVersionId(), readSchema(object));
+    } catch (AmazonServiceException exception) {
+      String message = String.format("Error retrieving schema for subject %s", subject);
+      throw new IOException(message, exception);
+    }
+    lastServed.put(subject, new ServedObject(eTag, md));
+    return md;
+  }
+
   @Override
   public String getLatestVersion(String subject) throws IOException {
     try {
@@ -116,49 +357,216 @@ final public class S3SchemaRegistryBackend implements SchemaRegistryBackend {
     }
   }
 
-  @Override
-  public List<String> getAllSubjects() throws IOException {
+  /**
+   * Latest version of every subject, loaded with a single request. Requires the manifest to be enabled.
+   */
+  public S3SchemaManifest getManifest() throws IOException {
+    if (manifestStore == null) {
+      throw new IllegalStateException("Schema manifest is not enabled");
+    }
+    final S3SchemaManifest manifest = manifestStore.load();
+    return manifest == null ? S3SchemaManifest.EMPTY : manifest;
+  }
+
+  /**
+   * Feed of all registrations, e.g. for a {@link de.khamrakulov.schema.registry.SchemaChangeWatcher}.
+   * Requires the change log to be enabled.
+   */
+  public SchemaChangeFeed getChangeFeed() {
+    if (changeLog == null) {
+      throw new IllegalStateException("Schema change log is not enabled");
+    }
+    return changeLog;
+  }
+
+  /**
+   * Write the manifest from the latest version of every subject, e.g. when enabling the manifest for an existing
+   * registry. Requires the manifest to be enabled.
+   */
+  public S3SchemaManifest rebuildManifest() throws IOException {
+    if (manifestStore == null) {
+      throw new IllegalStateException("Schema manifest is not enabled");
+    }
+    final S3SchemaManifest manifest = buildManifest();
+    return manifestStore.update(current -> manifest);
+  }
+
+  /**
+   * Manifest of the latest version of every listed subject
+   */
+  private S3SchemaManifest buildManifest() throws IOException {
+    S3SchemaManifest manifest = S3SchemaManifest.EMPTY;
+    for (String subject : listSubjects()) {
+      try {
+        final S3Object object = client.getObject(bucketName, getS3Key(subject));
+        final String schema = readSchema(object);
+        manifest = manifest.with(subject, new S3SchemaManifest.Entry(object.getObjectMetadata().getVersionId(),
+          object.getObjectMetadata().getETag(), fingerprint(schema)));
+      } catch (AmazonServiceException exception) {
+        String message = String.format("Error retrieving schema for subject %s", subject);
+        throw new IOException(message, exception);
+      }
+    }
+    return manifest;
+  }
+
+  /**
+   * Manifest with the current latest version of the subject. Registrations may update the manifest in any order, so
+   * the entry of the registered version is only used if it is still the latest version in the bucket.
+   *
+   * @param registered entry of the version just registered
+   */
+  private S3SchemaManifest withLatest(S3SchemaManifest manifest, String subject, S3SchemaManifest.Entry registered)
+    throws IOException {
+    final ObjectMetadata latest;
     try {
-      final ListObjectsV2Result result;
-      final ListObjectsV2Request req = new ListObjectsV2Request()
-        .withBucketName(bucketName)
-        .withPrefix(extensionFolderName);
-      do {
-        result = client.listObjectsV2(req);
-        return result
-          .getObjectSummaries()
-          .stream()
-          .map(S3ObjectSummary::getKey)
-          .map(Paths::get)
-          .map(Path::getFileName)
-          .map(Path::toString)
-          .collect(Collectors.toList());
-
-      } while (result.isTruncated());
+      latest = client.getObjectMetadata(bucketName, getS3Key(subject));
     } catch (AmazonServiceException exception) {
-      String message = "Error retrieving subjects";
+      String message = String.format("Error retrieving schema for subject %s", subject);
       throw new IOException(message, exception);
     }
+    final S3SchemaManifest.Entry current = manifest.getEntry(subject);
+    if (current != null && Objects.equals(current.getVersion(), latest.getVersionId())) {
+      return manifest;
+    }
+    if (Objects.equals(registered.getVersion(), latest.getVersionId())) {
+      return manifest.with(subject, registered);
+    }
+    // a later registration, which updates the manifest as well, unless it failed to
+    final String fingerprint = latest.getUserMetaDataOf(FINGERPRINT_METADATA);
+    final long latestFingerprint = fingerprint != null ? Long.parseUnsignedLong(fingerprint, 16)
+      : fingerprint(readVersion(subject, latest.getVersionId()));
+    return manifest.with(subject, new S3SchemaManifest.Entry(latest.getVersionId(), latest.getETag(),
+      latestFingerprint));
+  }
+
+  @Override
+  public List<String> getAllSubjects() throws IOException {
+    if (manifestStore != null) {
+      final S3SchemaManifest manifest = manifestStore.load();
+      if (manifest != null) {
+        return new ArrayList<>(manifest.getSubjects());
+      }
+    }
+    return listSubjects();
+  }
+
+  /**
+   * Lazily lists all subjects, further pages are requested while the stream is consumed.
+   * Listing errors are thrown as {@link UncheckedIOException}.
+   */
+  public Stream<String> streamSubjects() {
+    final Iterator<String> subjects = new S3SubjectIterator(client, bucketName, getSubjectPrefix(), null, null);
+    return StreamSupport.stream(
+      Spliterators.spliteratorUnknownSize(subjects, Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  /**
+   * Lists all subjects with up to {@code parallelism} concurrent listings, each covering a range of the keyspace.
+   * Subjects are passed to the action as they are listed, without collecting them in memory.
+   *
+   * @param action called concurrently from the listing threads, subjects arrive in no particular order
+   */
+  public void forEachSubject(int parallelism, Consumer<String> action) throws IOException {
+    final List<Iterator<String>> ranges = splitSubjectRanges(parallelism);
+    if (ranges.size() == 1) {
+      try {
+        ranges.get(0).forEachRemaining(action);
+      } catch (UncheckedIOException exception) {
+        throw exception.getCause();
+      }
+      return;
+    }
+    final ExecutorService executor = Executors.newFixedThreadPool(ranges.size());
+    try {
+      final CompletionService<Void> listings = new ExecutorCompletionService<>(executor);
+      for (Iterator<String> range : ranges) {
+        listings.submit(() -> {
+          while (!Thread.currentThread().isInterrupted() && range.hasNext()) {
+            action.accept(range.next());
+          }
+          return null;
+        });
+      }
+      // fail on the first broken listing instead of waiting for the others
+      for (int i = 0; i < ranges.size(); i++) {
+        awaitListing(listings);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private List<String> listSubjects() throws IOException {
+    try {
+      return streamSubjects().collect(Collectors.toList());
+    } catch (UncheckedIOException exception) {
+      throw exception.getCause();
+    }
+  }
+
+  /**
+   * Split the subject keyspace into consecutive ranges, which together cover every key
+   */
+  private List<Iterator<String>> splitSubjectRanges(int parallelism) {
+    final String prefix = getSubjectPrefix();
+    final int count = Math.max(1, Math.min(parallelism, SPLIT_ALPHABET.length()));
+    final List<Iterator<String>> ranges = new ArrayList<>(count);
+    String startAfter = null;
+    for (int i = 1; i < count; i++) {
+      final String end = prefix + SPLIT_ALPHABET.charAt(i * SPLIT_ALPHABET.length() / count);
+      ranges.add(new S3SubjectIterator(client, bucketName, prefix, startAfter, end));
+      startAfter = end;
+    }
+    ranges.add(new S3SubjectIterator(client, bucketName, prefix, startAfter, null));
+    return ranges;
+  }
+
+  private static void awaitListing(CompletionService<Void> listings) throws IOException {
+    try {
+      listings.take().get();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while retrieving subjects");
+    } catch (ExecutionException exception) {
+      final Throwable cause = exception.getCause();
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
   }
 
   @Override
   public List<String> getAllVersions(String subject) throws IOException {
     try {
+      final String s3Key = getS3Key(subject);
       final ListVersionsRequest request = new ListVersionsRequest()
         .withBucketName(bucketName)
-        .withPrefix(getS3Key(subject));
+        .withPrefix(s3Key);
 
-      final List<String> versionResult = Collections.emptyList();
+      final List<String> versionResult = new ArrayList<>();
       VersionListing versionListing;
       do {
         versionListing = client.listVersions(request);
         for (S3VersionSummary objectSummary : versionListing.getVersionSummaries()) {
-          versionResult.add(objectSummary.getVersionId());
+          // the prefix also matches subjects starting with this subject's name
+          if (s3Key.equals(objectSummary.getKey()) && !objectSummary.isDeleteMarker()) {
+            versionResult.add(objectSummary.getVersionId());
+          }
         }
         request.setKeyMarker(versionListing.getNextKeyMarker());
         request.setVersionIdMarker(versionListing.getNextVersionIdMarker());
       } while (versionListing.isTruncated());
 
+      // S3 lists the versions of a key from the newest to the oldest
+      Collections.reverse(versionResult);
       return versionResult;
     } catch (AmazonServiceException exception) {
       String message = "Error retrieving versions for subject " + subject;
@@ -166,7 +574,135 @@ final public class S3SchemaRegistryBackend implements SchemaRegistryBackend {
     }
   }
 
+  /**
+   * Read and close the object, decompressing its body if needed. The body is read straight from the connection into
+   * a buffer sized by its content length.
+   */
+  private static String readSchema(S3Object object) throws IOException {
+    try {
+      return S3SchemaCodec.read(object.getObjectContent(), object.getObjectMetadata().getContentLength());
+    } finally {
+      object.close();
+    }
+  }
+
+  /**
+   * Fingerprint of the schema text, as stored in the object metadata and the manifest
+   */
+  private static long fingerprint(String schema) {
+    return SchemaNormalization.fingerprint64(schema.getBytes(StandardCharsets.UTF_8));
+  }
+
   private String getS3Key(String subject) {
     return String.format("%s/%s", extensionFolderName, subject);
   }
+
+  private String getSubjectPrefix() {
+    return extensionFolderName + "/";
+  }
+
+  private String getInternalKey(String name) {
+    return String.format("%s/%s/%s", extensionFolderName, INTERNAL_FOLDER, name);
+  }
+
+  private static final class ServedObject {
+    private final String eTag;
+    private final SchemaMetadata metadata;
+
+    private ServedObject(String eTag, SchemaMetadata metadata) {
+      this.eTag = eTag;
+      this.metadata = metadata;
+    }
+
+    private boolean isSameObject(ObjectMetadata latest) {
+      if (metadata.getVersion() != null || latest.getVersionId() != null) {
+        return Objects.equals(metadata.getVersion(), latest.getVersionId());
+      }
+      // unversioned bucket, fall back to the content hash
+      return eTag != null && eTag.equals(latest.getETag());
+    }
+  }
+
+  public static final class Builder {
+    private final AmazonS3 client;
+    private final String bucketName;
+    private final String extensionFolderName;
+    private String contentType = DEFAULT_CONTENT_TYPE;
+    private boolean conditionalFetch;
+    private int maximumTrackedSubjects = DEFAULT_MAXIMUM_TRACKED_SUBJECTS;
+    private boolean manifest;
+    private int compressionThreshold = -1;
+    private boolean changeLog;
+
+    private Builder(AmazonS3 client, String bucketName, String extensionFolderName) {
+      this.client = client;
+      this.bucketName = bucketName;
+      this.extensionFolderName = extensionFolderName;
+    }
+
+    public Builder withContentType(String contentType) {
+      this.contentType = contentType;
+      return this;
+    }
+
+    /**
+     * Remember the last served version of each subject and download the latest schema only when its version moved.
+     *
+     * @param maximumTrackedSubjects number of subjects to remember, least recently used are dropped first
+     */
+    public Builder withConditionalFetch(int maximumTrackedSubjects) {
+      this.conditionalFetch = true;
+      this.maximumTrackedSubjects = maximumTrackedSubjects;
+      return this;
+    }
+
+    public Builder withConditionalFetch() {
+      return withConditionalFetch(DEFAULT_MAXIMUM_TRACKED_SUBJECTS);
+    }
+
+    /**
+     * Maintain a manifest object with the latest version of every subject, updated on every registration.
+     * The subject listing is then answered from the manifest with a single request.
+     * <p>
+     * A failed manifest update is logged and doesn't fail the registration, the manifest then lags behind until the
+     * subject is registered again or {@link S3SchemaRegistryBackend#rebuildManifest()} is called.
+     * <p>
+     * Every registration reads the latest version of the subject once more, so the manifest keeps the latest version
+     * even if concurrent registrations update it in the opposite order. The first registration writing the manifest
+     * builds it from a full listing, so subjects registered before the manifest was enabled are included.
+     */
+    public Builder withManifest() {
+      this.manifest = true;
+      return this;
+    }
+
+    /**
+     * Store schemas of at least {@code minimumSize} UTF-8 bytes gzip compressed, with the {@code gzip} content
+     * encoding. Compressed and uncompressed objects are read alike, so the option can be enabled at any time.
+     */
+    public Builder withCompression(int minimumSize) {
+      this.compressionThreshold = minimumSize;
+      return this;
+    }
+
+    public Builder withCompression() {
+      return withCompression(DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    /**
+     * Append every registration to a change log, which clients can follow through
+     * {@link S3SchemaRegistryBackend#getChangeFeed()} instead of polling subjects.
+     * <p>
+     * A failed append is logged and doesn't fail the registration, so the log may miss registrations. Clients
+     * following it should still poll subjects occasionally.
+     */
+    public Builder withChangeLog() {
+      this.changeLog = true;
+      return this;
+    }
+
+    public S3SchemaRegistryBackend build() {
+      return new S3SchemaRegistryBackend(this);
+    }
+  }
 }
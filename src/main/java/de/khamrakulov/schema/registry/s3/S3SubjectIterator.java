@@ -0,0 +1,82 @@
+package de.khamrakulov.schema.registry.s3;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lists the subjects of a key range page by page, the next page is requested only once the current one is consumed.
+ * <p>
+ * The range contains the keys after {@code startAfter} up to and including {@code endInclusive}, a {@code null} bound
+ * leaves the range open on that side.
+ */
+final class S3SubjectIterator implements Iterator<String> {
+  private final AmazonS3 client;
+  private final String prefix;
+  private final String endInclusive;
+  private final ListObjectsV2Request request;
+  private Iterator<String> page;
+  private boolean lastPage;
+  private String next;
+
+  S3SubjectIterator(AmazonS3 client, String bucketName, String prefix, String startAfter, String endInclusive) {
+    this.client = client;
+    this.prefix = prefix;
+    this.endInclusive = endInclusive;
+    this.request = new ListObjectsV2Request()
+      .withBucketName(bucketName)
+      .withPrefix(prefix)
+      .withDelimiter("/")
+      .withStartAfter(startAfter);
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (next == null) {
+      if (page != null && page.hasNext()) {
+        final String key = page.next();
+        // S3 lists keys in UTF-8 binary order, which matches String order against the ASCII range bounds
+        if (endInclusive != null && key.compareTo(endInclusive) > 0) {
+          lastPage = true;
+          page = null;
+          return false;
+        }
+        next = key.substring(prefix.length());
+      } else if (lastPage) {
+        return false;
+      } else {
+        page = fetchPage();
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public String next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final String subject = next;
+    next = null;
+    return subject;
+  }
+
+  private Iterator<String> fetchPage() {
+    final ListObjectsV2Result result;
+    try {
+      result = client.listObjectsV2(request);
+    } catch (AmazonServiceException exception) {
+      throw new UncheckedIOException(new IOException("Error retrieving subjects", exception));
+    }
+    request.setContinuationToken(result.getNextContinuationToken());
+    lastPage = !result.isTruncated();
+    return result.getObjectSummaries().stream().map(S3ObjectSummary::getKey).iterator();
+  }
+}
@@ -0,0 +1,266 @@
+package de.khamrakulov.schema.registry.snapshot;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Snapshot of every subject of a registry with its full version history, read from a bundle written by
+ * {@link SchemaSnapshotWriter}.
+ * <p>
+ * Only the index is read on open, the history of a subject is decoded when it is requested. Version identifiers of
+ * the exported backend are kept.
+ */
+public final class SchemaSnapshot {
+  private final ByteBuffer bundle;
+  private final Map<String, Long> offsets;
+
+  private SchemaSnapshot(ByteBuffer bundle) throws IOException {
+    this.bundle = bundle;
+    try {
+      this.offsets = readIndex(bundle);
+    } catch (BufferUnderflowException | IllegalArgumentException exception) {
+      throw new IOException("Corrupt schema snapshot", exception);
+    }
+  }
+
+  /**
+   * Map the bundle file into memory
+   */
+  public static SchemaSnapshot read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return new SchemaSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+  }
+
+  /**
+   * Read the bundle from the stream, e.g. a resource shipped with the application
+   */
+  public static SchemaSnapshot read(InputStream in) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[8192];
+    int read;
+    while ((read = in.read(buffer)) >= 0) {
+      bytes.write(buffer, 0, read);
+    }
+    return new SchemaSnapshot(ByteBuffer.wrap(bytes.toByteArray()));
+  }
+
+  /**
+   * Write every subject of the backend with its full history into a bundle. Subjects are loaded in parallel and
+   * written as they arrive, so only a bounded number of histories is held in memory.
+   *
+   * @param out stream receiving the bundle, it isn't closed
+   * @return number of exported subjects
+   */
+  public static int export(SchemaRegistryBackend backend, OutputStream out, int parallelism) throws IOException {
+    final List<String> subjects = backend.getAllSubjects();
+    final SchemaSnapshotWriter writer = new SchemaSnapshotWriter(out);
+    final int threads = Math.max(1, parallelism);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final Deque<Future<List<SchemaMetadata>>> pending = new ArrayDeque<>();
+      int next = 0;
+      for (String subject : subjects) {
+        while (next < subjects.size() && pending.size() < 2 * threads) {
+          final String loaded = subjects.get(next++);
+          pending.add(executor.submit(() -> loadHistory(backend, loaded)));
+        }
+        writer.write(subject, await(pending.poll()));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    // the index is written only after all subjects, a failed export leaves no readable bundle
+    writer.finish();
+    return subjects.size();
+  }
+
+  /**
+   * @return subjects in the snapshot, in sorted order
+   */
+  public List<String> getSubjects() {
+    return new ArrayList<>(offsets.keySet());
+  }
+
+  public boolean containsSubject(String subject) {
+    return offsets.containsKey(subject);
+  }
+
+  /**
+   * @return versions of the subject in chronological order
+   */
+  public List<SchemaMetadata> getHistory(String subject) throws IOException {
+    final Long offset = offsets.get(subject);
+    if (offset == null) {
+      throw new IOException(String.format("Subject %s is not in the snapshot", subject));
+    }
+    try {
+      return readBlock(subject, offset);
+    } catch (BufferUnderflowException | IllegalArgumentException exception) {
+      throw new IOException(String.format("Corrupt schema snapshot for subject %s", subject), exception);
+    }
+  }
+
+  /**
+   * Register the history of every subject with the backend, in chronological order. Subjects already in the backend
+   * are continued from their latest version, so an interrupted import can be repeated. Every version already in the
+   * backend is read once, to verify it matches the snapshot.
+   *
+   * @return number of registered versions
+   * @throws IOException if the history of a subject in the backend differs from the snapshot
+   */
+  public int importInto(SchemaRegistryBackend backend) throws IOException {
+    int registered = 0;
+    for (String subject : offsets.keySet()) {
+      final List<String> schemas = collapse(getHistory(subject));
+      SchemaMetadata latest = backend.findLatestSchemaMetadata(subject);
+      final int existing;
+      if (latest == null) {
+        existing = 0;
+      } else {
+        final List<SchemaMetadata> history = new ArrayList<>();
+        for (String version : backend.getAllVersions(subject)) {
+          history.add(backend.getBySubjectAndVersion(subject, version));
+        }
+        final List<String> existingSchemas = collapse(history);
+        existing = existingSchemas.size();
+        if (existing > schemas.size() || !existingSchemas.equals(schemas.subList(0, existing))
+          || !latest.getSchema().equals(existingSchemas.get(existing - 1))) {
+          throw new IOException(String.format("Schema history of subject %s differs from the snapshot", subject));
+        }
+      }
+      for (String schema : schemas.subList(existing, schemas.size())) {
+        latest = backend.registerIfLatest(subject, schema, latest);
+        registered++;
+      }
+    }
+    return registered;
+  }
+
+  /**
+   * Schemas of the history without repetitions of the previous version, backends skip registrations of the latest
+   * schema, so neither can the import
+   */
+  private static List<String> collapse(List<SchemaMetadata> history) {
+    final List<String> schemas = new ArrayList<>(history.size());
+    for (SchemaMetadata md : history) {
+      if (schemas.isEmpty() || !schemas.get(schemas.size() - 1).equals(md.getSchema())) {
+        schemas.add(md.getSchema());
+      }
+    }
+    return schemas;
+  }
+
+  private List<SchemaMetadata> readBlock(String subject, long offset) throws IOException {
+    final ByteBuffer block = bundle.duplicate();
+    block.position(Math.toIntExact(offset));
+    final int length = block.getInt();
+    final int checksum = block.getInt();
+    final byte[] compressed = new byte[length];
+    block.get(compressed);
+    if (SchemaSnapshotWriter.checksum(compressed, 0, length) != checksum) {
+      throw new IOException(String.format("Corrupt schema snapshot for subject %s", subject));
+    }
+    try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+      if (!subject.equals(in.readUTF())) {
+        throw new IOException(String.format("Corrupt schema snapshot for subject %s", subject));
+      }
+      final int versions = in.readInt();
+      final List<SchemaMetadata> history = new ArrayList<>(Math.max(0, Math.min(versions, 1024)));
+      for (int i = 0; i < versions; i++) {
+        final String version = in.readUTF();
+        final byte[] schema = new byte[in.readInt()];
+        in.readFully(schema);
+        history.add(new SchemaMetadata(subject, version, new String(schema, StandardCharsets.UTF_8)));
+      }
+      return Collections.unmodifiableList(history);
+    }
+  }
+
+  private static Map<String, Long> readIndex(ByteBuffer bundle) throws IOException {
+    final int size = bundle.limit();
+    if (size < SchemaSnapshotWriter.HEADER_SIZE + SchemaSnapshotWriter.FOOTER_SIZE
+      || bundle.getInt(0) != SchemaSnapshotWriter.MAGIC
+      || bundle.getInt(size - 4) != SchemaSnapshotWriter.MAGIC) {
+      throw new IOException("Not a schema snapshot");
+    }
+    if (bundle.getInt(4) != SchemaSnapshotWriter.FORMAT_VERSION) {
+      throw new IOException(String.format("Unsupported schema snapshot format %d", bundle.getInt(4)));
+    }
+    final long indexOffset = bundle.getLong(size - SchemaSnapshotWriter.FOOTER_SIZE);
+    final long indexEnd = size - SchemaSnapshotWriter.FOOTER_SIZE;
+    if (indexOffset < SchemaSnapshotWriter.HEADER_SIZE || indexOffset > indexEnd) {
+      throw new IOException("Corrupt schema snapshot");
+    }
+    final byte[] index = new byte[(int) (indexEnd - indexOffset)];
+    final ByteBuffer indexBuffer = bundle.duplicate();
+    indexBuffer.position((int) indexOffset);
+    indexBuffer.get(index);
+    final DataInputStream in = new DataInputStream(new ByteArrayInputStream(index));
+    final int subjects = in.readInt();
+    final Map<String, Long> offsets = new LinkedHashMap<>();
+    for (int i = 0; i < subjects; i++) {
+      final String subject = in.readUTF();
+      final long offset = in.readLong();
+      if (offset < SchemaSnapshotWriter.HEADER_SIZE || offset >= indexOffset) {
+        throw new IOException("Corrupt schema snapshot");
+      }
+      offsets.put(subject, offset);
+    }
+    return offsets;
+  }
+
+  private static List<SchemaMetadata> loadHistory(SchemaRegistryBackend backend, String subject) throws IOException {
+    final List<String> versions = backend.getAllVersions(subject);
+    final List<SchemaMetadata> history = new ArrayList<>(versions.size());
+    for (String version : versions) {
+      final SchemaMetadata md = backend.getBySubjectAndVersion(subject, version);
+      history.add(new SchemaMetadata(subject, version, md.getSchema()));
+    }
+    return history;
+  }
+
+  private static <V> V await(Future<V> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while exporting schemas");
+    } catch (ExecutionException exception) {
+      final Throwable cause = exception.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+}
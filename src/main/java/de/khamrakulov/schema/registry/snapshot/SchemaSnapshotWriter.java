@@ -0,0 +1,111 @@
+package de.khamrakulov.schema.registry.snapshot;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes subjects with their version history into a snapshot bundle, one subject at a time.
+ * <p>
+ * Bundle layout: a header, one deflated and checksummed block per subject, the index of the block offsets by subject
+ * and a footer pointing to the index. Every subject can therefore be read without reading the blocks of the others.
+ */
+public class SchemaSnapshotWriter implements Closeable {
+  static final int MAGIC = 0x53525331; // SRS1
+  static final int FORMAT_VERSION = 1;
+  static final int HEADER_SIZE = 8;
+  static final int BLOCK_HEADER_SIZE = 8;
+  static final int FOOTER_SIZE = 12;
+
+  private final DataOutputStream out;
+  private final Map<String, Long> offsets = new TreeMap<>();
+  private long position;
+  private boolean finished;
+
+  public SchemaSnapshotWriter(OutputStream out) throws IOException {
+    this.out = new DataOutputStream(new BufferedOutputStream(out));
+    this.out.writeInt(MAGIC);
+    this.out.writeInt(FORMAT_VERSION);
+    this.position = HEADER_SIZE;
+  }
+
+  /**
+   * @param history versions of the subject in chronological order
+   */
+  public void write(String subject, List<SchemaMetadata> history) throws IOException {
+    if (finished) {
+      throw new IllegalStateException("Snapshot is finished already");
+    }
+    if (offsets.containsKey(subject)) {
+      throw new IllegalArgumentException(String.format("Subject %s is in the snapshot already", subject));
+    }
+    final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    try (DataOutputStream block = new DataOutputStream(new DeflaterOutputStream(payload, deflater))) {
+      block.writeUTF(subject);
+      block.writeInt(history.size());
+      for (SchemaMetadata md : history) {
+        if (md.getVersion() == null) {
+          throw new IllegalArgumentException(String.format("Schema of subject %s has no version", subject));
+        }
+        final byte[] schema = md.getSchema().getBytes(StandardCharsets.UTF_8);
+        block.writeUTF(md.getVersion());
+        block.writeInt(schema.length);
+        block.write(schema);
+      }
+    } finally {
+      deflater.end();
+    }
+    final byte[] compressed = payload.toByteArray();
+    offsets.put(subject, position);
+    out.writeInt(compressed.length);
+    out.writeInt(checksum(compressed, 0, compressed.length));
+    out.write(compressed);
+    position += BLOCK_HEADER_SIZE + compressed.length;
+  }
+
+  /**
+   * Write the index and flush the bundle, the underlying stream stays open
+   */
+  public void finish() throws IOException {
+    if (finished) {
+      return;
+    }
+    finished = true;
+    out.writeInt(offsets.size());
+    for (Map.Entry<String, Long> offset : offsets.entrySet()) {
+      out.writeUTF(offset.getKey());
+      out.writeLong(offset.getValue());
+    }
+    out.writeLong(position);
+    out.writeInt(MAGIC);
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      finish();
+    } finally {
+      out.close();
+    }
+  }
+
+  static int checksum(byte[] bytes, int offset, int length) {
+    final CRC32 crc = new CRC32();
+    crc.update(bytes, offset, length);
+    return (int) crc.getValue();
+  }
+}
@@ -0,0 +1,105 @@
+package de.khamrakulov.schema.registry.snapshot;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Read-only backend serving the schemas of a snapshot from memory, e.g. from a bundle shipped with the application.
+ * The history of a subject is decoded on its first lookup. Registrations fail with an {@link IOException}.
+ */
+public class SnapshotSchemaRegistryBackend implements SchemaRegistryBackend {
+  private final SchemaSnapshot snapshot;
+  private final ConcurrentMap<String, List<SchemaMetadata>> histories = new ConcurrentHashMap<>();
+
+  public SnapshotSchemaRegistryBackend(SchemaSnapshot snapshot) {
+    this.snapshot = snapshot;
+  }
+
+  @Override
+  public boolean isSubjectRegistered(String subject) {
+    return snapshot.containsSubject(subject);
+  }
+
+  @Override
+  public SchemaMetadata register(String subject, String schema) throws IOException {
+    throw new IOException("Schema snapshot is read-only");
+  }
+
+  @Override
+  public SchemaMetadata registerIfLatest(String subject, String schema, SchemaMetadata expectedLatest) throws IOException {
+    throw new IOException("Schema snapshot is read-only");
+  }
+
+  @Override
+  public SchemaMetadata getBySubjectAndVersion(String subject, String version) throws IOException {
+    if (version == null) {
+      return getLatestSchemaMetadata(subject);
+    }
+    for (SchemaMetadata md : getHistory(subject)) {
+      if (md.getVersion().equals(version)) {
+        return md;
+      }
+    }
+    throw new IOException(String.format("Version %s of subject %s is not registered", version, subject));
+  }
+
+  @Override
+  public SchemaMetadata getLatestSchemaMetadata(String subject) throws IOException {
+    final SchemaMetadata latest = findLatestSchemaMetadata(subject);
+    if (latest == null) {
+      throw new IOException(String.format("Subject %s is not registered", subject));
+    }
+    return latest;
+  }
+
+  @Override
+  public SchemaMetadata findLatestSchemaMetadata(String subject) throws IOException {
+    final List<SchemaMetadata> history = getHistory(subject);
+    return history.isEmpty() ? null : history.get(history.size() - 1);
+  }
+
+  @Override
+  public String getLatestVersion(String subject) throws IOException {
+    return getLatestSchemaMetadata(subject).getVersion();
+  }
+
+  @Override
+  public SchemaMetadata revertToVersion(String subject, String version) throws IOException {
+    throw new IOException("Schema snapshot is read-only");
+  }
+
+  @Override
+  public List<String> getAllSubjects() {
+    return snapshot.getSubjects();
+  }
+
+  @Override
+  public List<String> getAllVersions(String subject) throws IOException {
+    final List<SchemaMetadata> history = getHistory(subject);
+    final List<String> versions = new ArrayList<>(history.size());
+    for (SchemaMetadata md : history) {
+      versions.add(md.getVersion());
+    }
+    return versions;
+  }
+
+  private List<SchemaMetadata> getHistory(String subject) throws IOException {
+    final List<SchemaMetadata> cached = histories.get(subject);
+    if (cached != null) {
+      return cached;
+    }
+    if (!snapshot.containsSubject(subject)) {
+      return Collections.emptyList();
+    }
+    final List<SchemaMetadata> history = snapshot.getHistory(subject);
+    final List<SchemaMetadata> existing = histories.putIfAbsent(subject, history);
+    return existing == null ? history : existing;
+  }
+}
@@ -0,0 +1,128 @@
+package de.khamrakulov.schema.registry;
+
+import de.khamrakulov.schema.registry.avro.AvroSchemaContractVerifier;
+import de.khamrakulov.schema.registry.avro.AvroSchemaParser;
+import org.apache.avro.Schema;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AsyncSchemaRegistryTest {
+  private static final String schemaText =
+    "{\"type\":\"record\",\"name\":\"User\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}";
+  private static final String incompatibleSchemaText =
+    "{\"type\":\"record\",\"name\":\"User\",\"fields\":[{\"name\":\"name\",\"type\":\"string\"}]}";
+
+  private SchemaRegistryBackend backend;
+  private AsyncSchemaRegistry<Schema> registry;
+
+  @Before
+  public void setUp() {
+    // interface defaults delegate to the stubbed methods
+    backend = mock(SchemaRegistryBackend.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
+    AsyncSchemaRegistryBackend asyncBackend = new ExecutorAsyncSchemaRegistryBackend(backend, Runnable::run);
+    registry = new AsyncSchemaRegistry<>(asyncBackend, AvroSchemaContractVerifier.FULL_CHECKER, new AvroSchemaParser());
+  }
+
+  @Test
+  public void shouldGetLatestSchema() throws Exception {
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(new SchemaMetadata("subject", "1", schemaText));
+
+    assertEquals(new Schema.Parser().parse(schemaText), registry.getSchema("subject").get());
+  }
+
+  @Test
+  public void shouldRegisterNewSubject() throws Exception {
+    SchemaMetadata md = new SchemaMetadata("subject", "1", schemaText);
+    when(backend.isSubjectRegistered("subject")).thenReturn(false);
+    when(backend.register(eq("subject"), anyString())).thenReturn(md);
+
+    assertSame(md, registry.register("subject", new Schema.Parser().parse(schemaText)).get());
+  }
+
+  @Test
+  public void shouldFailToRegisterIncompatibleSchema() throws Exception {
+    when(backend.isSubjectRegistered("subject")).thenReturn(true);
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(new SchemaMetadata("subject", "1", schemaText));
+
+    try {
+      registry.register("subject", new Schema.Parser().parse(incompatibleSchemaText)).get();
+      fail();
+    } catch (ExecutionException exception) {
+      assertTrue(exception.getCause() instanceof SchemaCompatibilityException);
+    }
+    verify(backend, never()).register(anyString(), anyString());
+  }
+
+  @Test
+  public void shouldReturnLatestVersionForLatestSchema() throws Exception {
+    SchemaMetadata md = new SchemaMetadata("subject", "1", new Schema.Parser().parse(schemaText).toString());
+    when(backend.isSubjectRegistered("subject")).thenReturn(true);
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md);
+
+    assertSame(md, registry.register("subject", new Schema.Parser().parse(schemaText)).get());
+    verify(backend, never()).register(anyString(), anyString());
+  }
+
+  @Test
+  public void shouldCheckFullHistoryForTransitiveVerifier() throws Exception {
+    String v1 = "{\"type\":\"record\",\"name\":\"User\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+      + "{\"name\":\"name\",\"type\":\"string\"}]}";
+    String v3 = "{\"type\":\"record\",\"name\":\"User\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+      + "{\"name\":\"name\",\"type\":\"int\",\"default\":0}]}";
+    registry = new AsyncSchemaRegistry<>(new ExecutorAsyncSchemaRegistryBackend(backend, Runnable::run),
+      AvroSchemaContractVerifier.BACKWARD_TRANSITIVE_CHECKER, new AvroSchemaParser());
+    when(backend.isSubjectRegistered("subject")).thenReturn(true);
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(new SchemaMetadata("subject", "2", schemaText));
+    when(backend.getAllVersions("subject")).thenReturn(Arrays.asList("1", "2"));
+    when(backend.getBySubjectAndVersion("subject", "1")).thenReturn(new SchemaMetadata("subject", "1", v1));
+    when(backend.getBySubjectAndVersion("subject", "2")).thenReturn(new SchemaMetadata("subject", "2", schemaText));
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        registry.register("subject", new Schema.Parser().parse(v3)).get();
+        fail();
+      } catch (ExecutionException exception) {
+        assertTrue(exception.getCause() instanceof SchemaCompatibilityException);
+      }
+    }
+    verify(backend, never()).register(anyString(), anyString());
+    // versions are fetched once and then served from the parsed history
+    verify(backend, times(1)).getBySubjectAndVersion("subject", "1");
+  }
+
+  @Test
+  public void shouldRetryConflictingRegistration() throws Exception {
+    SchemaMetadata v1 = new SchemaMetadata("subject", "1", schemaText);
+    SchemaMetadata v2 = new SchemaMetadata("subject", "2", schemaText);
+    Schema schema = new Schema.Parser().parse(schemaText.replace("User", "Account"));
+    SchemaMetadata registered = new SchemaMetadata("subject", "3", schema.toString());
+    registry = new AsyncSchemaRegistry<>(new ExecutorAsyncSchemaRegistryBackend(backend, Runnable::run),
+      AvroSchemaContractVerifier.NO_OP_CHECKER, new AvroSchemaParser());
+    when(backend.isSubjectRegistered("subject")).thenReturn(true);
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(v1, v2);
+    when(backend.registerIfLatest("subject", schema.toString(), v1))
+      .thenThrow(new ConcurrentRegistrationException("moved"));
+    when(backend.registerIfLatest("subject", schema.toString(), v2)).thenReturn(registered);
+
+    assertSame(registered, registry.register("subject", schema).get());
+  }
+
+  @Test
+  public void shouldPropagateBackendFailures() throws Exception {
+    when(backend.getLatestSchemaMetadata("subject")).thenThrow(new IOException("S3 is down"));
+
+    try {
+      registry.getSchema("subject").get();
+      fail();
+    } catch (ExecutionException exception) {
+      assertTrue(exception.getCause() instanceof IOException);
+    }
+  }
+}
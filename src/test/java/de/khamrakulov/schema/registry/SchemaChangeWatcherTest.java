@@ -0,0 +1,57 @@
+package de.khamrakulov.schema.registry;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class SchemaChangeWatcherTest {
+  private SchemaChangeFeed feed;
+  private SchemaChangeWatcher watcher;
+
+  @Before
+  public void setUp() {
+    feed = mock(SchemaChangeFeed.class);
+    watcher = new SchemaChangeWatcher(feed, Duration.ofSeconds(1), mock(ScheduledExecutorService.class), 10);
+  }
+
+  @Test
+  public void shouldNotifySubscribersOfNewChanges() throws IOException {
+    when(feed.getChangesSince(10)).thenReturn(Arrays.asList(
+      new SchemaChange(11, "users", "v2"), new SchemaChange(12, "orders", "v7")));
+    List<String> all = new ArrayList<>();
+    List<String> users = new ArrayList<>();
+    watcher.subscribeAll(change -> all.add(change.getSubject()));
+    watcher.subscribe("users", change -> users.add(change.getVersion()));
+
+    watcher.poll();
+
+    assertEquals(Arrays.asList("users", "orders"), all);
+    assertEquals(Collections.singletonList("v2"), users);
+    assertEquals(12, watcher.getLastSequence());
+  }
+
+  @Test
+  public void shouldContinueAfterLastSeenChange() throws IOException {
+    when(feed.getChangesSince(10)).thenReturn(Collections.singletonList(new SchemaChange(11, "users", "v2")));
+    when(feed.getChangesSince(11)).thenReturn(Collections.emptyList());
+    watcher.subscribeAll(change -> {
+      throw new IllegalStateException("broken listener");
+    });
+
+    watcher.poll();
+    watcher.poll();
+
+    verify(feed).getChangesSince(10);
+    verify(feed).getChangesSince(11);
+  }
+}
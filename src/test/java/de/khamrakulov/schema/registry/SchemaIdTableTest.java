@@ -0,0 +1,32 @@
+package de.khamrakulov.schema.registry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SchemaIdTableTest {
+
+  @Test
+  public void shouldStoreAndFindSchemasById() {
+    SchemaIdTable<String> table = new SchemaIdTable<>();
+    for (long id = -500; id < 500; id++) {
+      assertNull(table.putIfAbsent(id * 0x9E3779B97F4A7C15L, "schema " + id));
+    }
+
+    assertEquals(1000, table.size());
+    for (long id = -500; id < 500; id++) {
+      assertEquals("schema " + id, table.get(id * 0x9E3779B97F4A7C15L));
+    }
+    assertNull(table.get(42));
+  }
+
+  @Test
+  public void shouldKeepFirstSchemaForId() {
+    SchemaIdTable<String> table = new SchemaIdTable<>();
+    table.putIfAbsent(1, "first");
+
+    assertEquals("first", table.putIfAbsent(1, "second"));
+    assertEquals("first", table.get(1));
+    assertEquals(1, table.size());
+  }
+}
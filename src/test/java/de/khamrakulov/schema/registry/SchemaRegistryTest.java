@@ -7,6 +7,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.*;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
@@ -30,7 +33,7 @@ public class SchemaRegistryTest {
 
   @Before
   public void setUp() {
-    backend = mock(SchemaRegistryBackend.class);
+    backend = mock(SchemaRegistryBackend.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
     AvroSchemaParser avroSchemaParser = new AvroSchemaParser();
     fullChecker = mock(AvroSchemaContractVerifier.class);
     schemaRegistry = new SchemaRegistry<>(backend, fullChecker, avroSchemaParser);
@@ -83,6 +86,35 @@ public class SchemaRegistryTest {
     verify(fullChecker).isCompatible(any(Schema.class), any(Schema.class));
   }
 
+  @Test
+  public void shouldVerifyAgainAndRetryOnConcurrentRegistration() throws IOException, SchemaCompatibilityException {
+    SchemaMetadata v1 = new SchemaMetadata("test", "1", firstSchemaText);
+    SchemaMetadata v2 = new SchemaMetadata("test", "2", compatibleSchemaText);
+    SchemaMetadata registered = new SchemaMetadata("test", "3", compatibleSchemaText);
+    when(backend.findLatestSchemaMetadata("test")).thenReturn(v1).thenReturn(v2);
+    when(backend.registerIfLatest("test", compatibleSchema.toString(), v1))
+      .thenThrow(new ConcurrentRegistrationException("Schema for subject test was changed concurrently"));
+    when(backend.registerIfLatest("test", compatibleSchema.toString(), v2)).thenReturn(registered);
+    when(fullChecker.isCompatible(any(Schema.class), any(Schema.class))).thenReturn(true);
+
+    assertSame(registered, schemaRegistry.register("test", compatibleSchema));
+
+    verify(fullChecker).isCompatible(compatibleSchema, firstSchema);
+    verify(fullChecker).isCompatible(compatibleSchema, compatibleSchema);
+    verify(backend, never()).register(anyString(), anyString());
+  }
+
+  @Test
+  public void shouldNotRegisterLatestSchemaAgain() throws IOException, SchemaCompatibilityException {
+    SchemaMetadata latest = new SchemaMetadata("test", "1", firstSchema.toString());
+    when(backend.findLatestSchemaMetadata("test")).thenReturn(latest);
+
+    assertSame(latest, schemaRegistry.register("test", firstSchema));
+
+    verify(backend, never()).registerIfLatest(anyString(), anyString(), any());
+    verify(fullChecker, never()).isCompatible(any(Schema.class), any(Schema.class));
+  }
+
   @Test
   public void shouldBeAbleToGetLatestSchema() throws IOException {
     SchemaMetadata returnResult = new SchemaMetadata("1", "1", firstSchemaText);
@@ -93,6 +125,86 @@ public class SchemaRegistryTest {
     verify(backend).getLatestSchemaMetadata(anyString());
   }
 
+  @Test
+  public void shouldGetSchemasOfAllSubjects() throws IOException {
+    when(backend.getAllSubjects()).thenReturn(Arrays.asList("1", "2"));
+    when(backend.getLatestSchemaMetadata("1")).thenReturn(new SchemaMetadata("1", "1", firstSchemaText));
+    when(backend.getLatestSchemaMetadata("2")).thenReturn(new SchemaMetadata("2", "1", compatibleSchemaText));
+
+    Map<String, Schema> schemas = schemaRegistry.preloadAll(4);
+
+    assertEquals(Arrays.asList("1", "2"), Arrays.asList(schemas.keySet().toArray()));
+    assertEquals(firstSchema, schemas.get("1"));
+    assertEquals(compatibleSchema, schemas.get("2"));
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldFailToGetSchemasIfAnySubjectFails() throws IOException {
+    when(backend.getLatestSchemaMetadata("1")).thenReturn(new SchemaMetadata("1", "1", firstSchemaText));
+    when(backend.getLatestSchemaMetadata("2")).thenThrow(new IOException("S3 is down"));
+
+    schemaRegistry.getSchemas(Arrays.asList("1", "2"), 2);
+  }
+
+  @Test
+  public void shouldReportResultOfEverySubjectInBatch() throws IOException {
+    SchemaMetadata registered = new SchemaMetadata("new", "1", firstSchemaText);
+    when(backend.isSubjectRegistered("new")).thenReturn(false);
+    when(backend.register("new", firstSchema.toString())).thenReturn(registered);
+    when(backend.isSubjectRegistered("incompatible")).thenReturn(true);
+    when(backend.getLatestSchemaMetadata("incompatible"))
+      .thenReturn(new SchemaMetadata("incompatible", "1", firstSchemaText));
+    when(fullChecker.isCompatible(any(Schema.class), any(Schema.class))).thenReturn(false);
+    when(backend.isSubjectRegistered("broken")).thenReturn(false);
+    when(backend.register("broken", firstSchema.toString())).thenThrow(new IOException("S3 is down"));
+    when(backend.isSubjectRegistered("readOnly")).thenReturn(false);
+    when(backend.register("readOnly", firstSchema.toString())).thenThrow(new UnsupportedOperationException());
+
+    Map<String, Schema> schemas = new LinkedHashMap<>();
+    schemas.put("new", firstSchema);
+    schemas.put("incompatible", incompatibleSchema);
+    schemas.put("broken", firstSchema);
+    schemas.put("readOnly", firstSchema);
+    RegistrationReport report = schemaRegistry.registerAll(schemas, 3);
+
+    assertFalse(report.isSuccessful());
+    assertSame(registered, report.getRegistered().get("new"));
+    assertEquals(1, report.getRegistered().size());
+    assertTrue(report.getFailures().get("incompatible") instanceof SchemaCompatibilityException);
+    assertTrue(report.getFailures().get("broken") instanceof IOException);
+    assertTrue(report.getFailures().get("readOnly") instanceof UnsupportedOperationException);
+  }
+
+  @Test
+  public void shouldCheckFullHistoryForTransitiveVerifier() throws IOException {
+    Schema v1 = record("{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"name\",\"type\":\"string\"}");
+    Schema v2 = record("{\"name\":\"id\",\"type\":\"long\"}");
+    Schema v3 = record("{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"name\",\"type\":\"int\",\"default\":0}");
+    schemaRegistry = new SchemaRegistry<>(backend, AvroSchemaContractVerifier.BACKWARD_TRANSITIVE_CHECKER,
+      new AvroSchemaParser());
+    when(backend.isSubjectRegistered("test")).thenReturn(true);
+    when(backend.getLatestSchemaMetadata("test")).thenReturn(new SchemaMetadata("test", "2", v2.toString()));
+    when(backend.getAllVersions("test")).thenReturn(Arrays.asList("1", "2"));
+    when(backend.getBySubjectAndVersion("test", "1")).thenReturn(new SchemaMetadata("test", "1", v1.toString()));
+    when(backend.getBySubjectAndVersion("test", "2")).thenReturn(new SchemaMetadata("test", "2", v2.toString()));
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        schemaRegistry.register("test", v3);
+        fail();
+      } catch (SchemaCompatibilityException ignored) {
+      }
+    }
+
+    verify(backend, never()).register(anyString(), anyString());
+    verify(backend, times(1)).getBySubjectAndVersion("test", "1");
+    verify(backend, times(1)).getBySubjectAndVersion("test", "2");
+  }
+
+  private static Schema record(String fields) {
+    return new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"User\",\"fields\":[" + fields + "]}");
+  }
+
   /**
    * Reads given resource file as a string.
    *
@@ -0,0 +1,70 @@
+package de.khamrakulov.schema.registry.avro;
+
+import org.apache.avro.Schema;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AvroSchemaContractVerifierTest {
+  private static final Schema v1 = parse("{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"name\",\"type\":\"string\"}");
+  private static final Schema v2 = parse("{\"name\":\"id\",\"type\":\"long\"}");
+  private static final Schema v3 = parse("{\"name\":\"id\",\"type\":\"long\"},{\"name\":\"name\",\"type\":\"int\",\"default\":0}");
+  private static final List<Schema> history = Arrays.asList(v1, v2);
+
+  @Test
+  public void shouldOnlyCheckLatestSchema() {
+    assertTrue(AvroSchemaContractVerifier.BACKWARD_CHECKER.isCompatible(v3, history));
+    assertFalse(AvroSchemaContractVerifier.BACKWARD_CHECKER.isTransitive());
+  }
+
+  @Test
+  public void shouldCheckAllSchemasTransitively() {
+    assertFalse(AvroSchemaContractVerifier.BACKWARD_TRANSITIVE_CHECKER.isCompatible(v3, history));
+    assertTrue(AvroSchemaContractVerifier.BACKWARD_TRANSITIVE_CHECKER.isCompatible(v2, Arrays.asList(v1, v2)));
+    assertTrue(AvroSchemaContractVerifier.BACKWARD_TRANSITIVE_CHECKER.isTransitive());
+  }
+
+  @Test
+  public void shouldServeRepeatedChecksFromVerdictCache() {
+    AvroSchemaContractVerifier verifier = new AvroSchemaContractVerifier(AvroSchemaContractVerifier.FORWARD_CHECKER);
+    assertFalse(verifier.isCompatible(v1, v3));
+
+    for (int i = 0; i < 3; i++) {
+      assertFalse(verifier.isCompatible(v1, v3));
+    }
+
+    assertEquals(3, verifier.getVerdictCacheStats().getHitCount());
+    assertEquals(1, verifier.getVerdictCacheStats().getMissCount());
+  }
+
+  @Test
+  public void shouldValidateEveryCheckWithoutVerdictCache() {
+    AvroSchemaContractVerifier verifier =
+      new AvroSchemaContractVerifier(AvroSchemaContractVerifier.BACKWARD_CHECKER, 0);
+
+    for (int i = 0; i < 3; i++) {
+      assertTrue(verifier.isCompatible(v2, v1));
+    }
+
+    assertEquals(0, verifier.getVerdictCacheStats().getHitCount());
+    assertEquals(3, verifier.getVerdictCacheStats().getMissCount());
+  }
+
+  @Test
+  public void shouldKeepVerdictsPerStrategy() {
+    assertTrue(AvroSchemaContractVerifier.BACKWARD_CHECKER.isCompatible(v2, v1));
+    assertFalse(AvroSchemaContractVerifier.FORWARD_CHECKER.isCompatible(v2, v1));
+  }
+
+  @Test
+  public void shouldAcceptEmptyHistory() {
+    assertTrue(AvroSchemaContractVerifier.FULL_TRANSITIVE_CHECKER.isCompatible(v1, Arrays.asList()));
+  }
+
+  private static Schema parse(String fields) {
+    return new Schema.Parser().parse("{\"type\":\"record\",\"name\":\"User\",\"fields\":[" + fields + "]}");
+  }
+}
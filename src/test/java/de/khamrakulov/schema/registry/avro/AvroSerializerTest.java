@@ -0,0 +1,118 @@
+package de.khamrakulov.schema.registry.avro;
+
+import de.khamrakulov.schema.registry.SchemaRegistry;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.message.BinaryMessageDecoder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AvroSerializerTest {
+  private static final Schema v1 = new Schema.Parser().parse(
+    "{\"type\":\"record\",\"name\":\"User\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}");
+  private static final Schema v2 = new Schema.Parser().parse(
+    "{\"type\":\"record\",\"name\":\"User\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"},"
+      + "{\"name\":\"name\",\"type\":\"string\",\"default\":\"unknown\"}]}");
+
+  private SchemaRegistry<Schema> registry;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUp() throws IOException {
+    registry = mock(SchemaRegistry.class);
+    when(registry.getSchema("users")).thenReturn(v1);
+    when(registry.getSchemaHistory("users")).thenReturn(Arrays.asList(v1, v2));
+  }
+
+  @Test
+  public void shouldRoundTripRecords() throws IOException {
+    AvroSerializer<GenericRecord> serializer = new AvroSerializer<>(registry, "users");
+    AvroDeserializer<GenericRecord> deserializer = new AvroDeserializer<>(registry, Collections.singleton("users"));
+
+    GenericRecord record = new GenericData.Record(v1);
+    record.put("id", 42L);
+    GenericRecord result = deserializer.deserialize(serializer.serialize(record));
+
+    assertEquals(42L, result.get("id"));
+    assertEquals(AvroSchemaFingerprinter.INSTANCE.fingerprint(v1), serializer.getSchemaId());
+  }
+
+  @Test
+  public void shouldResolveSchemaFromRegistryOnlyOnce() throws IOException {
+    AvroSerializer<GenericRecord> serializer = new AvroSerializer<>(v1);
+    AvroDeserializer<GenericRecord> deserializer =
+      new AvroDeserializer<>(registry, Collections.singleton("users"), v2);
+    GenericRecord record = new GenericData.Record(v1);
+    record.put("id", 1L);
+
+    for (int i = 0; i < 3; i++) {
+      GenericRecord result = deserializer.deserialize(serializer.serialize(record));
+      assertEquals("unknown", result.get("name").toString());
+    }
+    verify(registry, times(1)).getSchemaHistory("users");
+  }
+
+  @Test
+  public void shouldWriteAvroSingleObjectEncoding() throws IOException {
+    GenericRecord record = new GenericData.Record(v1);
+    record.put("id", 7L);
+
+    GenericRecord decoded = new BinaryMessageDecoder<GenericRecord>(GenericData.get(), v1)
+      .decode(new AvroSerializer<GenericRecord>(v1).serialize(record));
+
+    assertEquals(7L, decoded.get("id"));
+  }
+
+  @Test
+  public void shouldRefreshHistoriesAtMostOncePerInterval() throws IOException {
+    Schema other = new Schema.Parser().parse(
+      "{\"type\":\"record\",\"name\":\"Other\",\"fields\":[{\"name\":\"id\",\"type\":\"int\"}]}");
+    GenericRecord record = new GenericData.Record(other);
+    record.put("id", 1);
+    byte[] data = new AvroSerializer<GenericRecord>(other).serialize(record);
+    AtomicLong now = new AtomicLong();
+    AvroDeserializer<GenericRecord> deserializer = new AvroDeserializer<>(registry, Collections.singleton("users"),
+      null, Duration.ofSeconds(1), now::get);
+
+    for (int i = 0; i < 3; i++) {
+      assertUnknown(deserializer, data);
+    }
+    verify(registry, times(1)).getSchemaHistory("users");
+
+    now.addAndGet(Duration.ofSeconds(1).toNanos());
+    when(registry.getSchemaHistory("users")).thenReturn(Arrays.asList(v1, v2, other));
+
+    assertEquals(1, deserializer.deserialize(data).get("id"));
+    verify(registry, times(2)).getSchemaHistory("users");
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldFailForUnknownSchemaId() throws IOException {
+    Schema other = new Schema.Parser().parse(
+      "{\"type\":\"record\",\"name\":\"Other\",\"fields\":[{\"name\":\"id\",\"type\":\"int\"}]}");
+    GenericRecord record = new GenericData.Record(other);
+    record.put("id", 1);
+
+    new AvroDeserializer<GenericRecord>(registry, Collections.singleton("users"))
+      .deserialize(new AvroSerializer<GenericRecord>(other).serialize(record));
+  }
+
+  private static void assertUnknown(AvroDeserializer<GenericRecord> deserializer, byte[] data) {
+    try {
+      deserializer.deserialize(data);
+      fail("Expected an unknown schema id");
+    } catch (IOException exception) {
+      assertTrue(exception.getMessage().startsWith("Unknown schema id"));
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package de.khamrakulov.schema.registry.avro;
+
+import org.apache.avro.Schema;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SchemaIdentityFingerprintsTest {
+  private static final String SCHEMA =
+    "{\"type\":\"record\",\"name\":\"User\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}";
+
+  @Test
+  public void shouldFingerprintEverySchemaInstanceOnce() {
+    AtomicInteger computed = new AtomicInteger();
+    SchemaIdentityFingerprints fingerprints = new SchemaIdentityFingerprints(schema -> computed.incrementAndGet());
+    Schema first = new Schema.Parser().parse(SCHEMA);
+    Schema second = new Schema.Parser().parse(SCHEMA);
+
+    assertEquals(1, fingerprints.fingerprint(first));
+    assertEquals(1, fingerprints.fingerprint(first));
+    assertEquals(2, fingerprints.fingerprint(second));
+
+    assertEquals(2, computed.get());
+    assertEquals(2, fingerprints.size());
+  }
+
+  @Test
+  public void shouldDropCollectedSchemas() throws InterruptedException {
+    SchemaIdentityFingerprints fingerprints = new SchemaIdentityFingerprints(schema -> 1L);
+    for (int i = 0; i < 100; i++) {
+      fingerprints.fingerprint(new Schema.Parser().parse(SCHEMA));
+    }
+
+    for (int attempt = 0; attempt < 50 && fingerprints.size() > 0; attempt++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertEquals(0, fingerprints.size());
+  }
+}
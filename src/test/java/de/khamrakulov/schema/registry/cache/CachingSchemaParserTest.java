@@ -0,0 +1,53 @@
+package de.khamrakulov.schema.registry.cache;
+
+import de.khamrakulov.schema.registry.SchemaParser;
+import de.khamrakulov.schema.registry.avro.AvroSchemaParser;
+import org.apache.avro.Schema;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class CachingSchemaParserTest {
+  private static final String schemaText =
+    "{\"type\":\"record\",\"name\":\"User\",\"fields\":[{\"name\":\"id\",\"type\":\"long\"}]}";
+  private static final String reformattedSchemaText =
+    "{ \"type\": \"record\", \"name\": \"User\",\n \"fields\": [{\"name\": \"id\", \"type\": \"long\"}] }";
+
+  private SchemaParser<Schema> parser;
+  private CachingSchemaParser<Schema> cachingParser;
+
+  @Before
+  public void setUp() {
+    parser = spy(new AvroSchemaParser());
+    cachingParser = new CachingSchemaParser<>(parser, 10);
+  }
+
+  @Test
+  public void shouldParseSameTextOnlyOnce() {
+    Schema first = cachingParser.parse(schemaText);
+    Schema second = cachingParser.parse(schemaText);
+
+    assertSame(first, second);
+    verify(parser, times(1)).parse(schemaText);
+    assertEquals(1, cachingParser.stats().getHitCount());
+  }
+
+  @Test
+  public void shouldShareInstanceForSameDefinition() {
+    Schema first = cachingParser.parse(schemaText);
+    Schema second = cachingParser.parse(reformattedSchemaText);
+
+    assertSame(first, second);
+    assertSame(first, cachingParser.intern(new Schema.Parser().parse(schemaText)));
+  }
+
+  @Test
+  public void shouldNotShareInstanceForDifferentDefaults() {
+    Schema withDefault = cachingParser.parse(
+      "{\"type\":\"record\",\"name\":\"User\",\"fields\":[{\"name\":\"id\",\"type\":\"long\",\"default\":0}]}");
+
+    assertNotSame(cachingParser.parse(schemaText), withDefault);
+  }
+}
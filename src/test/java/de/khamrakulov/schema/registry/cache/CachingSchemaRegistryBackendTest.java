@@ -0,0 +1,152 @@
+package de.khamrakulov.schema.registry.cache;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class CachingSchemaRegistryBackendTest {
+  private static final Duration TTL = Duration.ofSeconds(30);
+
+  private final AtomicLong time = new AtomicLong();
+  private SchemaRegistryBackend backend;
+  private CachingSchemaRegistryBackend cachingBackend;
+
+  @Before
+  public void setUp() {
+    backend = mock(SchemaRegistryBackend.class);
+    cachingBackend = new CachingSchemaRegistryBackend(backend, TTL, 1024, 100, time::get);
+  }
+
+  @Test
+  public void shouldServeLatestSchemaFromCache() throws IOException {
+    SchemaMetadata md = new SchemaMetadata("subject", "1", "schema");
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md);
+
+    assertSame(md, cachingBackend.getLatestSchemaMetadata("subject"));
+    assertSame(md, cachingBackend.getLatestSchemaMetadata("subject"));
+    assertEquals("1", cachingBackend.getLatestVersion("subject"));
+    assertTrue(cachingBackend.isSubjectRegistered("subject"));
+
+    verify(backend, times(1)).getLatestSchemaMetadata("subject");
+    verify(backend, never()).getLatestVersion(anyString());
+    verify(backend, never()).isSubjectRegistered(anyString());
+    assertEquals(3, cachingBackend.stats().getHitCount());
+    assertEquals(1, cachingBackend.stats().getMissCount());
+  }
+
+  @Test
+  public void shouldRevalidateLatestSchemaAfterTtl() throws IOException {
+    SchemaMetadata md1 = new SchemaMetadata("subject", "1", "schema");
+    SchemaMetadata md2 = new SchemaMetadata("subject", "2", "schema edit");
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md1, md2);
+
+    assertSame(md1, cachingBackend.getLatestSchemaMetadata("subject"));
+    time.addAndGet(TimeUnit.SECONDS.toNanos(31));
+    assertSame(md2, cachingBackend.getLatestSchemaMetadata("subject"));
+
+    verify(backend, times(2)).getLatestSchemaMetadata("subject");
+  }
+
+  @Test
+  public void shouldKeepImmutableVersionsAfterTtl() throws IOException {
+    SchemaMetadata md = new SchemaMetadata("subject", "1", "schema");
+    when(backend.getBySubjectAndVersion("subject", "1")).thenReturn(md);
+
+    cachingBackend.getBySubjectAndVersion("subject", "1");
+    time.addAndGet(TimeUnit.SECONDS.toNanos(31));
+    assertSame(md, cachingBackend.getBySubjectAndVersion("subject", "1"));
+
+    verify(backend, times(1)).getBySubjectAndVersion("subject", "1");
+  }
+
+  @Test
+  public void shouldUpdateLatestPointerOnRegister() throws IOException {
+    SchemaMetadata md1 = new SchemaMetadata("subject", "1", "schema");
+    SchemaMetadata md2 = new SchemaMetadata("subject", "2", "schema edit");
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md1);
+    when(backend.register("subject", "schema edit")).thenReturn(md2);
+
+    cachingBackend.getLatestSchemaMetadata("subject");
+    cachingBackend.register("subject", "schema edit");
+
+    assertSame(md2, cachingBackend.getLatestSchemaMetadata("subject"));
+    verify(backend, times(1)).getLatestSchemaMetadata("subject");
+  }
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedVersionsByWeight() throws IOException {
+    String schema = new String(new char[400]);
+    for (int i = 0; i < 3; i++) {
+      String version = Integer.toString(i);
+      when(backend.getBySubjectAndVersion("s", version)).thenReturn(new SchemaMetadata("s", version, schema));
+      cachingBackend.getBySubjectAndVersion("s", version);
+    }
+
+    assertEquals(1, cachingBackend.stats().getEvictionCount());
+
+    cachingBackend.getBySubjectAndVersion("s", "0");
+    verify(backend, times(2)).getBySubjectAndVersion("s", "0");
+  }
+
+  @Test
+  public void shouldNotCacheUnversionedSchemas() throws IOException {
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(new SchemaMetadata("subject", null, "schema"));
+
+    cachingBackend.getLatestSchemaMetadata("subject");
+    cachingBackend.getLatestSchemaMetadata("subject");
+
+    verify(backend, times(2)).getLatestSchemaMetadata("subject");
+  }
+
+  @Test
+  public void shouldKeepRegisteredVersionWhenSlowReadReturnsOlderVersion() throws IOException {
+    SchemaMetadata md1 = new SchemaMetadata("subject", "1", "schema");
+    SchemaMetadata md2 = new SchemaMetadata("subject", "2", "schema edit");
+    when(backend.register("subject", "schema edit")).thenReturn(md2);
+    when(backend.getLatestSchemaMetadata("subject")).thenAnswer(invocation -> {
+      // registration completes while the read is in flight
+      cachingBackend.register("subject", "schema edit");
+      return md1;
+    });
+
+    assertSame(md1, cachingBackend.getLatestSchemaMetadata("subject"));
+
+    assertSame(md2, cachingBackend.getLatestSchemaMetadata("subject"));
+    verify(backend, times(1)).getLatestSchemaMetadata("subject");
+  }
+
+  @Test
+  public void shouldNotCacheReadStartedBeforeInvalidation() throws IOException {
+    SchemaMetadata md1 = new SchemaMetadata("subject", "1", "schema");
+    SchemaMetadata md2 = new SchemaMetadata("subject", "2", "schema edit");
+    when(backend.getLatestSchemaMetadata("subject")).thenAnswer(invocation -> {
+      cachingBackend.invalidate("subject");
+      return md1;
+    }).thenReturn(md2);
+
+    cachingBackend.getLatestSchemaMetadata("subject");
+
+    assertSame(md2, cachingBackend.getLatestSchemaMetadata("subject"));
+    assertSame(md2, cachingBackend.getLatestSchemaMetadata("subject"));
+    verify(backend, times(2)).getLatestSchemaMetadata("subject");
+  }
+
+  @Test
+  public void shouldBoundLatestPointersBySubjects() throws IOException {
+    for (int i = 0; i < 150; i++) {
+      when(backend.getLatestVersion("subject-" + i)).thenReturn("1");
+      cachingBackend.getLatestVersion("subject-" + i);
+    }
+
+    assertEquals(50, cachingBackend.stats().getEvictionCount());
+  }
+}
@@ -0,0 +1,111 @@
+package de.khamrakulov.schema.registry.cache;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class CoalescingSchemaRegistryBackendTest {
+  private static final int CALLERS = 8;
+
+  private SchemaRegistryBackend backend;
+  private CoalescingSchemaRegistryBackend coalescingBackend;
+  private ExecutorService executor;
+  private CountDownLatch loadStarted;
+  private CountDownLatch releaseLoad;
+
+  @Before
+  public void setUp() {
+    backend = mock(SchemaRegistryBackend.class);
+    coalescingBackend = new CoalescingSchemaRegistryBackend(backend);
+    executor = Executors.newFixedThreadPool(CALLERS);
+    loadStarted = new CountDownLatch(1);
+    releaseLoad = new CountDownLatch(1);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void shouldShareSingleLoadBetweenConcurrentCallers() throws Exception {
+    SchemaMetadata md = new SchemaMetadata("subject", "1", "schema");
+    when(backend.getLatestSchemaMetadata("subject")).thenAnswer(invocation -> {
+      loadStarted.countDown();
+      releaseLoad.await();
+      return md;
+    });
+
+    List<Future<SchemaMetadata>> results = startCallers();
+
+    for (Future<SchemaMetadata> result : results) {
+      assertSame(md, result.get());
+    }
+    verify(backend, times(1)).getLatestSchemaMetadata("subject");
+  }
+
+  @Test
+  public void shouldShareFailureBetweenConcurrentCallers() throws Exception {
+    IOException failure = new IOException("S3 is down");
+    when(backend.getLatestSchemaMetadata("subject")).thenAnswer(invocation -> {
+      loadStarted.countDown();
+      releaseLoad.await();
+      throw failure;
+    });
+
+    List<Future<SchemaMetadata>> results = startCallers();
+
+    for (Future<SchemaMetadata> result : results) {
+      try {
+        result.get();
+        fail();
+      } catch (ExecutionException exception) {
+        // waiters get the failure of the load itself, not a wrapper
+        assertSame(failure, exception.getCause());
+      }
+    }
+    verify(backend, times(1)).getLatestSchemaMetadata("subject");
+  }
+
+  @Test
+  public void shouldLoadAgainAfterCompletion() throws IOException {
+    when(backend.getBySubjectAndVersion("subject", "1")).thenReturn(new SchemaMetadata("subject", "1", "schema"));
+
+    coalescingBackend.getBySubjectAndVersion("subject", "1");
+    coalescingBackend.getBySubjectAndVersion("subject", "1");
+
+    verify(backend, times(2)).getBySubjectAndVersion("subject", "1");
+  }
+
+  private List<Future<SchemaMetadata>> startCallers() throws InterruptedException {
+    List<Future<SchemaMetadata>> results = new ArrayList<>();
+    results.add(executor.submit(() -> coalescingBackend.getLatestSchemaMetadata("subject")));
+    loadStarted.await();
+    CountDownLatch waiting = new CountDownLatch(CALLERS - 1);
+    for (int i = 1; i < CALLERS; i++) {
+      results.add(executor.submit(() -> {
+        waiting.countDown();
+        return coalescingBackend.getLatestSchemaMetadata("subject");
+      }));
+    }
+    waiting.await();
+    // give the followers time to join the load in flight
+    Thread.sleep(100);
+    releaseLoad.countDown();
+    return results;
+  }
+}
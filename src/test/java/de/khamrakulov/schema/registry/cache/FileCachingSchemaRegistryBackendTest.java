@@ -0,0 +1,170 @@
+package de.khamrakulov.schema.registry.cache;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class FileCachingSchemaRegistryBackendTest {
+  private static final SchemaMetadata md1 = new SchemaMetadata("subject", "1", "schema");
+  private static final SchemaMetadata md2 = new SchemaMetadata("subject", "2", "schema edit");
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path file;
+  private SchemaRegistryBackend backend;
+
+  @Before
+  public void setUp() throws IOException {
+    file = folder.getRoot().toPath().resolve("schemas.cache");
+    backend = mock(SchemaRegistryBackend.class);
+  }
+
+  @Test
+  public void shouldServeSchemasFromFileAfterRestart() throws IOException {
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md1);
+    when(backend.getBySubjectAndVersion("subject", "2")).thenReturn(md2);
+    try (FileCachingSchemaRegistryBackend fileBackend = new FileCachingSchemaRegistryBackend(backend, file)) {
+      fileBackend.getLatestSchemaMetadata("subject");
+      fileBackend.getBySubjectAndVersion("subject", "2");
+    }
+
+    SchemaRegistryBackend unavailable = mock(SchemaRegistryBackend.class);
+    when(unavailable.getLatestSchemaMetadata(anyString())).thenThrow(new IOException("S3 is down"));
+    try (FileCachingSchemaRegistryBackend fileBackend =
+           new FileCachingSchemaRegistryBackend(unavailable, file, runnable -> { })) {
+      SchemaMetadata latest = fileBackend.getLatestSchemaMetadata("subject");
+      SchemaMetadata version = fileBackend.getBySubjectAndVersion("subject", "2");
+
+      assertEquals("1", latest.getVersion());
+      assertEquals("schema", latest.getSchema());
+      assertEquals("schema edit", version.getSchema());
+      assertTrue(fileBackend.isSubjectRegistered("subject"));
+      verify(unavailable, never()).getBySubjectAndVersion(anyString(), anyString());
+    }
+  }
+
+  @Test
+  public void shouldRevalidateLatestVersionReadFromFile() throws IOException {
+    when(backend.register("subject", "schema")).thenReturn(md1);
+    try (FileCachingSchemaRegistryBackend fileBackend = new FileCachingSchemaRegistryBackend(backend, file)) {
+      fileBackend.register("subject", "schema");
+    }
+
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md2);
+    try (FileCachingSchemaRegistryBackend fileBackend =
+           new FileCachingSchemaRegistryBackend(backend, file, Runnable::run)) {
+      assertEquals("1", fileBackend.getLatestSchemaMetadata("subject").getVersion());
+      assertEquals("2", fileBackend.getLatestSchemaMetadata("subject").getVersion());
+    }
+    verify(backend, times(2)).getLatestSchemaMetadata("subject");
+  }
+
+  @Test
+  public void shouldFallBackToFileWhenBackendFails() throws IOException {
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md1).thenThrow(new IOException("S3 is down"));
+    try (FileCachingSchemaRegistryBackend fileBackend = new FileCachingSchemaRegistryBackend(backend, file)) {
+      fileBackend.getLatestSchemaMetadata("subject");
+
+      assertEquals("1", fileBackend.getLatestSchemaMetadata("subject").getVersion());
+    }
+  }
+
+  @Test
+  public void shouldDropTornRecordOnOpen() throws IOException {
+    when(backend.getBySubjectAndVersion("subject", "1")).thenReturn(md1);
+    when(backend.getBySubjectAndVersion("subject", "2")).thenReturn(md2);
+    try (FileCachingSchemaRegistryBackend fileBackend = new FileCachingSchemaRegistryBackend(backend, file)) {
+      fileBackend.getBySubjectAndVersion("subject", "1");
+      fileBackend.getBySubjectAndVersion("subject", "2");
+    }
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.setLength(raf.length() - 3);
+    }
+
+    try (FileCachingSchemaRegistryBackend fileBackend = new FileCachingSchemaRegistryBackend(backend, file)) {
+      assertEquals("schema", fileBackend.getBySubjectAndVersion("subject", "1").getSchema());
+      assertEquals("schema edit", fileBackend.getBySubjectAndVersion("subject", "2").getSchema());
+    }
+    verify(backend, times(1)).getBySubjectAndVersion("subject", "1");
+    verify(backend, times(2)).getBySubjectAndVersion("subject", "2");
+  }
+
+  @Test
+  public void shouldQueueSingleRevalidationPerSubject() throws IOException {
+    when(backend.register("subject", "schema")).thenReturn(md1);
+    try (FileCachingSchemaRegistryBackend fileBackend = new FileCachingSchemaRegistryBackend(backend, file)) {
+      fileBackend.register("subject", "schema");
+    }
+
+    List<Runnable> queued = new ArrayList<>();
+    try (FileCachingSchemaRegistryBackend fileBackend =
+           new FileCachingSchemaRegistryBackend(backend, file, queued::add)) {
+      for (int i = 0; i < 3; i++) {
+        assertEquals("1", fileBackend.getLatestSchemaMetadata("subject").getVersion());
+      }
+    }
+    assertEquals(1, queued.size());
+  }
+
+  @Test
+  public void shouldKeepRegisteredVersionWhenSlowReadReturnsOlderVersion() throws IOException {
+    try (FileCachingSchemaRegistryBackend fileBackend = new FileCachingSchemaRegistryBackend(backend, file)) {
+      when(backend.register("subject", "schema edit")).thenReturn(md2);
+      when(backend.getLatestSchemaMetadata("subject")).thenAnswer(invocation -> {
+        // registration completes while the read is in flight
+        fileBackend.register("subject", "schema edit");
+        return md1;
+      });
+
+      fileBackend.getLatestSchemaMetadata("subject");
+    }
+
+    SchemaRegistryBackend unavailable = mock(SchemaRegistryBackend.class);
+    when(unavailable.getLatestSchemaMetadata(anyString())).thenThrow(new IOException("S3 is down"));
+    try (FileCachingSchemaRegistryBackend fileBackend =
+           new FileCachingSchemaRegistryBackend(unavailable, file, runnable -> { })) {
+      assertEquals("2", fileBackend.getLatestSchemaMetadata("subject").getVersion());
+    }
+  }
+
+  @Test
+  public void shouldCompactSupersededRecordsOnOpen() throws IOException {
+    int registrations = FileCachingSchemaRegistryBackend.MINIMUM_OBSOLETE_RECORDS + 10;
+    try (FileCachingSchemaRegistryBackend fileBackend = new FileCachingSchemaRegistryBackend(backend, file)) {
+      // the latest version flips between two versions, every flip supersedes a record
+      when(backend.register("subject", "schema")).thenReturn(md1);
+      when(backend.register("subject", "schema edit")).thenReturn(md2);
+      for (int i = 0; i < registrations; i++) {
+        fileBackend.register("subject", i % 2 == 0 ? "schema" : "schema edit");
+      }
+    }
+    long size = Files.size(file);
+
+    try (FileCachingSchemaRegistryBackend fileBackend =
+           new FileCachingSchemaRegistryBackend(backend, file, runnable -> { })) {
+      assertTrue(Files.size(file) < size);
+      assertEquals("schema", fileBackend.getBySubjectAndVersion("subject", "1").getSchema());
+    }
+    SchemaRegistryBackend unavailable = mock(SchemaRegistryBackend.class);
+    when(unavailable.getLatestSchemaMetadata(anyString())).thenThrow(new IOException("S3 is down"));
+    try (FileCachingSchemaRegistryBackend fileBackend =
+           new FileCachingSchemaRegistryBackend(unavailable, file, runnable -> { })) {
+      assertEquals(registrations % 2 == 0 ? "2" : "1", fileBackend.getLatestSchemaMetadata("subject").getVersion());
+      verify(unavailable, never()).getBySubjectAndVersion(anyString(), anyString());
+    }
+  }
+}
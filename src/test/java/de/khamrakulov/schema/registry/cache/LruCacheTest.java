@@ -0,0 +1,37 @@
+package de.khamrakulov.schema.registry.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LruCacheTest {
+
+  @Test
+  public void shouldEvictLeastRecentlyUsedEntry() {
+    final LruCache<String, String> cache = new LruCache<>(2);
+    cache.put("a", "1");
+    cache.put("b", "2");
+
+    cache.get("a");
+    cache.put("c", "3");
+
+    assertEquals("1", cache.peek("a"));
+    assertNull(cache.peek("b"));
+    assertEquals("3", cache.peek("c"));
+  }
+
+  @Test
+  public void shouldNotTouchAccessOrderOrCountersOnPeek() {
+    final LruCache<String, String> cache = new LruCache<>(2);
+    cache.put("a", "1");
+    cache.put("b", "2");
+
+    assertEquals("1", cache.peek("a"));
+    cache.put("c", "3");
+
+    assertNull(cache.peek("a"));
+    assertEquals("2", cache.peek("b"));
+    assertEquals(0, cache.stats().getHitCount());
+    assertEquals(0, cache.stats().getMissCount());
+  }
+}
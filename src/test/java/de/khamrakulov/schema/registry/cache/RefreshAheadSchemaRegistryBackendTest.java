@@ -0,0 +1,114 @@
+package de.khamrakulov.schema.registry.cache;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class RefreshAheadSchemaRegistryBackendTest {
+  private static final SchemaMetadata md1 = new SchemaMetadata("subject", "1", "schema");
+  private static final SchemaMetadata md2 = new SchemaMetadata("subject", "2", "schema edit");
+
+  private final AtomicLong time = new AtomicLong();
+  private SchemaRegistryBackend backend;
+  private ScheduledExecutorService scheduler;
+  private RefreshAheadSchemaRegistryBackend refreshingBackend;
+
+  @Before
+  public void setUp() {
+    backend = mock(SchemaRegistryBackend.class);
+    scheduler = mock(ScheduledExecutorService.class);
+    doAnswer(invocation -> {
+      ((Runnable) invocation.getArgument(0)).run();
+      return null;
+    }).when(scheduler).execute(any(Runnable.class));
+    refreshingBackend = new RefreshAheadSchemaRegistryBackend(backend, Duration.ofSeconds(60),
+      Duration.ofSeconds(600), 2, scheduler, false, time::get);
+  }
+
+  @Test
+  public void shouldServeFromMemoryBeforeRefresh() throws IOException {
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md1);
+
+    refreshingBackend.getLatestSchemaMetadata("subject");
+    time.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+    assertSame(md1, refreshingBackend.getLatestSchemaMetadata("subject"));
+    verify(backend, times(1)).getLatestSchemaMetadata("subject");
+    verify(scheduler, never()).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void shouldRefreshInBackgroundWhenStale() throws IOException {
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md1, md2);
+
+    refreshingBackend.getLatestSchemaMetadata("subject");
+    time.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+    refreshingBackend.getLatestSchemaMetadata("subject");
+    verify(scheduler).execute(any(Runnable.class));
+    assertSame(md2, refreshingBackend.getLatestSchemaMetadata("subject"));
+  }
+
+  @Test
+  public void shouldServePreviousVersionWhenRefreshFails() throws IOException {
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md1).thenThrow(new IOException("S3 is down"));
+
+    refreshingBackend.getLatestSchemaMetadata("subject");
+    time.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+    assertSame(md1, refreshingBackend.getLatestSchemaMetadata("subject"));
+    assertSame(md1, refreshingBackend.getLatestSchemaMetadata("subject"));
+  }
+
+  @Test
+  public void shouldRefreshHotSubjectsAheadOfTime() throws IOException {
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md1, md2);
+    refreshingBackend.getLatestSchemaMetadata("subject");
+    refreshingBackend.getLatestSchemaMetadata("subject");
+    refreshingBackend.getLatestSchemaMetadata("subject");
+
+    time.addAndGet(TimeUnit.SECONDS.toNanos(50));
+    refreshingBackend.sweep();
+
+    assertSame(md2, refreshingBackend.getLatestSchemaMetadata("subject"));
+    verify(backend, times(2)).getLatestSchemaMetadata("subject");
+  }
+
+  @Test
+  public void shouldLoadSynchronouslyAfterExpiry() throws IOException {
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md1, md2);
+
+    refreshingBackend.getLatestSchemaMetadata("subject");
+    time.addAndGet(TimeUnit.SECONDS.toNanos(601));
+
+    assertSame(md2, refreshingBackend.getLatestSchemaMetadata("subject"));
+    verify(scheduler, never()).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void shouldKeepRegisteredVersionWhenRefreshReturnsOlderVersion() throws IOException {
+    final SchemaMetadata md3 = new SchemaMetadata("subject", "3", "schema edit again");
+    when(backend.register("subject", "schema edit again")).thenReturn(md3);
+    when(backend.getLatestSchemaMetadata("subject")).thenReturn(md1).thenAnswer(invocation -> {
+      // registration completes while the refresh reads the previous latest version
+      refreshingBackend.register("subject", "schema edit again");
+      return md2;
+    });
+
+    refreshingBackend.getLatestSchemaMetadata("subject");
+    time.addAndGet(TimeUnit.SECONDS.toNanos(61));
+    refreshingBackend.getLatestSchemaMetadata("subject");
+
+    assertSame(md3, refreshingBackend.getLatestSchemaMetadata("subject"));
+  }
+}
@@ -0,0 +1,108 @@
+package de.khamrakulov.schema.registry.fs;
+
+import de.khamrakulov.schema.registry.ConcurrentRegistrationException;
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class FileSystemSchemaRegistryBackendTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path root;
+  private FileSystemSchemaRegistryBackend backend;
+
+  @Before
+  public void setUp() throws IOException {
+    root = folder.getRoot().toPath().resolve("registry");
+    backend = new FileSystemSchemaRegistryBackend(root);
+  }
+
+  @Test
+  public void shouldKeepVersionHistoryOnDisk() throws IOException {
+    backend.register("com.example/user", "schema 1");
+    backend.register("com.example/user", "schema 2");
+    backend.register("com.example/user", "schema 2");
+
+    FileSystemSchemaRegistryBackend reopened = new FileSystemSchemaRegistryBackend(root);
+    assertTrue(reopened.isSubjectRegistered("com.example/user"));
+    assertEquals(Arrays.asList("1", "2"), reopened.getAllVersions("com.example/user"));
+    assertEquals("schema 1", reopened.getBySubjectAndVersion("com.example/user", "1").getSchema());
+    assertEquals("schema 2", reopened.getLatestSchemaMetadata("com.example/user").getSchema());
+    assertEquals(Arrays.asList("com.example/user"), reopened.getAllSubjects());
+  }
+
+  @Test
+  public void shouldSeeVersionsRegisteredByAnotherInstance() throws IOException {
+    FileSystemSchemaRegistryBackend other = new FileSystemSchemaRegistryBackend(root);
+    backend.register("subject", "schema 1");
+    assertEquals("1", backend.getLatestVersion("subject"));
+
+    other.register("subject", "schema 2");
+    other.register("subject", "schema 3");
+
+    assertEquals("schema 3", backend.getLatestSchemaMetadata("subject").getSchema());
+    assertEquals("4", backend.register("subject", "schema 4").getVersion());
+  }
+
+  @Test
+  public void shouldRelistVersionsWhenLatestVersionWasRemoved() throws IOException {
+    backend.register("subject", "schema 1");
+    backend.register("subject", "schema 2");
+    assertEquals("2", backend.getLatestVersion("subject"));
+
+    Files.delete(root.resolve("subject").resolve("0000000002.schema"));
+
+    assertEquals("schema 1", backend.getLatestSchemaMetadata("subject").getSchema());
+  }
+
+  @Test
+  public void shouldNotLeaveTemporaryFiles() throws IOException {
+    backend.register("test", "schema 1");
+
+    try (Stream<Path> files = Files.list(root.resolve("test"))) {
+      assertEquals(Arrays.asList("0000000001.schema"),
+        files.map(file -> file.getFileName().toString()).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void shouldIgnoreFilesWhichAreNotVersions() throws IOException {
+    backend.register("test", "schema 1");
+    Files.write(root.resolve("test").resolve("0000000001.bak.schema"), "backup".getBytes());
+
+    assertEquals(Arrays.asList("1"), backend.getAllVersions("test"));
+    assertEquals("2", backend.register("test", "schema 2").getVersion());
+  }
+
+  @Test
+  public void shouldRejectRegistrationBasedOnOutdatedVersion() throws IOException {
+    SchemaMetadata first = backend.registerIfLatest("test", "schema 1", null);
+    backend.registerIfLatest("test", "schema 2", first);
+
+    try {
+      backend.registerIfLatest("test", "schema 3", first);
+      fail();
+    } catch (ConcurrentRegistrationException expected) {
+    }
+    assertEquals("schema 2", backend.getLatestSchemaMetadata("test").getSchema());
+  }
+
+  @Test
+  public void shouldEncodeSubjectsIntoSafeFileNames() {
+    assertEquals("%2E.", FileSystemSchemaRegistryBackend.encode(".."));
+    assertEquals("a.b%2Fc%C3%A4", FileSystemSchemaRegistryBackend.encode("a.b/c\u00e4"));
+    assertEquals("a.b/c\u00e4", FileSystemSchemaRegistryBackend.decode("a.b%2Fc%C3%A4"));
+  }
+}
@@ -0,0 +1,70 @@
+package de.khamrakulov.schema.registry.memory;
+
+import de.khamrakulov.schema.registry.ConcurrentRegistrationException;
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class InMemorySchemaRegistryBackendTest {
+  private final InMemorySchemaRegistryBackend backend = new InMemorySchemaRegistryBackend();
+
+  @Test
+  public void shouldKeepVersionHistory() throws IOException {
+    assertFalse(backend.isSubjectRegistered("test"));
+    assertNull(backend.findLatestSchemaMetadata("test"));
+
+    backend.register("test", "schema 1");
+    backend.register("test", "schema 2");
+    backend.register("test", "schema 2");
+    backend.revertToVersion("test", "1");
+
+    assertTrue(backend.isSubjectRegistered("test"));
+    assertEquals(Arrays.asList("1", "2", "3"), backend.getAllVersions("test"));
+    assertEquals("schema 2", backend.getBySubjectAndVersion("test", "2").getSchema());
+    assertEquals("schema 1", backend.getLatestSchemaMetadata("test").getSchema());
+    assertEquals("3", backend.getLatestVersion("test"));
+    assertEquals(Collections.singletonList("test"), backend.getAllSubjects());
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldFailForUnknownSubject() throws IOException {
+    backend.getLatestSchemaMetadata("test");
+  }
+
+  @Test(expected = ConcurrentRegistrationException.class)
+  public void shouldRejectRegistrationBasedOnOutdatedVersion() throws IOException {
+    SchemaMetadata first = backend.registerIfLatest("test", "schema 1", null);
+    backend.registerIfLatest("test", "schema 2", first);
+
+    backend.registerIfLatest("test", "schema 3", first);
+  }
+
+  @Test
+  public void shouldNotLoseConcurrentRegistrations() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<SchemaMetadata>> futures = new ArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+        String schema = "schema " + i;
+        futures.add(executor.submit(() -> backend.register("test", schema)));
+      }
+      for (Future<SchemaMetadata> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertEquals(1000, backend.getAllVersions("test").size());
+  }
+}
@@ -0,0 +1,93 @@
+package de.khamrakulov.schema.registry.metrics;
+
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import de.khamrakulov.schema.registry.SchemaContractVerifier;
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class InstrumentedSchemaRegistryBackendTest {
+  private SchemaRegistryBackend backend;
+  private SimpleRegistryMetrics metrics;
+  private InstrumentedSchemaRegistryBackend instrumented;
+
+  @Before
+  public void setUp() {
+    backend = mock(SchemaRegistryBackend.class);
+    metrics = new SimpleRegistryMetrics();
+    instrumented = new InstrumentedSchemaRegistryBackend(backend, metrics);
+  }
+
+  @Test
+  public void shouldRecordCallsAndTransferredBytes() throws IOException {
+    when(backend.getLatestSchemaMetadata("test")).thenReturn(new SchemaMetadata("test", "1", "sch\u00e9ma"));
+    when(backend.register("test", "schema")).thenReturn(new SchemaMetadata("test", "2", "schema"));
+
+    instrumented.getLatestSchemaMetadata("test");
+    instrumented.getLatestSchemaMetadata("test");
+    instrumented.register("test", "schema");
+
+    OperationStats reads = metrics.getOperationStats(BackendOperation.GET_LATEST_SCHEMA_METADATA);
+    assertEquals(2, reads.getRequestCount());
+    assertEquals(14, reads.getBytes());
+    assertEquals(0, reads.getErrorCount());
+    // the returned metadata echoes the registered schema, which was only sent once
+    assertEquals(6, metrics.getOperationStats(BackendOperation.REGISTER).getBytes());
+  }
+
+  @Test
+  public void shouldRecordErrorsByRootCause() throws IOException {
+    IOException failure = new IOException("Error retrieving schema for subject test",
+      new AmazonS3Exception("Slow Down"));
+    when(backend.getAllVersions("test")).thenThrow(failure);
+
+    try {
+      instrumented.getAllVersions("test");
+      fail();
+    } catch (IOException exception) {
+      assertSame(failure, exception);
+    }
+
+    OperationStats stats = metrics.getOperationStats(BackendOperation.GET_ALL_VERSIONS);
+    assertEquals(1, stats.getErrorCount());
+    assertEquals(Collections.singletonMap(AmazonS3Exception.class.getName(), 1L), stats.getErrorsByType());
+  }
+
+  @Test
+  public void shouldRecordVerificationOutcome() {
+    InstrumentedSchemaContractVerifier<String> verifier = new InstrumentedSchemaContractVerifier<>(
+      new SchemaContractVerifier<String>() {
+        @Override
+        public boolean isCompatible(String newSchema, String prevSchema) {
+          return newSchema.equals(prevSchema);
+        }
+
+        @Override
+        public boolean isCompatible(String newSchema, List<String> previousSchemas) {
+          return previousSchemas.stream().allMatch(newSchema::equals);
+        }
+      }, metrics);
+
+    assertTrue(verifier.isCompatible("a", "a"));
+    assertFalse(verifier.isCompatible("a", Collections.singletonList("b")));
+
+    assertEquals(2, metrics.getVerificationLatency().getCount());
+    assertEquals(1, metrics.getIncompatibleCount());
+  }
+
+  @Test
+  public void shouldMeasureUtf8Length() {
+    assertEquals(0, InstrumentedSchemaRegistryBackend.utf8Length(null));
+    assertEquals("a\u00e9\u20ac\ud83d\ude00".getBytes(StandardCharsets.UTF_8).length,
+      InstrumentedSchemaRegistryBackend.utf8Length("a\u00e9\u20ac\ud83d\ude00"));
+  }
+}
@@ -0,0 +1,31 @@
+package de.khamrakulov.schema.registry.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void shouldEstimatePercentilesWithinFactorOfTwo() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long nanos = 1; nanos <= 1000; nanos++) {
+      histogram.record(nanos * 1000);
+    }
+
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1_000_000, histogram.getMaxNanos());
+    assertEquals(500_500, histogram.getMeanNanos(), 0.001);
+    long median = histogram.getPercentileNanos(0.5);
+    assertTrue(median >= 500_000 && median < 1_000_000);
+    assertEquals(1_000_000, histogram.getPercentileNanos(1.0));
+  }
+
+  @Test
+  public void shouldReportZeroForEmptyHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    assertEquals(0, histogram.getPercentileNanos(0.99));
+    assertEquals(0, histogram.getMeanNanos(), 0);
+  }
+}
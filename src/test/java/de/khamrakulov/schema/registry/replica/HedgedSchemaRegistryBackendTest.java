@@ -0,0 +1,170 @@
+package de.khamrakulov.schema.registry.replica;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class HedgedSchemaRegistryBackendTest {
+  private final SchemaMetadata primaryMd = new SchemaMetadata("subject", "2", "schema 2");
+  private final SchemaMetadata replicaMd = new SchemaMetadata("subject", "1", "schema 1");
+
+  private SchemaRegistryBackend primary;
+  private SchemaRegistryBackend replica;
+  private HedgedSchemaRegistryBackend backend;
+  private CountDownLatch releasePrimary;
+
+  @Before
+  public void setUp() {
+    primary = mock(SchemaRegistryBackend.class);
+    replica = mock(SchemaRegistryBackend.class);
+    releasePrimary = new CountDownLatch(1);
+    backend = HedgedSchemaRegistryBackend.builder(primary)
+      .withReplica(replica)
+      .withInitialHedgeDelay(Duration.ofMillis(20))
+      .build();
+  }
+
+  @After
+  public void tearDown() {
+    releasePrimary.countDown();
+    backend.close();
+  }
+
+  @Test
+  public void shouldServeFastPrimaryWithoutHedging() throws IOException {
+    when(primary.getLatestSchemaMetadata("subject")).thenReturn(primaryMd);
+
+    assertSame(primaryMd, backend.getLatestSchemaMetadata("subject"));
+
+    verifyNoMoreInteractions(replica);
+    assertEquals(0, backend.getHedgeCount());
+  }
+
+  @Test
+  public void shouldHedgeSlowPrimary() throws IOException {
+    when(primary.getLatestSchemaMetadata("subject")).thenAnswer(invocation -> {
+      releasePrimary.await();
+      return primaryMd;
+    });
+    when(replica.getLatestSchemaMetadata("subject")).thenReturn(replicaMd);
+
+    assertSame(replicaMd, backend.getLatestSchemaMetadata("subject"));
+    assertEquals(1, backend.getHedgeCount());
+  }
+
+  @Test
+  public void shouldCancelLosingRequest() throws Exception {
+    CountDownLatch interrupted = new CountDownLatch(1);
+    when(primary.getLatestSchemaMetadata("subject")).thenAnswer(invocation -> {
+      try {
+        releasePrimary.await();
+      } catch (InterruptedException exception) {
+        interrupted.countDown();
+        throw new InterruptedIOException();
+      }
+      return primaryMd;
+    });
+    when(replica.getLatestSchemaMetadata("subject")).thenReturn(replicaMd);
+
+    assertSame(replicaMd, backend.getLatestSchemaMetadata("subject"));
+
+    assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void shouldSkipHedgeWhenNoThreadIsAvailable() throws IOException {
+    HedgedSchemaRegistryBackend singleThreaded = HedgedSchemaRegistryBackend.builder(primary)
+      .withReplica(replica)
+      .withInitialHedgeDelay(Duration.ofMillis(20))
+      .withMaximumThreads(1)
+      .build();
+    when(primary.getLatestSchemaMetadata("subject")).thenAnswer(invocation -> {
+      Thread.sleep(100);
+      return primaryMd;
+    });
+
+    try {
+      assertSame(primaryMd, singleThreaded.getLatestSchemaMetadata("subject"));
+    } finally {
+      singleThreaded.close();
+    }
+
+    verifyNoMoreInteractions(replica);
+    assertEquals(0, singleThreaded.getHedgeCount());
+  }
+
+  @Test
+  public void shouldFailOverToReplica() throws IOException {
+    when(primary.getBySubjectAndVersion("subject", "1")).thenThrow(new IOException("primary down"));
+    when(replica.getBySubjectAndVersion("subject", "1")).thenReturn(replicaMd);
+
+    assertSame(replicaMd, backend.getBySubjectAndVersion("subject", "1"));
+    assertEquals(1, backend.getFailoverCount());
+    assertEquals(0, backend.getHedgeCount());
+  }
+
+  @Test
+  public void shouldThrowFirstFailureIfAllBackendsFail() throws IOException {
+    IOException primaryFailure = new IOException("primary down");
+    IOException replicaFailure = new IOException("replica down");
+    when(primary.getAllSubjects()).thenThrow(primaryFailure);
+    when(replica.getAllSubjects()).thenThrow(replicaFailure);
+
+    try {
+      backend.getAllSubjects();
+      fail("Expected IOException");
+    } catch (IOException exception) {
+      assertSame(primaryFailure, exception);
+      assertArrayEquals(new Throwable[]{replicaFailure}, exception.getSuppressed());
+    }
+  }
+
+  @Test
+  public void shouldNotHedgeBeyondBudget() throws Exception {
+    backend.close();
+    backend = HedgedSchemaRegistryBackend.builder(primary)
+      .withReplica(replica)
+      .withInitialHedgeDelay(Duration.ofMillis(1))
+      .withMaximumHedgeRatio(0)
+      .build();
+    when(primary.getLatestVersion("subject")).thenAnswer(invocation -> {
+      Thread.sleep(50);
+      return "2";
+    });
+    when(replica.getLatestVersion("subject")).thenReturn("1");
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals("1", backend.getLatestVersion("subject"));
+    }
+    assertEquals("2", backend.getLatestVersion("subject"));
+    assertEquals(10, backend.getHedgeCount());
+  }
+
+  @Test
+  public void shouldWriteToPrimaryOnly() throws IOException {
+    when(primary.register("subject", "schema 2")).thenReturn(primaryMd);
+    when(primary.findLatestSchemaMetadata("subject")).thenReturn(primaryMd);
+    when(primary.isSubjectRegistered("subject")).thenReturn(true);
+
+    assertSame(primaryMd, backend.register("subject", "schema 2"));
+    assertSame(primaryMd, backend.findLatestSchemaMetadata("subject"));
+    assertTrue(backend.isSubjectRegistered("subject"));
+    backend.registerIfLatest("subject", "schema 3", primaryMd);
+    backend.revertToVersion("subject", "1");
+
+    verify(primary).registerIfLatest("subject", "schema 3", primaryMd);
+    verify(primary).revertToVersion("subject", "1");
+    verifyNoMoreInteractions(replica);
+  }
+}
@@ -0,0 +1,127 @@
+package de.khamrakulov.schema.registry.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.util.IOUtils;
+import de.khamrakulov.schema.registry.SchemaChange;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class S3ChangeLogTest {
+  private final static String bucketName = "test-bucket";
+  private final static String prefix = "testPrefix/_registry/changes/";
+
+  private final Map<String, byte[]> objects = new ConcurrentSkipListMap<>();
+  private AmazonS3 client;
+
+  @Before
+  public void setup() {
+    client = mock(AmazonS3.class);
+    when(client.putObject(any(PutObjectRequest.class))).thenAnswer(invocation -> {
+      PutObjectRequest rq = invocation.getArgument(0);
+      byte[] content = IOUtils.toByteArray(rq.getInputStream());
+      if (rq.getCustomRequestHeaders() != null && rq.getCustomRequestHeaders().containsKey("If-None-Match")
+        && objects.putIfAbsent(rq.getKey(), content) != null) {
+        AmazonS3Exception conflict = new AmazonS3Exception("At least one of the pre-conditions did not hold");
+        conflict.setStatusCode(412);
+        throw conflict;
+      }
+      objects.put(rq.getKey(), content);
+      return new PutObjectResult();
+    });
+    when(client.getObject(anyString(), anyString())).thenAnswer(invocation -> {
+      byte[] content = objects.get(invocation.<String>getArgument(1));
+      if (content == null) {
+        AmazonS3Exception notFound = new AmazonS3Exception("The specified key does not exist.");
+        notFound.setStatusCode(404);
+        throw notFound;
+      }
+      S3Object object = new S3Object();
+      object.getObjectMetadata().setHeader("ETag", "etag-" + content.length);
+      object.setObjectContent(new ByteArrayInputStream(content));
+      return object;
+    });
+    when(client.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+      ListObjectsV2Request rq = invocation.getArgument(0);
+      ListObjectsV2Result result = new ListObjectsV2Result();
+      for (String key : objects.keySet()) {
+        boolean nested = key.indexOf('/', rq.getPrefix().length()) >= 0;
+        if (key.startsWith(rq.getPrefix()) && !nested
+          && (rq.getStartAfter() == null || key.compareTo(rq.getStartAfter()) > 0)) {
+          S3ObjectSummary summary = new S3ObjectSummary();
+          summary.setKey(key);
+          result.getObjectSummaries().add(summary);
+        }
+      }
+      return result;
+    });
+  }
+
+  @Test
+  public void shouldContinueAfterTheEndOfTheLogInANewProcess() throws IOException {
+    S3ChangeLog first = new S3ChangeLog(client, bucketName, prefix, "text/plain", 3);
+    for (int i = 1; i <= 7; i++) {
+      assertEquals(i, first.append("subject" + i, "v" + i));
+    }
+    clearInvocations(client);
+
+    S3ChangeLog second = new S3ChangeLog(client, bucketName, prefix, "text/plain", 3);
+    assertEquals(8, second.append("subject8", null));
+
+    verify(client, times(1)).putObject(any(PutObjectRequest.class));
+  }
+
+  @Test
+  public void shouldReadCompactedSegments() throws IOException {
+    S3ChangeLog writer = new S3ChangeLog(client, bucketName, prefix, "text/plain", 3);
+    for (int i = 1; i <= 8; i++) {
+      writer.append("subject" + i, i == 5 ? null : "v" + i);
+    }
+    assertEquals("6", new String(objects.get(prefix + "checkpoint")));
+    clearInvocations(client);
+
+    S3ChangeLog reader = new S3ChangeLog(client, bucketName, prefix, "text/plain", 3);
+    List<SchemaChange> changes = reader.getChangesSince(1);
+
+    assertEquals(7, changes.size());
+    assertEquals(2L, changes.get(0).getSequence());
+    assertEquals("subject2", changes.get(0).getSubject());
+    assertNull(changes.get(3).getVersion());
+    assertEquals(changes.stream().map(SchemaChange::getSequence).sorted().collect(Collectors.toList()),
+      changes.stream().map(SchemaChange::getSequence).collect(Collectors.toList()));
+    // the checkpoint, the two segments and the two entries after the checkpoint
+    verify(client, times(5)).getObject(anyString(), anyString());
+    verify(client, times(1)).listObjectsV2(any(ListObjectsV2Request.class));
+    assertEquals(8, reader.getLatestSequence());
+  }
+
+  @Test
+  public void shouldPollWithTwoRequestsWhenNothingChanged() throws IOException {
+    S3ChangeLog log = new S3ChangeLog(client, bucketName, prefix, "text/plain", 3);
+    for (int i = 1; i <= 4; i++) {
+      log.append("subject", "v" + i);
+    }
+    clearInvocations(client);
+
+    assertTrue(log.getChangesSince(4).isEmpty());
+
+    verify(client, times(1)).getObject(anyString(), anyString());
+    verify(client, times(1)).listObjectsV2(any(ListObjectsV2Request.class));
+  }
+}
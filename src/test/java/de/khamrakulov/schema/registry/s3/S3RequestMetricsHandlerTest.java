@@ -0,0 +1,52 @@
+package de.khamrakulov.schema.registry.s3;
+
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectMetadataRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import de.khamrakulov.schema.registry.metrics.OperationStats;
+import de.khamrakulov.schema.registry.metrics.SimpleRegistryMetrics;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class S3RequestMetricsHandlerTest {
+  private final SimpleRegistryMetrics metrics = new SimpleRegistryMetrics();
+  private final S3RequestMetricsHandler handler = new S3RequestMetricsHandler(metrics);
+
+  @Test
+  public void shouldRecordEveryAttempt() {
+    Request<?> get = new DefaultRequest<>(new GetObjectRequest("bucket", "key"), "Amazon S3");
+    AmazonS3Exception slowDown = new AmazonS3Exception("Slow Down");
+    slowDown.setStatusCode(503);
+    attempt(get, null, slowDown);
+    HttpResponse ok = new HttpResponse(get, null);
+    ok.setStatusCode(200);
+    attempt(get, new Response<>(null, ok), null);
+    attempt(new DefaultRequest<>(new GetObjectMetadataRequest("bucket", "key"), "Amazon S3"), null, null);
+
+    OperationStats gets = metrics.getStorageRequestStats("GetObject");
+    assertEquals(2, gets.getRequestCount());
+    assertEquals(1, gets.getErrorCount());
+    assertEquals(Collections.singletonMap(AmazonS3Exception.class.getName(), 1L), gets.getErrorsByType());
+    assertEquals(1, metrics.getStorageRequestStats("GetObjectMetadata").getRequestCount());
+    assertEquals(3, metrics.getStorageRequestCount());
+    assertNull(metrics.getStorageRequestStats("PutObject"));
+  }
+
+  private void attempt(Request<?> request, Response<?> response, Exception exception) {
+    handler.beforeAttempt(HandlerBeforeAttemptContext.builder().withRequest(request).build());
+    handler.afterAttempt(HandlerAfterAttemptContext.builder()
+      .withRequest(request)
+      .withResponse(response)
+      .withException(exception)
+      .build());
+  }
+}
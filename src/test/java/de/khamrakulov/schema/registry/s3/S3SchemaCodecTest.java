@@ -0,0 +1,67 @@
+package de.khamrakulov.schema.registry.s3;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class S3SchemaCodecTest {
+
+  @Test
+  public void shouldReadBodiesOfAnySize() throws IOException {
+    for (int size : new int[]{0, 1, 8191, 8192, 8193, 100_000, 2_000_000}) {
+      final String schema = text(size);
+      final byte[] body = schema.getBytes(StandardCharsets.UTF_8);
+      assertEquals(schema, S3SchemaCodec.read(new ByteArrayInputStream(body), body.length));
+    }
+  }
+
+  @Test
+  public void shouldReadBodiesWithWrongOrUnknownContentLength() throws IOException {
+    final String schema = text(50_000);
+    final byte[] body = schema.getBytes(StandardCharsets.UTF_8);
+    assertEquals(schema, S3SchemaCodec.read(new ByteArrayInputStream(body), -1));
+    assertEquals(schema, S3SchemaCodec.read(new ByteArrayInputStream(body), 10));
+    assertEquals(schema, S3SchemaCodec.read(new ByteArrayInputStream(body), 100_000));
+  }
+
+  @Test
+  public void shouldReadCompressedBodies() throws IOException {
+    for (int size : new int[]{0, 100, 100_000}) {
+      final String schema = text(size);
+      final byte[] body = S3SchemaCodec.compress(schema.getBytes(StandardCharsets.UTF_8)).toByteArray();
+      assertEquals(schema, S3SchemaCodec.read(new ByteArrayInputStream(body), body.length));
+    }
+  }
+
+  @Test
+  public void shouldNotRetainBuffersOfLargeBodies() throws IOException {
+    final byte[] body = text(500_000).getBytes(StandardCharsets.UTF_8);
+    final byte[] compressed = S3SchemaCodec.compress(body).toByteArray();
+
+    S3SchemaCodec.read(new ByteArrayInputStream(body), body.length);
+    S3SchemaCodec.read(new ByteArrayInputStream(compressed), -1);
+
+    assertTrue(S3SchemaCodec.getRetainedBufferSize() <= 128 * 1024);
+  }
+
+  @Test
+  public void shouldUploadBodiesWithoutTrailingBufferSpace() throws IOException {
+    final byte[] body = S3SchemaCodec.compress(text(1000).getBytes(StandardCharsets.UTF_8)).toByteArray();
+    final S3SchemaCodec.Body compressed = S3SchemaCodec.compress(text(1000).getBytes(StandardCharsets.UTF_8));
+    assertEquals(body.length, compressed.size());
+    assertEquals(body.length, compressed.toInputStream().available());
+  }
+
+  private static String text(int size) {
+    final StringBuilder text = new StringBuilder(size);
+    for (int i = 0; i < size; i++) {
+      text.append(i % 97 == 0 ? '\u00e9' : (char) ('a' + i % 26));
+    }
+    return text.toString();
+  }
+}
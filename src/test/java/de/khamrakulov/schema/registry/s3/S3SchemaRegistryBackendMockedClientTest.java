@@ -0,0 +1,489 @@
+package de.khamrakulov.schema.registry.s3;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.util.IOUtils;
+import de.khamrakulov.schema.registry.ConcurrentRegistrationException;
+import de.khamrakulov.schema.registry.SchemaChange;
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class S3SchemaRegistryBackendMockedClientTest {
+  private final static String bucketName = "test-bucket";
+  private final static String folderPrefix = "testPrefix";
+  private final static String key = folderPrefix + "/testSubject";
+
+  private AmazonS3 client;
+  private S3SchemaRegistryBackend backend;
+
+  @Before
+  public void setup() {
+    client = mock(AmazonS3.class);
+    backend = S3SchemaRegistryBackend.builder(client, bucketName, folderPrefix).withConditionalFetch().build();
+  }
+
+  @Test
+  public void shouldOnlyRevalidateWhenLatestVersionDidNotMove() throws IOException {
+    when(client.getObject(any(GetObjectRequest.class))).thenReturn(s3Object("v1", "schema 1"));
+    when(client.getObjectMetadata(bucketName, key)).thenReturn(metadata("v1"));
+
+    SchemaMetadata first = backend.getLatestSchemaMetadata("testSubject");
+    SchemaMetadata second = backend.getLatestSchemaMetadata("testSubject");
+
+    assertSame(first, second);
+    verify(client, times(1)).getObject(any(GetObjectRequest.class));
+    verify(client, times(1)).getObjectMetadata(bucketName, key);
+  }
+
+  @Test
+  public void shouldDownloadObservedVersionWhenLatestMoved() throws IOException {
+    when(client.getObject(any(GetObjectRequest.class)))
+      .thenReturn(s3Object("v1", "schema 1"))
+      .thenReturn(s3Object("v2", "schema 2"));
+    when(client.getObjectMetadata(bucketName, key)).thenReturn(metadata("v2"));
+
+    backend.getLatestSchemaMetadata("testSubject");
+    SchemaMetadata current = backend.getLatestSchemaMetadata("testSubject");
+
+    assertEquals("v2", current.getVersion());
+    assertEquals("schema 2", current.getSchema());
+    verify(client).getObject(argThat((GetObjectRequest rq) -> "v2".equals(rq.getVersionId())));
+  }
+
+  @Test
+  public void shouldReturnSubjectsFromAllListPages() throws IOException {
+    when(client.listObjectsV2(any(ListObjectsV2Request.class)))
+      .thenReturn(listing("token", "testSubject1", "testSubject2"))
+      .thenReturn(listing(null, "testSubject3"));
+
+    assertEquals(Arrays.asList("testSubject1", "testSubject2", "testSubject3"), backend.getAllSubjects());
+  }
+
+  @Test
+  public void shouldRequestNextPageOnlyWhenStreamIsConsumed() {
+    when(client.listObjectsV2(any(ListObjectsV2Request.class)))
+      .thenReturn(listing("token", "testSubject1", "testSubject2"))
+      .thenReturn(listing(null, "testSubject3"));
+
+    assertEquals(Arrays.asList("testSubject1", "testSubject2"),
+      backend.streamSubjects().limit(2).collect(Collectors.toList()));
+    verify(client, times(1)).listObjectsV2(any(ListObjectsV2Request.class));
+  }
+
+  @Test
+  public void shouldListEverySubjectOnceInParallel() throws IOException {
+    List<String> keys = new ArrayList<>();
+    for (String subject : Arrays.asList("-first", "0", "A1", "Zebra", "_x", "a", "m", "mm", "z", "zz", "\u00fcber")) {
+      keys.add(folderPrefix + "/" + subject);
+    }
+    Collections.sort(keys);
+    when(client.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+      ListObjectsV2Request rq = invocation.getArgument(0);
+      return page(keys, rq, 2);
+    });
+
+    Set<String> subjects = ConcurrentHashMap.newKeySet();
+    backend.forEachSubject(8, subject -> assertTrue(subjects.add(subject)));
+
+    assertEquals(keys.size(), subjects.size());
+    assertTrue(subjects.contains("\u00fcber"));
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldFailParallelListingOnError() throws IOException {
+    when(client.listObjectsV2(any(ListObjectsV2Request.class))).thenThrow(new AmazonS3Exception("Slow Down"));
+
+    backend.forEachSubject(4, subject -> {
+    });
+  }
+
+  @Test
+  public void shouldRegisterOnConditionThatReadObjectIsStillLatest() throws IOException {
+    when(client.getObject(bucketName, key)).thenReturn(s3Object("v1", "schema 1"));
+    List<PutObjectRequest> puts = new ArrayList<>();
+    when(client.putObject(any(PutObjectRequest.class))).thenAnswer(invocation -> {
+      puts.add(invocation.getArgument(0));
+      PutObjectResult result = new PutObjectResult();
+      result.setVersionId("v2");
+      return result;
+    });
+
+    SchemaMetadata latest = backend.findLatestSchemaMetadata("testSubject");
+    SchemaMetadata registered = backend.registerIfLatest("testSubject", "schema 2", latest);
+
+    assertEquals("v2", registered.getVersion());
+    assertEquals("etag-v1", puts.get(0).getCustomRequestHeaders().get("If-Match"));
+    verify(client, never()).getObjectMetadata(anyString(), anyString());
+  }
+
+  @Test
+  public void shouldRegisterNewSubjectOnlyIfItDoesNotExist() throws IOException {
+    when(client.getObject(bucketName, key)).thenThrow(notFound());
+    AmazonS3Exception conflict = new AmazonS3Exception("At least one of the pre-conditions you specified did not hold");
+    conflict.setStatusCode(412);
+    when(client.putObject(any(PutObjectRequest.class))).thenThrow(conflict);
+
+    assertNull(backend.findLatestSchemaMetadata("testSubject"));
+    try {
+      backend.registerIfLatest("testSubject", "schema 1", null);
+      fail();
+    } catch (ConcurrentRegistrationException expected) {
+    }
+    verify(client).putObject(argThat((PutObjectRequest rq) ->
+      "*".equals(rq.getCustomRequestHeaders().get("If-None-Match"))));
+  }
+
+  @Test
+  public void shouldNotWriteSchemaIdenticalToLatest() throws IOException {
+    List<String> manifests = capturePuts("v1", "etag-v1");
+    when(client.getObjectMetadata(bucketName, key)).thenThrow(notFound());
+    backend.register("testSubject", "schema 1");
+    ArgumentCaptor<PutObjectRequest> put = ArgumentCaptor.forClass(PutObjectRequest.class);
+    verify(client).putObject(put.capture());
+    ObjectMetadata stored = metadata("v1");
+    stored.setUserMetadata(put.getValue().getMetadata().getUserMetadata());
+    reset(client);
+    when(client.getObjectMetadata(bucketName, key)).thenReturn(stored);
+    when(client.getObject(any(GetObjectRequest.class))).thenReturn(s3Object("v1", "schema 1"));
+
+    SchemaMetadata md = backend.register("testSubject", "schema 1");
+
+    assertEquals("v1", md.getVersion());
+    assertEquals("schema 1", md.getSchema());
+    assertTrue(manifests.isEmpty());
+    verify(client, never()).putObject(any(PutObjectRequest.class));
+    verify(client).getObject(argThat((GetObjectRequest rq) -> "v1".equals(rq.getVersionId())));
+  }
+
+  @Test
+  public void shouldWriteSchemaWhoseFingerprintCollidesWithLatest() throws IOException {
+    capturePuts("v1", "etag-v1");
+    when(client.getObjectMetadata(bucketName, key)).thenThrow(notFound());
+    backend.register("testSubject", "schema 1");
+    ArgumentCaptor<PutObjectRequest> put = ArgumentCaptor.forClass(PutObjectRequest.class);
+    verify(client).putObject(put.capture());
+    ObjectMetadata stored = metadata("v1");
+    stored.setUserMetadata(put.getValue().getMetadata().getUserMetadata());
+    reset(client);
+    capturePuts("v2", "etag-v2");
+    when(client.getObjectMetadata(bucketName, key)).thenReturn(stored);
+    // same fingerprint metadata, but another text stored
+    when(client.getObject(any(GetObjectRequest.class))).thenReturn(s3Object("v1", "colliding schema"));
+
+    SchemaMetadata md = backend.register("testSubject", "schema 1");
+
+    assertEquals("v2", md.getVersion());
+    verify(client).putObject(any(PutObjectRequest.class));
+  }
+
+  @Test
+  public void shouldSkipConditionalRegistrationOfLatestSchema() throws IOException {
+    SchemaMetadata latest = new SchemaMetadata("testSubject", "v1", "schema 1");
+
+    assertSame(latest, backend.registerIfLatest("testSubject", "schema 1", latest));
+    verifyNoMoreInteractions(client);
+  }
+
+  @Test
+  public void shouldStoreLargeSchemasCompressed() throws IOException {
+    S3SchemaRegistryBackend compressing = S3SchemaRegistryBackend.builder(client, bucketName, folderPrefix)
+      .withCompression(16)
+      .build();
+    String schema = String.join("", Collections.nCopies(100, "{\"type\": \"string\"}"));
+    when(client.getObjectMetadata(bucketName, key)).thenThrow(notFound());
+    List<byte[]> bodies = new ArrayList<>();
+    when(client.putObject(any(PutObjectRequest.class))).thenAnswer(invocation -> {
+      PutObjectRequest rq = invocation.getArgument(0);
+      bodies.add(IOUtils.toByteArray(rq.getInputStream()));
+      assertEquals("gzip", rq.getMetadata().getContentEncoding());
+      assertEquals(bodies.get(0).length, rq.getMetadata().getContentLength());
+      return new PutObjectResult();
+    });
+
+    compressing.register("testSubject", schema);
+    S3Object stored = new S3Object();
+    stored.setObjectMetadata(metadata("v1"));
+    stored.setObjectContent(new ByteArrayInputStream(bodies.get(0)));
+    when(client.getObject(any(GetObjectRequest.class))).thenReturn(stored);
+
+    assertTrue(bodies.get(0).length < schema.length() / 4);
+    assertEquals(schema, compressing.getBySubjectAndVersion("testSubject", "v1").getSchema());
+  }
+
+  @Test
+  public void shouldReadUncompressedSchemasWithCompressionEnabled() throws IOException {
+    S3SchemaRegistryBackend compressing = S3SchemaRegistryBackend.builder(client, bucketName, folderPrefix)
+      .withCompression()
+      .build();
+    when(client.getObject(any(GetObjectRequest.class))).thenReturn(s3Object("v1", "schema 1"));
+
+    assertEquals("schema 1", compressing.getBySubjectAndVersion("testSubject", "v1").getSchema());
+  }
+
+  @Test
+  public void shouldAppendRegistrationsToChangeLog() throws IOException {
+    Map<String, String> objects = new ConcurrentHashMap<>();
+    // another writer already appended the first change
+    objects.put(folderPrefix + "/_registry/changes/0000000000000000001", "otherSubject\to1");
+    fakeChangeLogObjects(objects);
+    S3SchemaRegistryBackend changeLogBackend = S3SchemaRegistryBackend.builder(client, bucketName, folderPrefix)
+      .withChangeLog()
+      .build();
+
+    changeLogBackend.register("testSubject", "schema 1");
+
+    List<SchemaChange> changes = changeLogBackend.getChangeFeed().getChangesSince(0);
+    assertEquals(2, changes.size());
+    assertEquals("otherSubject", changes.get(0).getSubject());
+    assertEquals(2, changes.get(1).getSequence());
+    assertEquals("testSubject", changes.get(1).getSubject());
+    assertEquals("v1", changes.get(1).getVersion());
+    assertEquals(2, changeLogBackend.getChangeFeed().getLatestSequence());
+    assertTrue(changeLogBackend.getChangeFeed().getChangesSince(2).isEmpty());
+  }
+
+  @Test
+  public void shouldCreateManifestOnFirstRegistration() throws IOException {
+    S3SchemaRegistryBackend manifestBackend = S3SchemaRegistryBackend.builder(client, bucketName, folderPrefix)
+      .withManifest()
+      .build();
+    List<String> manifests = capturePuts("v1", "manifest-etag");
+    when(client.getObjectMetadata(bucketName, key)).thenThrow(notFound());
+    when(client.getObject(any(GetObjectRequest.class))).thenThrow(notFound());
+    when(client.listObjectsV2(any(ListObjectsV2Request.class)))
+      .thenReturn(listing(null, "otherSubject", "testSubject"));
+    when(client.getObject(bucketName, folderPrefix + "/otherSubject")).thenReturn(s3Object("o1", "other schema"));
+    when(client.getObject(bucketName, key)).thenReturn(s3Object("v1", "schema 1"));
+
+    manifestBackend.register("testSubject", "schema 1");
+
+    assertEquals(1, manifests.size());
+    S3SchemaManifest manifest = S3SchemaManifest.parse(manifests.get(0));
+    assertEquals("v1", manifest.getEntry("testSubject").getVersion());
+    assertEquals("o1", manifest.getEntry("otherSubject").getVersion());
+    verify(client).putObject(argThat((PutObjectRequest rq) -> rq.getKey().endsWith("/_registry/manifest")
+      && "*".equals(rq.getCustomRequestHeaders().get("If-None-Match"))));
+  }
+
+  @Test
+  public void shouldReturnRegisteredVersionWhenManifestUpdateFails() throws IOException {
+    S3SchemaRegistryBackend manifestBackend = S3SchemaRegistryBackend.builder(client, bucketName, folderPrefix)
+      .withManifest()
+      .build();
+    capturePuts("v1", "manifest-etag");
+    when(client.getObjectMetadata(bucketName, key)).thenThrow(notFound());
+    when(client.getObject(any(GetObjectRequest.class))).thenThrow(new AmazonS3Exception("Slow Down"));
+
+    SchemaMetadata md = manifestBackend.register("testSubject", "schema 1");
+
+    assertEquals("v1", md.getVersion());
+    assertEquals("schema 1", md.getSchema());
+  }
+
+  @Test
+  public void shouldRetryManifestUpdateOnConflict() throws IOException {
+    S3SchemaRegistryBackend manifestBackend = S3SchemaRegistryBackend.builder(client, bucketName, folderPrefix)
+      .withManifest()
+      .build();
+    String other = S3SchemaManifest.EMPTY.with("otherSubject", new S3SchemaManifest.Entry("o1", "e", 1L)).serialize();
+    List<String> manifests = capturePuts("v1", "manifest-etag");
+    when(client.getObjectMetadata(bucketName, key)).thenThrow(notFound()).thenReturn(metadata("v1"));
+    when(client.getObject(any(GetObjectRequest.class)))
+      .thenThrow(notFound())
+      .thenReturn(manifestObject(other, "other-etag"));
+    when(client.listObjectsV2(any(ListObjectsV2Request.class))).thenReturn(listing(null, "testSubject"));
+    when(client.getObject(bucketName, key)).thenReturn(s3Object("v1", "schema 1"));
+    AmazonS3Exception conflict = new AmazonS3Exception("At least one of the preconditions you specified did not hold");
+    conflict.setStatusCode(412);
+    when(client.putObject(argThat((PutObjectRequest rq) -> rq.getKey().endsWith("manifest")
+      && rq.getCustomRequestHeaders().containsKey("If-None-Match")))).thenThrow(conflict);
+
+    manifestBackend.register("testSubject", "schema 1");
+
+    S3SchemaManifest manifest = S3SchemaManifest.parse(manifests.get(manifests.size() - 1));
+    assertEquals(new ArrayList<>(Arrays.asList("otherSubject", "testSubject")), new ArrayList<>(manifest.getSubjects()));
+  }
+
+  @Test
+  public void shouldNotReplaceNewerManifestEntry() throws IOException {
+    S3SchemaRegistryBackend manifestBackend = S3SchemaRegistryBackend.builder(client, bucketName, folderPrefix)
+      .withManifest()
+      .build();
+    String newer = S3SchemaManifest.EMPTY.with("testSubject", new S3SchemaManifest.Entry("v2", "etag-v2", 2L))
+      .serialize();
+    List<String> manifests = capturePuts("v1", "etag-v1");
+    when(client.getObjectMetadata(bucketName, key)).thenThrow(notFound()).thenReturn(metadata("v2"));
+    when(client.getObject(any(GetObjectRequest.class))).thenReturn(manifestObject(newer, "manifest-etag"));
+
+    manifestBackend.register("testSubject", "schema 1");
+
+    assertTrue(manifests.isEmpty());
+  }
+
+  @Test
+  public void shouldWriteLatestVersionWhenRegisteredVersionWasReplaced() throws IOException {
+    S3SchemaRegistryBackend manifestBackend = S3SchemaRegistryBackend.builder(client, bucketName, folderPrefix)
+      .withManifest()
+      .build();
+    String older = S3SchemaManifest.EMPTY.with("testSubject", new S3SchemaManifest.Entry("v0", "etag-v0", 0L))
+      .serialize();
+    List<String> manifests = capturePuts("v1", "etag-v1");
+    ObjectMetadata latest = metadata("v2");
+    latest.addUserMetadata("schema-fingerprint", String.format("%016x", 2L));
+    when(client.getObjectMetadata(bucketName, key)).thenThrow(notFound()).thenReturn(latest);
+    when(client.getObject(any(GetObjectRequest.class))).thenReturn(manifestObject(older, "manifest-etag"));
+
+    manifestBackend.register("testSubject", "schema 1");
+
+    S3SchemaManifest manifest = S3SchemaManifest.parse(manifests.get(0));
+    assertEquals("v2", manifest.getEntry("testSubject").getVersion());
+    assertEquals(2L, manifest.getEntry("testSubject").getFingerprint());
+  }
+
+  @Test
+  public void shouldRoundTripManifest() throws IOException {
+    S3SchemaManifest manifest = S3SchemaManifest.EMPTY
+      .with("subject1", new S3SchemaManifest.Entry("v1", "etag1", -1L))
+      .with("subject2", new S3SchemaManifest.Entry(null, null, 42L));
+
+    S3SchemaManifest parsed = S3SchemaManifest.parse(manifest.serialize());
+
+    assertEquals(manifest.getSubjects(), parsed.getSubjects());
+    assertEquals(-1L, parsed.getEntry("subject1").getFingerprint());
+    assertEquals("etag1", parsed.getEntry("subject1").getETag());
+    assertNull(parsed.getEntry("subject2").getVersion());
+  }
+
+  private List<String> capturePuts(String version, String eTag) {
+    List<String> manifests = new ArrayList<>();
+    when(client.putObject(any(PutObjectRequest.class))).thenAnswer(invocation -> {
+      PutObjectRequest rq = invocation.getArgument(0);
+      String content = IOUtils.toString(rq.getInputStream());
+      if (rq.getKey().endsWith("manifest")) {
+        manifests.add(content);
+      }
+      PutObjectResult result = new PutObjectResult();
+      result.setVersionId(version);
+      result.setETag(eTag);
+      return result;
+    });
+    return manifests;
+  }
+
+  private static AmazonS3Exception notFound() {
+    AmazonS3Exception exception = new AmazonS3Exception("The specified key does not exist.");
+    exception.setStatusCode(404);
+    return exception;
+  }
+
+  private static S3Object manifestObject(String content, String eTag) {
+    S3Object object = s3Object("m1", content);
+    object.getObjectMetadata().setHeader("ETag", eTag);
+    return object;
+  }
+
+  // objects in a map, which honours If-None-Match on writes
+  private void fakeChangeLogObjects(Map<String, String> objects) {
+    when(client.getObjectMetadata(bucketName, key)).thenThrow(notFound());
+    when(client.putObject(any(PutObjectRequest.class))).thenAnswer(invocation -> {
+      PutObjectRequest rq = invocation.getArgument(0);
+      String content = IOUtils.toString(rq.getInputStream());
+      if (rq.getCustomRequestHeaders() != null && rq.getCustomRequestHeaders().containsKey("If-None-Match")
+        && objects.putIfAbsent(rq.getKey(), content) != null) {
+        AmazonS3Exception conflict = new AmazonS3Exception("At least one of the pre-conditions did not hold");
+        conflict.setStatusCode(412);
+        throw conflict;
+      }
+      objects.put(rq.getKey(), content);
+      PutObjectResult result = new PutObjectResult();
+      result.setVersionId("v1");
+      return result;
+    });
+    when(client.listObjectsV2(any(ListObjectsV2Request.class))).thenAnswer(invocation -> {
+      ListObjectsV2Request rq = invocation.getArgument(0);
+      List<String> keys = objects.keySet().stream().filter(k -> k.startsWith(rq.getPrefix())).sorted()
+        .collect(Collectors.toList());
+      return page(keys, rq, 1);
+    });
+    when(client.getObject(anyString(), anyString())).thenAnswer(invocation -> {
+      String content = objects.get(invocation.<String>getArgument(1));
+      if (content == null) {
+        throw notFound();
+      }
+      return s3Object("v1", content);
+    });
+  }
+
+  // a page of the sorted keys, as S3 would list them for the request
+  private static ListObjectsV2Result page(List<String> keys, ListObjectsV2Request rq, int pageSize) {
+    int from = 0;
+    if (rq.getContinuationToken() != null) {
+      from = Integer.parseInt(rq.getContinuationToken());
+    } else if (rq.getStartAfter() != null) {
+      while (from < keys.size() && keys.get(from).compareTo(rq.getStartAfter()) <= 0) {
+        from++;
+      }
+    }
+    int to = Math.min(from + pageSize, keys.size());
+    ListObjectsV2Result result = new ListObjectsV2Result();
+    for (String key : keys.subList(from, to)) {
+      S3ObjectSummary summary = new S3ObjectSummary();
+      summary.setKey(key);
+      result.getObjectSummaries().add(summary);
+    }
+    result.setTruncated(to < keys.size());
+    result.setNextContinuationToken(to < keys.size() ? String.valueOf(to) : null);
+    return result;
+  }
+
+  private static ListObjectsV2Result listing(String nextContinuationToken, String... subjects) {
+    ListObjectsV2Result result = new ListObjectsV2Result();
+    for (String subject : subjects) {
+      S3ObjectSummary summary = new S3ObjectSummary();
+      summary.setKey(folderPrefix + "/" + subject);
+      result.getObjectSummaries().add(summary);
+    }
+    result.setNextContinuationToken(nextContinuationToken);
+    result.setTruncated(nextContinuationToken != null);
+    return result;
+  }
+
+  private static ObjectMetadata metadata(String version) {
+    ObjectMetadata md = new ObjectMetadata();
+    md.setHeader("x-amz-version-id", version);
+    md.setHeader("ETag", "etag-" + version);
+    return md;
+  }
+
+  private static S3Object s3Object(String version, String content) {
+    S3Object object = new S3Object();
+    object.setObjectMetadata(metadata(version));
+    object.setObjectContent(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    return object;
+  }
+}
@@ -6,7 +6,6 @@ import com.amazonaws.services.s3.model.BucketVersioningConfiguration;
 import com.amazonaws.services.s3.model.SetBucketVersioningConfigurationRequest;
 import de.khamrakulov.schema.registry.SchemaMetadata;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.testcontainers.containers.localstack.LocalStackContainer;
@@ -134,14 +133,25 @@ public class S3SchemaRegistryBackendTest {
   }
 
   @Test
-  @Ignore
   public void shouldReturnAllVersions() throws IOException {
     String testSubject = "testSubject";
     SchemaMetadata result1 = backend.register(testSubject, schema1);
-    SchemaMetadata result2 = backend.register(testSubject, schema1);
-    SchemaMetadata result3 = backend.register(testSubject, schema1);
+    SchemaMetadata result2 = backend.register(testSubject, "test schema 2");
+    SchemaMetadata result3 = backend.register(testSubject, "test schema 3");
 
     List<String> versions = backend.getAllVersions(testSubject);
     assertEquals(Arrays.asList(result1.getVersion(), result2.getVersion(), result3.getVersion()), versions);
   }
+
+  @Test
+  public void shouldReturnLatestVersionWhenRegisteringLatestSchemaAgain() throws IOException {
+    String testSubject = "testSubject";
+    backend.register(testSubject, schema1);
+    SchemaMetadata latest = backend.register(testSubject, "test schema 2");
+
+    SchemaMetadata again = backend.register(testSubject, "test schema 2");
+
+    assertEquals(latest.getVersion(), again.getVersion());
+    assertEquals(2, backend.getAllVersions(testSubject).size());
+  }
 }
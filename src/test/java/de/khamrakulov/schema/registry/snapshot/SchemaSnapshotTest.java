@@ -0,0 +1,157 @@
+package de.khamrakulov.schema.registry.snapshot;
+
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import de.khamrakulov.schema.registry.memory.InMemorySchemaRegistryBackend;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SchemaSnapshotTest {
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private InMemorySchemaRegistryBackend source;
+
+  @Before
+  public void setUp() {
+    source = new InMemorySchemaRegistryBackend();
+    for (int subject = 0; subject < 20; subject++) {
+      for (int version = 0; version <= subject % 4; version++) {
+        source.register("subject-" + subject, "{\"type\": \"record\", \"name\": \"S" + subject + "\", \"v\": " + version
+          + "}");
+      }
+    }
+    source.register("subject-1", "{\"type\": \"record\", \"name\": \"S1\", \"v\": 0}");
+  }
+
+  @Test
+  public void shouldExportAndReadEverySubjectWithItsHistory() throws IOException {
+    SchemaSnapshot snapshot = SchemaSnapshot.read(new ByteArrayInputStream(export(source)));
+
+    assertEquals(source.getAllSubjects(), snapshot.getSubjects());
+    for (String subject : source.getAllSubjects()) {
+      assertHistoryEquals(source, subject, snapshot.getHistory(subject));
+    }
+  }
+
+  @Test
+  public void shouldReadBundleFile() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("registry.snapshot");
+    Files.write(file, export(source));
+
+    SchemaSnapshot snapshot = SchemaSnapshot.read(file);
+
+    assertHistoryEquals(source, "subject-7", snapshot.getHistory("subject-7"));
+  }
+
+  @Test
+  public void shouldImportIntoEmptyBackendAndResumeImport() throws IOException {
+    SchemaSnapshot snapshot = SchemaSnapshot.read(new ByteArrayInputStream(export(source)));
+    InMemorySchemaRegistryBackend target = new InMemorySchemaRegistryBackend();
+    target.register("subject-3", "{\"type\": \"record\", \"name\": \"S3\", \"v\": 0}");
+
+    assertEquals(source.getAllSubjects().stream().mapToInt(s -> source.getAllVersions(s).size()).sum() - 1,
+      snapshot.importInto(target));
+    assertEquals(0, snapshot.importInto(target));
+
+    assertEquals(source.getAllSubjects(), target.getAllSubjects());
+    for (String subject : source.getAllSubjects()) {
+      assertEquals(source.getAllVersions(subject), target.getAllVersions(subject));
+      assertMetadataEquals(source.getLatestSchemaMetadata(subject), target.getLatestSchemaMetadata(subject));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldRejectImportIntoDivergedSubject() throws IOException {
+    SchemaSnapshot snapshot = SchemaSnapshot.read(new ByteArrayInputStream(export(source)));
+    InMemorySchemaRegistryBackend target = new InMemorySchemaRegistryBackend();
+    target.register("subject-3", "{\"type\": \"record\", \"name\": \"Other\"}");
+
+    snapshot.importInto(target);
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldRejectImportIntoSubjectDivergedBeforeLatestVersion() throws IOException {
+    SchemaSnapshot snapshot = SchemaSnapshot.read(new ByteArrayInputStream(export(source)));
+    InMemorySchemaRegistryBackend target = new InMemorySchemaRegistryBackend();
+    target.register("subject-3", "{\"type\": \"record\", \"name\": \"Other\"}");
+    target.register("subject-3", "{\"type\": \"record\", \"name\": \"S3\", \"v\": 1}");
+
+    snapshot.importInto(target);
+  }
+
+  @Test
+  public void shouldDetectCorruptBlocks() throws IOException {
+    byte[] bundle = export(source);
+    bundle[SchemaSnapshotWriter.HEADER_SIZE + SchemaSnapshotWriter.BLOCK_HEADER_SIZE + 2] ^= 0x10;
+    SchemaSnapshot snapshot = SchemaSnapshot.read(new ByteArrayInputStream(bundle));
+
+    try {
+      snapshot.getHistory(snapshot.getSubjects().get(0));
+      fail("Expected IOException");
+    } catch (IOException exception) {
+      assertTrue(exception.getMessage().startsWith("Corrupt schema snapshot"));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void shouldRejectTruncatedBundles() throws IOException {
+    byte[] bundle = export(source);
+    SchemaSnapshot.read(new ByteArrayInputStream(Arrays.copyOf(bundle, bundle.length - 1)));
+  }
+
+  @Test
+  public void shouldServeSnapshotAsReadOnlyBackend() throws IOException {
+    SchemaRegistryBackend backend =
+      new SnapshotSchemaRegistryBackend(SchemaSnapshot.read(new ByteArrayInputStream(export(source))));
+
+    assertEquals(source.getAllSubjects(), backend.getAllSubjects());
+    assertMetadataEquals(source.getLatestSchemaMetadata("subject-3"), backend.getLatestSchemaMetadata("subject-3"));
+    assertMetadataEquals(source.getBySubjectAndVersion("subject-3", "2"),
+      backend.getBySubjectAndVersion("subject-3", "2"));
+    assertEquals("4", backend.getLatestVersion("subject-3"));
+    assertTrue(backend.isSubjectRegistered("subject-3"));
+    assertFalse(backend.isSubjectRegistered("unknown"));
+    assertNull(backend.findLatestSchemaMetadata("unknown"));
+    assertTrue(backend.getAllVersions("unknown").isEmpty());
+    try {
+      backend.register("subject-3", "schema");
+      fail("Expected IOException");
+    } catch (IOException exception) {
+      assertEquals("Schema snapshot is read-only", exception.getMessage());
+    }
+  }
+
+  private static byte[] export(SchemaRegistryBackend backend) throws IOException {
+    ByteArrayOutputStream bundle = new ByteArrayOutputStream();
+    assertEquals(backend.getAllSubjects().size(), SchemaSnapshot.export(backend, bundle, 4));
+    return bundle.toByteArray();
+  }
+
+  private static void assertHistoryEquals(SchemaRegistryBackend backend, String subject, List<SchemaMetadata> history)
+    throws IOException {
+    List<String> versions = backend.getAllVersions(subject);
+    assertEquals(versions.size(), history.size());
+    for (int i = 0; i < versions.size(); i++) {
+      assertMetadataEquals(backend.getBySubjectAndVersion(subject, versions.get(i)), history.get(i));
+    }
+  }
+
+  private static void assertMetadataEquals(SchemaMetadata expected, SchemaMetadata actual) {
+    assertEquals(expected.getSubject(), actual.getSubject());
+    assertEquals(expected.getVersion(), actual.getVersion());
+    assertEquals(expected.getSchema(), actual.getSchema());
+  }
+}
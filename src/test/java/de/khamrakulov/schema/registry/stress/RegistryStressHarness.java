@@ -0,0 +1,242 @@
+package de.khamrakulov.schema.registry.stress;
+
+import de.khamrakulov.schema.registry.ConcurrentRegistrationException;
+import de.khamrakulov.schema.registry.SchemaCompatibilityException;
+import de.khamrakulov.schema.registry.SchemaMetadata;
+import de.khamrakulov.schema.registry.SchemaParser;
+import de.khamrakulov.schema.registry.SchemaRegistry;
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import de.khamrakulov.schema.registry.avro.AvroSchemaContractVerifier;
+import de.khamrakulov.schema.registry.avro.AvroSchemaParser;
+import de.khamrakulov.schema.registry.cache.CachingSchemaParser;
+import org.apache.avro.Schema;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a mixed workload of reads, registrations and reverts from many threads against a {@link SchemaRegistry} and
+ * checks the outcome for consistency.
+ * <p>
+ * Every registration writes a distinct schema, all schemas are compatible with each other. Two kinds of violations
+ * are counted:
+ * <ul>
+ * <li>lost update: an acknowledged version holds another schema than acknowledged, or is missing in the end</li>
+ * <li>stale read: a read of the latest version returned a version older than one acknowledged before the read
+ * started. Detected for backends with numeric versions only, S3 version ids aren't ordered.</li>
+ * </ul>
+ */
+public class RegistryStressHarness {
+  private static final String SCHEMA_FORMAT = "{\"type\": \"record\", \"name\": \"Stress\", \"doc\": \"%s\", "
+    + "\"fields\": [{\"name\": \"id\", \"type\": \"long\"}]}";
+
+  private final SchemaRegistryBackend backend;
+  private final SchemaRegistryBackend source;
+  private final Workload workload;
+  private final SchemaParser<Schema> parser = new CachingSchemaParser<>(new AvroSchemaParser());
+  private final SchemaRegistry<Schema> registry;
+
+  private final ConcurrentMap<String, String> acknowledged = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, AtomicLong> latestAcknowledged = new ConcurrentHashMap<>();
+  private final LongAdder lostUpdates = new LongAdder();
+  private final LongAdder staleReads = new LongAdder();
+  private volatile boolean numericVersions = true;
+
+  /**
+   * @param backend backend under test, possibly decorated, e.g. with caching layers
+   * @param source undecorated backend, whose contents are checked after the run
+   */
+  public RegistryStressHarness(SchemaRegistryBackend backend, SchemaRegistryBackend source, Workload workload) {
+    this.backend = backend;
+    this.source = source;
+    this.workload = workload;
+    this.registry = new SchemaRegistry<>(backend, AvroSchemaContractVerifier.FULL_CHECKER, parser);
+  }
+
+  public StressReport run() throws IOException, SchemaCompatibilityException, InterruptedException {
+    for (int i = 0; i < workload.subjects; i++) {
+      acknowledge(registry.register(subject(i), parse("seed")));
+    }
+    final StressReport report = new StressReport(workload);
+    final CountDownLatch started = new CountDownLatch(1);
+    final Thread[] threads = new Thread[workload.threads];
+    for (int i = 0; i < threads.length; i++) {
+      final int worker = i;
+      threads[i] = new Thread(() -> work(worker, started, report), "registry-stress-" + i);
+      threads[i].start();
+    }
+    final long startNanos = System.nanoTime();
+    started.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    report.elapsedNanos = System.nanoTime() - startNanos;
+    verifyAcknowledged();
+    report.lostUpdates = lostUpdates.sum();
+    report.staleReads = staleReads.sum();
+    report.staleReadsChecked = numericVersions;
+    return report;
+  }
+
+  private void work(int worker, CountDownLatch started, StressReport report) {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    long sequence = 0;
+    try {
+      started.await();
+    } catch (InterruptedException exception) {
+      return;
+    }
+    final long deadline = System.nanoTime() + workload.duration.toNanos();
+    while (System.nanoTime() - deadline < 0) {
+      final String subject = subject(random.nextInt(workload.subjects));
+      final int dice = random.nextInt(100);
+      final StressReport.Operation operation = dice < workload.readPercent ? StressReport.Operation.READ
+        : dice < workload.readPercent + workload.revertPercent ? StressReport.Operation.REVERT
+        : StressReport.Operation.REGISTER;
+      final Schema schema = operation == StressReport.Operation.REGISTER
+        ? parse(String.format("worker %d, registration %d", worker, sequence++)) : null;
+      final long startNanos = System.nanoTime();
+      try {
+        switch (operation) {
+          case READ:
+            read(subject);
+            break;
+          case REGISTER:
+            acknowledge(registry.register(subject, schema));
+            break;
+          default:
+            revert(subject, random);
+        }
+        report.record(operation, System.nanoTime() - startNanos);
+      } catch (ConcurrentRegistrationException exception) {
+        report.conflicts.increment();
+      } catch (IOException | SchemaCompatibilityException | RuntimeException exception) {
+        report.recordError(operation, exception);
+      }
+    }
+  }
+
+  private void read(String subject) throws IOException {
+    final AtomicLong latest = latestAcknowledged.get(subject);
+    final long latestBefore = latest == null ? 0 : latest.get();
+    final SchemaMetadata md = backend.getLatestSchemaMetadata(subject);
+    parser.parse(md.getSchema());
+    final Long version = parseVersion(md.getVersion());
+    if (version != null && version < latestBefore) {
+      staleReads.increment();
+    }
+  }
+
+  private void revert(String subject, ThreadLocalRandom random) throws IOException {
+    final List<String> versions = backend.getAllVersions(subject);
+    acknowledge(backend.revertToVersion(subject, versions.get(random.nextInt(versions.size()))));
+  }
+
+  private void acknowledge(SchemaMetadata md) {
+    final String previous = acknowledged.putIfAbsent(key(md.getSubject(), md.getVersion()), md.getSchema());
+    if (previous != null && !previous.equals(md.getSchema())) {
+      // two writers were acknowledged the same version
+      lostUpdates.increment();
+    }
+    final Long version = parseVersion(md.getVersion());
+    if (version != null) {
+      latestAcknowledged.computeIfAbsent(md.getSubject(), subject -> new AtomicLong())
+        .accumulateAndGet(version, Math::max);
+    }
+  }
+
+  private void verifyAcknowledged() throws IOException {
+    for (Map.Entry<String, String> entry : acknowledged.entrySet()) {
+      final String[] subjectVersion = entry.getKey().split("\u0000", 2);
+      try {
+        if (!entry.getValue().equals(source.getBySubjectAndVersion(subjectVersion[0], subjectVersion[1]).getSchema())) {
+          lostUpdates.increment();
+        }
+      } catch (IOException exception) {
+        lostUpdates.increment();
+      }
+    }
+  }
+
+  private Long parseVersion(String version) {
+    if (!numericVersions) {
+      return null;
+    }
+    try {
+      return Long.parseLong(version);
+    } catch (NumberFormatException exception) {
+      numericVersions = false;
+      return null;
+    }
+  }
+
+  private static Schema parse(String doc) {
+    return new Schema.Parser().parse(String.format(SCHEMA_FORMAT, doc));
+  }
+
+  private static String subject(int index) {
+    return "stress-" + index;
+  }
+
+  private static String key(String subject, String version) {
+    return subject + '\u0000' + version;
+  }
+
+  /**
+   * Shape of the load, defaults can be overridden with {@code stress.*} system properties
+   */
+  public static final class Workload {
+    private int threads = Integer.getInteger("stress.threads", 8);
+    private Duration duration = Duration.ofMillis(Long.getLong("stress.durationMillis", 1000));
+    private int subjects = Integer.getInteger("stress.subjects", 4);
+    private int readPercent = Integer.getInteger("stress.readPercent", 80);
+    private int revertPercent = Integer.getInteger("stress.revertPercent", 5);
+
+    public Workload withThreads(int threads) {
+      this.threads = threads;
+      return this;
+    }
+
+    public Workload withDuration(Duration duration) {
+      this.duration = duration;
+      return this;
+    }
+
+    /**
+     * @param subjects number of subjects, fewer subjects mean more contention
+     */
+    public Workload withSubjects(int subjects) {
+      this.subjects = subjects;
+      return this;
+    }
+
+    /**
+     * @param readPercent share of reads, the rest not taken by reverts are registrations
+     */
+    public Workload withReadPercent(int readPercent) {
+      this.readPercent = readPercent;
+      return this;
+    }
+
+    public Workload withRevertPercent(int revertPercent) {
+      this.revertPercent = revertPercent;
+      return this;
+    }
+
+    int getThreads() {
+      return threads;
+    }
+
+    int getSubjects() {
+      return subjects;
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package de.khamrakulov.schema.registry.stress;
+
+import de.khamrakulov.schema.registry.SchemaRegistryBackend;
+import de.khamrakulov.schema.registry.cache.CachingSchemaRegistryBackend;
+import de.khamrakulov.schema.registry.cache.CoalescingSchemaRegistryBackend;
+import de.khamrakulov.schema.registry.fs.FileSystemSchemaRegistryBackend;
+import de.khamrakulov.schema.registry.memory.InMemorySchemaRegistryBackend;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Short stress runs of every in-process backend, enabled with {@code -Dstress.enabled=true} and scaled with the other
+ * {@code stress.*} system properties
+ */
+public class RegistryStressTest {
+  private static final Logger LOGGER = LoggerFactory.getLogger(RegistryStressTest.class);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @BeforeClass
+  public static void assumeEnabled() {
+    assumeTrue("stress runs are disabled, enable them with -Dstress.enabled=true",
+      Boolean.getBoolean("stress.enabled"));
+  }
+
+  @Test
+  public void inMemoryBackendShouldStayConsistent() throws Exception {
+    assertConsistent(run(new InMemorySchemaRegistryBackend()), true);
+  }
+
+  @Test
+  public void fileSystemBackendShouldStayConsistent() throws Exception {
+    assertConsistent(run(new FileSystemSchemaRegistryBackend(folder.getRoot().toPath())), true);
+  }
+
+  @Test
+  public void coalescingBackendShouldNotLoseUpdates() throws Exception {
+    // single-flight by design: a read joining a load, which started before a registration completed, returns the
+    // previous version. Stale reads are therefore only reported.
+    InMemorySchemaRegistryBackend source = new InMemorySchemaRegistryBackend();
+    assertConsistent(run(new CoalescingSchemaRegistryBackend(source), source), false);
+  }
+
+  @Test
+  public void cachingBackendShouldStayConsistent() throws Exception {
+    // every write goes through the decorator, so the cached latest version must never lag behind
+    InMemorySchemaRegistryBackend source = new InMemorySchemaRegistryBackend();
+    assertConsistent(run(new CachingSchemaRegistryBackend(source), source), true);
+  }
+
+  private static StressReport run(SchemaRegistryBackend backend) throws Exception {
+    return run(backend, backend);
+  }
+
+  private static StressReport run(SchemaRegistryBackend backend, SchemaRegistryBackend source)
+    throws Exception {
+    StressReport report = new RegistryStressHarness(backend, source, new RegistryStressHarness.Workload()).run();
+    LOGGER.info("{}: {}", backend.getClass().getSimpleName(), report);
+    return report;
+  }
+
+  private static void assertConsistent(StressReport report, boolean fresh) {
+    assertEquals(report.toString(), 0, report.getErrors());
+    assertEquals(report.toString(), 0, report.getLostUpdates());
+    if (fresh) {
+      assertEquals(report.toString(), 0, report.getStaleReads());
+    }
+  }
+}
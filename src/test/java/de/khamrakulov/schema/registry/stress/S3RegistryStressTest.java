@@ -0,0 +1,51 @@
+package de.khamrakulov.schema.registry.stress;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.BucketVersioningConfiguration;
+import com.amazonaws.services.s3.model.SetBucketVersioningConfigurationRequest;
+import de.khamrakulov.schema.registry.s3.S3SchemaRegistryBackend;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.containers.localstack.LocalStackContainer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+import static org.testcontainers.containers.localstack.LocalStackContainer.Service.S3;
+
+public class S3RegistryStressTest {
+  private static final Logger LOGGER = LoggerFactory.getLogger(S3RegistryStressTest.class);
+  private final static String bucketName = "stress-bucket";
+
+  @Rule
+  public LocalStackContainer localstack = new LocalStackContainer().withServices(S3);
+
+  @BeforeClass
+  public static void assumeEnabled() {
+    // checked before the container is started
+    assumeTrue("stress runs are disabled, enable them with -Dstress.enabled=true",
+      Boolean.getBoolean("stress.enabled"));
+  }
+
+  @Test
+  public void s3BackendShouldNotLoseUpdates() throws Exception {
+    AmazonS3 client = AmazonS3ClientBuilder
+      .standard()
+      .withEndpointConfiguration(localstack.getEndpointConfiguration(S3))
+      .withCredentials(localstack.getDefaultCredentialsProvider())
+      .build();
+    client.createBucket(bucketName);
+    client.setBucketVersioningConfiguration(new SetBucketVersioningConfigurationRequest(bucketName,
+      new BucketVersioningConfiguration().withStatus("Enabled")));
+    S3SchemaRegistryBackend backend = new S3SchemaRegistryBackend(client, bucketName, "stress");
+
+    StressReport report = new RegistryStressHarness(backend, backend, new RegistryStressHarness.Workload()).run();
+    LOGGER.info("S3SchemaRegistryBackend: {}", report);
+
+    assertEquals(report.toString(), 0, report.getErrors());
+    assertEquals(report.toString(), 0, report.getLostUpdates());
+  }
+}
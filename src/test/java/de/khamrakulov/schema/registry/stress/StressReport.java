@@ -0,0 +1,105 @@
+package de.khamrakulov.schema.registry.stress;
+
+import de.khamrakulov.schema.registry.metrics.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput, latencies and consistency violations of a {@link RegistryStressHarness} run
+ */
+public class StressReport {
+  public enum Operation {
+    READ, REGISTER, REVERT
+  }
+
+  private final RegistryStressHarness.Workload workload;
+  private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+  private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+  final LongAdder conflicts = new LongAdder();
+  long elapsedNanos;
+  long lostUpdates;
+  long staleReads;
+  boolean staleReadsChecked;
+
+  StressReport(RegistryStressHarness.Workload workload) {
+    this.workload = workload;
+    for (Operation operation : Operation.values()) {
+      latencies.put(operation, new LatencyHistogram());
+    }
+  }
+
+  void record(Operation operation, long nanos) {
+    latencies.get(operation).record(nanos);
+  }
+
+  void recordError(Operation operation, Exception exception) {
+    errors.computeIfAbsent(operation + " " + exception.getClass().getSimpleName(), key -> new LongAdder())
+      .increment();
+  }
+
+  public LatencyHistogram getLatency(Operation operation) {
+    return latencies.get(operation);
+  }
+
+  /**
+   * @return successful operations per second
+   */
+  public double getThroughput() {
+    long operations = 0;
+    for (LatencyHistogram latency : latencies.values()) {
+      operations += latency.getCount();
+    }
+    return operations * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(1, elapsedNanos);
+  }
+
+  /**
+   * @return registrations, which failed after all retries because of concurrent writers
+   */
+  public long getConflicts() {
+    return conflicts.sum();
+  }
+
+  public long getErrors() {
+    return errors.values().stream().mapToLong(LongAdder::sum).sum();
+  }
+
+  public long getLostUpdates() {
+    return lostUpdates;
+  }
+
+  public long getStaleReads() {
+    return staleReads;
+  }
+
+  /**
+   * @return false if the backend versions aren't ordered, so stale reads couldn't be detected
+   */
+  public boolean isStaleReadsChecked() {
+    return staleReadsChecked;
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder report = new StringBuilder(String.format(
+      "%d threads, %d subjects: %.0f ops/s, %d conflicts, %d errors %s, %d lost updates, %s stale reads%n",
+      workload.getThreads(), workload.getSubjects(), getThroughput(), getConflicts(), getErrors(), errors,
+      lostUpdates, staleReadsChecked ? String.valueOf(staleReads) : "unchecked"));
+    for (Map.Entry<Operation, LatencyHistogram> latency : latencies.entrySet()) {
+      final LatencyHistogram histogram = latency.getValue();
+      report.append(String.format("  %-8s %8d ops  p50 %8dus  p99 %8dus  p99.9 %8dus  max %8dus%n",
+        latency.getKey(), histogram.getCount(), micros(histogram.getPercentileNanos(0.5)),
+        micros(histogram.getPercentileNanos(0.99)), micros(histogram.getPercentileNanos(0.999)),
+        micros(histogram.getMaxNanos())));
+    }
+    return report.toString();
+  }
+
+  private static long micros(long nanos) {
+    return TimeUnit.NANOSECONDS.toMicros(nanos);
+  }
+}